@@ -23,9 +23,11 @@ import com.purbon.kafka.topology.model.users.Schemas;
 import com.purbon.kafka.topology.model.users.platform.ControlCenterInstance;
 import com.purbon.kafka.topology.model.users.platform.SchemaRegistryInstance;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +43,8 @@ public class AccessControlManager {
   private final List<String> managedServiceAccountPrefixes;
   private final List<String> managedTopicPrefixes;
   private final List<String> managedGroupPrefixes;
+  private SyncScope scope;
+  private ClusterSnapshot clusterSnapshot;
 
   public AccessControlManager(
       AccessControlProvider controlProvider, BindingsBuilderProvider builderProvider) {
@@ -57,6 +61,20 @@ public class AccessControlManager {
     this.managedServiceAccountPrefixes = config.getServiceAccountManagedPrefixes();
     this.managedTopicPrefixes = config.getTopicManagedPrefixes();
     this.managedGroupPrefixes = config.getGroupManagedPrefixes();
+    this.scope = config.getSyncScope();
+    this.clusterSnapshot = new ClusterSnapshot();
+  }
+
+  /** Limit the next runs to the given scope, instead of the configured one. */
+  void setScope(SyncScope scope) {
+    this.scope = scope;
+  }
+
+  /**
+   * List the cluster through the given snapshot, kept between the runs of a long running process.
+   */
+  void setClusterSnapshot(ClusterSnapshot clusterSnapshot) {
+    this.clusterSnapshot = clusterSnapshot;
   }
 
   /**
@@ -69,12 +87,19 @@ public class AccessControlManager {
   public void apply(final Topology topology, ExecutionPlan plan) {
     List<Action> actions = buildProjectActions(topology);
     actions.addAll(buildPlatformLevelActions(topology));
-    buildUpdateBindingsActions(actions, loadActualClusterStateIfAvailable(plan)).forEach(plan::add);
+    SyncScope.Filter filter = scope.filter(topology, config.getTopicPrefixSeparator());
+    buildUpdateBindingsActions(actions, loadActualClusterStateIfAvailable(plan), filter::includes)
+        .forEach(plan::add);
   }
 
-  private Set<TopologyAclBinding> loadActualClusterStateIfAvailable(ExecutionPlan plan) {
-    Set<TopologyAclBinding> bindings =
-        config.fetchStateFromTheCluster() ? providerBindings() : plan.getBindings();
+  Set<TopologyAclBinding> loadActualClusterStateIfAvailable(ExecutionPlan plan) {
+    Set<TopologyAclBinding> bindings;
+    try (Timings.Timer timer = Timings.phase("fetch.bindings")) {
+      bindings =
+          config.fetchStateFromTheCluster()
+              ? clusterSnapshot.bindings(this::providerBindings)
+              : plan.getBindings();
+    }
     return bindings.stream().filter(this::matchesManagedPrefixList).collect(Collectors.toSet());
   }
 
@@ -182,6 +207,17 @@ public class AccessControlManager {
    */
   public List<Action> buildUpdateBindingsActions(
       List<Action> actions, Set<TopologyAclBinding> bindings) {
+    return buildUpdateBindingsActions(actions, bindings, binding -> true);
+  }
+
+  /**
+   * Only the bindings in scope are created or deleted. Bindings built from any part of the topology
+   * are never deleted, whatever the scope.
+   */
+  private List<Action> buildUpdateBindingsActions(
+      List<Action> actions,
+      Set<TopologyAclBinding> bindings,
+      Predicate<TopologyAclBinding> inScope) {
 
     List<Action> updateActions = new ArrayList<>();
 
@@ -193,6 +229,7 @@ public class AccessControlManager {
             .filter(Objects::nonNull)
             // Only create what we manage
             .filter(this::matchesManagedPrefixList)
+            .filter(inScope)
             // Diff of bindings, so we only create what is not already created in the cluster.
             .filter(binding -> !bindings.contains(binding))
             .collect(Collectors.toSet());
@@ -207,6 +244,7 @@ public class AccessControlManager {
       // but where previously created
       Set<TopologyAclBinding> bindingsToDelete =
           bindings.stream()
+              .filter(inScope)
               .filter(binding -> !allFinalBindings.contains(binding))
               .collect(Collectors.toSet());
       if (!bindingsToDelete.isEmpty()) {
@@ -0,0 +1,84 @@
+package com.purbon.kafka.topology;
+
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.utils.HashUtils;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Journal of the actions executed by a plan, stored with the state metadata. Each action is
+ * identified by a hash of its id, so a resumed run can skip the actions a failed run already
+ * completed.
+ */
+public class ActionJournal {
+
+  private static final Logger LOGGER = LogManager.getLogger(ActionJournal.class);
+
+  static final String JOURNAL_KEY_PREFIX = "journal.";
+
+  public enum Status {
+    COMPLETED,
+    FAILED
+  }
+
+  private final Map<String, Status> entries;
+
+  public ActionJournal() {
+    this(new HashMap<>());
+  }
+
+  /**
+   * Build a journal with the entries stored in the state metadata.
+   *
+   * @param metadata the metadata stored with the state
+   */
+  public ActionJournal(Map<String, String> metadata) {
+    this.entries = new HashMap<>();
+    metadata.forEach(
+        (key, value) -> {
+          if (key.startsWith(JOURNAL_KEY_PREFIX)) {
+            try {
+              entries.put(key.substring(JOURNAL_KEY_PREFIX.length()), Status.valueOf(value));
+            } catch (IllegalArgumentException e) {
+              LOGGER.debug(String.format("Ignoring journal entry %s=%s", key, value));
+            }
+          }
+        });
+  }
+
+  public synchronized boolean isCompleted(Action action) throws IOException {
+    return entries.get(idOf(action)) == Status.COMPLETED;
+  }
+
+  public synchronized void record(Action action, Status status) throws IOException {
+    entries.put(idOf(action), status);
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** @return the journal entries, as stored in the state metadata */
+  public synchronized Map<String, String> asMetadata() {
+    Map<String, String> metadata = new HashMap<>();
+    entries.forEach((id, status) -> metadata.put(JOURNAL_KEY_PREFIX + id, status.name()));
+    return metadata;
+  }
+
+  /**
+   * @param metadata the metadata stored with the state
+   * @return a copy of the metadata without any journal entry
+   */
+  public static Map<String, String> withoutJournal(Map<String, String> metadata) {
+    Map<String, String> copy = new HashMap<>(metadata);
+    copy.keySet().removeIf(key -> key.startsWith(JOURNAL_KEY_PREFIX));
+    return copy;
+  }
+
+  static String idOf(Action action) throws IOException {
+    return HashUtils.sha256Hex(action.getId());
+  }
+}
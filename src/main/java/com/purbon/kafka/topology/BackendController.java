@@ -5,8 +5,10 @@ import com.purbon.kafka.topology.backend.FileBackend;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,6 +28,8 @@ public class BackendController {
   private Set<String> topics;
   private Set<TopologyAclBinding> bindings;
   private Set<ServiceAccount> serviceAccounts;
+  private Map<String, String> metadata;
+  private boolean restored;
 
   public BackendController() {
     this(new FileBackend());
@@ -36,6 +40,8 @@ public class BackendController {
     this.bindings = new HashSet<>();
     this.serviceAccounts = new HashSet<>();
     this.topics = new HashSet<>();
+    this.metadata = new HashMap<>();
+    this.restored = false;
   }
 
   public void addBindings(List<TopologyAclBinding> bindings) {
@@ -65,7 +71,42 @@ public class BackendController {
     return topics;
   }
 
+  public Map<String, String> getMetadata() {
+    return new HashMap<>(metadata);
+  }
+
+  public void setMetadata(Map<String, String> metadata) {
+    this.metadata = new HashMap<>(metadata);
+  }
+
+  /**
+   * Load only the metadata stored with the state, without loading the state itself.
+   *
+   * @return the stored metadata
+   * @throws IOException if the metadata can not be read
+   */
+  public Map<String, String> loadMetadata() throws IOException {
+    backend.createOrOpen();
+    try {
+      metadata = new HashMap<>(backend.loadMetadata());
+    } finally {
+      backend.close();
+    }
+    return getMetadata();
+  }
+
   public void flushAndClose() {
+    save();
+    backend.close();
+  }
+
+  /** Store the current state, keeping the backend open for the next saves of the run. */
+  public void flush() {
+    save();
+    backend.flush();
+  }
+
+  private void save() {
     LOGGER.debug(String.format("Flushing the current state of %s, %s", STORE_TYPE, bindings));
     backend.createOrOpen(Mode.TRUNCATE);
     backend.saveType(STORE_TYPE);
@@ -74,15 +115,46 @@ public class BackendController {
     backend.saveAccounts(serviceAccounts);
     backend.saveType("Topics");
     backend.saveTopics(topics);
-    backend.close();
+    backend.saveMetadata(metadata);
+  }
+
+  /**
+   * Start from a state kept in memory, instead of loading it from the backend. The state is still
+   * stored in the backend, and the next {@link #load()} keeps it.
+   */
+  public void restore(
+      Set<String> topics,
+      Set<TopologyAclBinding> bindings,
+      Set<ServiceAccount> serviceAccounts,
+      Map<String, String> metadata) {
+    reset();
+    this.topics.addAll(topics);
+    this.bindings.addAll(bindings);
+    this.serviceAccounts.addAll(serviceAccounts);
+    this.metadata = new HashMap<>(metadata);
+    this.restored = true;
   }
 
   public void load() throws IOException {
+    if (restored) {
+      LOGGER.debug("Using the state kept in memory by the last run");
+      return;
+    }
     LOGGER.debug(String.format("Loading data from the backend at %s", backend.getClass()));
     backend.createOrOpen();
     bindings.addAll(backend.loadBindings());
     serviceAccounts.addAll(backend.loadServiceAccounts());
     topics.addAll(backend.loadTopics());
+    metadata.putAll(backend.loadMetadata());
+  }
+
+  /** Load the state for reading only, releasing the backend right after. */
+  public void loadAndClose() throws IOException {
+    try {
+      load();
+    } finally {
+      backend.close();
+    }
   }
 
   public void reset() {
@@ -2,6 +2,7 @@ package com.purbon.kafka.topology;
 
 import static java.lang.System.exit;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +34,38 @@ public class BuilderCLI {
   public static final String DRY_RUN_OPTION = "dryRun";
   public static final String DRY_RUN_DESC = "Print the execution plan without altering anything.";
 
+  public static final String PLAN_OUT_OPTION = "planOut";
+  public static final String PLAN_OUT_DESC =
+      "Write the execution plan to a file, to be applied later with --planIn, without altering anything.";
+
+  public static final String PLAN_IN_OPTION = "planIn";
+  public static final String PLAN_IN_DESC =
+      "Apply the execution plan written with --planOut, if the cluster state did not change since.";
+
+  public static final String RESUME_OPTION = "resume";
+  public static final String RESUME_DESC =
+      "Resume the last failed run, skipping the actions it already completed.";
+
+  public static final String PROJECTS_OPTION = "projects";
+  public static final String PROJECTS_DESC =
+      "Comma separated list of projects, by name or name prefix, the run is limited to.";
+
+  public static final String TOPICS_OPTION = "topics";
+  public static final String TOPICS_DESC =
+      "Comma separated list of topics, by full name, the run is limited to.";
+
+  public static final String PRINCIPALS_OPTION = "principals";
+  public static final String PRINCIPALS_DESC =
+      "Comma separated list of principals the run is limited to.";
+
+  public static final String DAEMON_OPTION = "daemon";
+  public static final String DAEMON_DESC =
+      "Keep running, and apply the topology again whenever its files change.";
+
+  public static final String SERVER_OPTION = "server";
+  public static final String SERVER_DESC =
+      "Keep running, and serve the plan and apply requests of the topology over HTTP.";
+
   public static final String QUIET_OPTION = "quiet";
   public static final String QUIET_DESC = "Print minimum status update";
 
@@ -56,8 +89,14 @@ public class BuilderCLI {
 
   private Options buildOptions() {
 
+    // the topology is required, unless an execution plan is applied
     final Option topologyFileOption =
-        Option.builder().longOpt(TOPOLOGY_OPTION).hasArg().desc(TOPOLOGY_DESC).required().build();
+        Option.builder()
+            .longOpt(TOPOLOGY_OPTION)
+            .hasArg()
+            .desc(TOPOLOGY_DESC)
+            .required(false)
+            .build();
 
     final Option plansFileOption =
         Option.builder().longOpt(PLANS_OPTION).hasArg().desc(PLANS_DESC).required(false).build();
@@ -94,6 +133,65 @@ public class BuilderCLI {
             .required(false)
             .build();
 
+    final Option planOutOption =
+        Option.builder()
+            .longOpt(PLAN_OUT_OPTION)
+            .hasArg()
+            .desc(PLAN_OUT_DESC)
+            .required(false)
+            .build();
+
+    final Option planInOption =
+        Option.builder()
+            .longOpt(PLAN_IN_OPTION)
+            .hasArg()
+            .desc(PLAN_IN_DESC)
+            .required(false)
+            .build();
+
+    final Option resumeOption =
+        Option.builder()
+            .longOpt(RESUME_OPTION)
+            .hasArg(false)
+            .desc(RESUME_DESC)
+            .required(false)
+            .build();
+
+    final Option projectsOption =
+        Option.builder()
+            .longOpt(PROJECTS_OPTION)
+            .hasArg()
+            .desc(PROJECTS_DESC)
+            .required(false)
+            .build();
+
+    final Option topicsOption =
+        Option.builder().longOpt(TOPICS_OPTION).hasArg().desc(TOPICS_DESC).required(false).build();
+
+    final Option principalsOption =
+        Option.builder()
+            .longOpt(PRINCIPALS_OPTION)
+            .hasArg()
+            .desc(PRINCIPALS_DESC)
+            .required(false)
+            .build();
+
+    final Option daemonOption =
+        Option.builder()
+            .longOpt(DAEMON_OPTION)
+            .hasArg(false)
+            .desc(DAEMON_DESC)
+            .required(false)
+            .build();
+
+    final Option serverOption =
+        Option.builder()
+            .longOpt(SERVER_OPTION)
+            .hasArg(false)
+            .desc(SERVER_DESC)
+            .required(false)
+            .build();
+
     final Option quietOption =
         Option.builder()
             .longOpt(QUIET_OPTION)
@@ -122,6 +220,14 @@ public class BuilderCLI {
 
     options.addOption(allowDeleteOption);
     options.addOption(dryRunOption);
+    options.addOption(planOutOption);
+    options.addOption(planInOption);
+    options.addOption(resumeOption);
+    options.addOption(projectsOption);
+    options.addOption(topicsOption);
+    options.addOption(principalsOption);
+    options.addOption(daemonOption);
+    options.addOption(serverOption);
     options.addOption(quietOption);
     options.addOption(versionOption);
     options.addOption(helpOption);
@@ -141,8 +247,26 @@ public class BuilderCLI {
 
     Map<String, String> config = parseConfig(cmd);
 
+    if (cmd.hasOption(DAEMON_OPTION)) {
+      runDaemon(
+          cmd.getOptionValue(TOPOLOGY_OPTION, ""),
+          cmd.getOptionValue(PLANS_OPTION, "default"),
+          config);
+      return;
+    }
+
+    if (cmd.hasOption(SERVER_OPTION)) {
+      runServer(
+          cmd.getOptionValue(TOPOLOGY_OPTION, ""),
+          cmd.getOptionValue(PLANS_OPTION, "default"),
+          config);
+      return;
+    }
+
     processTopology(
-        cmd.getOptionValue(TOPOLOGY_OPTION), cmd.getOptionValue(PLANS_OPTION, "default"), config);
+        cmd.getOptionValue(TOPOLOGY_OPTION, ""),
+        cmd.getOptionValue(PLANS_OPTION, "default"),
+        config);
     System.out.println("Kafka Topology updated");
   }
 
@@ -160,6 +284,20 @@ public class BuilderCLI {
               ALLOW_DELETE_OPTION));
     }
     config.put(DRY_RUN_OPTION, String.valueOf(cmd.hasOption(DRY_RUN_OPTION)));
+    if (cmd.hasOption(PLAN_OUT_OPTION)) {
+      config.put(PLAN_OUT_OPTION, cmd.getOptionValue(PLAN_OUT_OPTION));
+    }
+    if (cmd.hasOption(PLAN_IN_OPTION)) {
+      config.put(PLAN_IN_OPTION, cmd.getOptionValue(PLAN_IN_OPTION));
+    }
+    if (cmd.hasOption(RESUME_OPTION)) {
+      config.put(RESUME_OPTION, "true");
+    }
+    for (String option : Arrays.asList(PROJECTS_OPTION, TOPICS_OPTION, PRINCIPALS_OPTION)) {
+      if (cmd.hasOption(option)) {
+        config.put(option, cmd.getOptionValue(option));
+      }
+    }
     config.put(QUIET_OPTION, String.valueOf(cmd.hasOption(QUIET_OPTION)));
     config.put(ADMIN_CLIENT_CONFIG_OPTION, cmd.getOptionValue(ADMIN_CLIENT_CONFIG_OPTION));
     return config;
@@ -182,6 +320,12 @@ public class BuilderCLI {
     CommandLine cmd = null;
     try {
       cmd = parser.parse(options, args);
+      if (!cmd.hasOption(TOPOLOGY_OPTION)
+          && (!cmd.hasOption(PLAN_IN_OPTION)
+              || cmd.hasOption(DAEMON_OPTION)
+              || cmd.hasOption(SERVER_OPTION))) {
+        throw new MissingOptionException("Missing required option: " + TOPOLOGY_OPTION);
+      }
     } catch (ParseException e) {
       System.out.println("Parsing failed cause of " + e.getMessage());
       formatter.printHelp("cli", options);
@@ -197,4 +341,32 @@ public class BuilderCLI {
       builder.run();
     }
   }
+
+  void runDaemon(String topologyFile, String plansFile, Map<String, String> config)
+      throws Exception {
+    try (TopologyDaemon daemon = TopologyDaemon.build(topologyFile, plansFile, config)) {
+      Runtime.getRuntime()
+          .addShutdownHook(
+              new Thread(
+                  () -> {
+                    try {
+                      daemon.close();
+                    } catch (IOException e) {
+                      LOGGER.error("The topology daemon could not be closed", e);
+                    }
+                  }));
+      daemon.run();
+    }
+  }
+
+  void runServer(String topologyFile, String plansFile, Map<String, String> config)
+      throws Exception {
+    // the state of each run is returned to the client, not printed
+    Map<String, String> serverConfig = new HashMap<>(config);
+    serverConfig.put(QUIET_OPTION, "true");
+    try (TopologyServer server = TopologyServer.build(topologyFile, plansFile, serverConfig)) {
+      Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+      server.run();
+    }
+  }
 }
@@ -0,0 +1,116 @@
+package com.purbon.kafka.topology;
+
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The state of the cluster known from the last runs of a long running process: the state stored by
+ * the last run, and the topics, bindings and service accounts listed from the cluster when the
+ * managers fetch them from it. The listings follow the actions applied by the runs, so the next
+ * runs start from the snapshot instead of reading the backend and listing the cluster again.
+ *
+ * <p>Any change made outside of the topology builder is only seen once the snapshot is invalidated,
+ * as the full syncs of the daemon do.
+ */
+class ClusterSnapshot {
+
+  @FunctionalInterface
+  interface Listing<T> {
+    Set<T> list() throws IOException;
+  }
+
+  // the state stored by the last run, null until a run applied a plan
+  private Set<String> storedTopics;
+  private Set<TopologyAclBinding> storedBindings;
+  private Set<ServiceAccount> storedAccounts;
+  private Map<String, String> storedMetadata;
+
+  // the resources listed from the cluster, null until listed
+  private Set<String> topics;
+  private Set<TopologyAclBinding> bindings;
+  private Set<ServiceAccount> serviceAccounts;
+
+  /** Forget everything, so the next run reads the backend and lists the cluster again. */
+  synchronized void invalidate() {
+    storedTopics = null;
+    storedBindings = null;
+    storedAccounts = null;
+    storedMetadata = null;
+    topics = null;
+    bindings = null;
+    serviceAccounts = null;
+  }
+
+  /** @return true if the state stored by the last run is known */
+  synchronized boolean hasState() {
+    return storedMetadata != null;
+  }
+
+  /**
+   * Keep the state of a backend controller, once it was loaded or stored.
+   *
+   * @param state the loaded or stored state
+   */
+  synchronized void store(BackendController state) {
+    storedTopics = new HashSet<>(state.getTopics());
+    storedBindings = new HashSet<>(state.getBindings());
+    storedAccounts = new HashSet<>(state.getServiceAccounts());
+    storedMetadata = new HashMap<>(state.getMetadata());
+  }
+
+  /**
+   * Start a backend controller from the kept state, instead of loading it from the backend.
+   *
+   * @param state the controller of the run
+   * @return false if the state is not known, and has to be loaded
+   */
+  synchronized boolean restore(BackendController state) {
+    if (!hasState()) {
+      return false;
+    }
+    state.restore(storedTopics, storedBindings, storedAccounts, storedMetadata);
+    return true;
+  }
+
+  synchronized Set<String> topics(Listing<String> listing) throws IOException {
+    if (topics == null) {
+      topics = new HashSet<>(listing.list());
+    }
+    return new HashSet<>(topics);
+  }
+
+  synchronized Set<TopologyAclBinding> bindings(Supplier<Set<TopologyAclBinding>> listing) {
+    if (bindings == null) {
+      bindings = new HashSet<>(listing.get());
+    }
+    return new HashSet<>(bindings);
+  }
+
+  synchronized Set<ServiceAccount> serviceAccounts(Listing<ServiceAccount> listing)
+      throws IOException {
+    if (serviceAccounts == null) {
+      serviceAccounts = new HashSet<>(listing.list());
+    }
+    return new HashSet<>(serviceAccounts);
+  }
+
+  /**
+   * Apply the changes of a completed action to the listed resources.
+   *
+   * @param action an action run against the cluster
+   */
+  synchronized void apply(Action action) {
+    ExecutionPlan.applyTo(
+        action,
+        topics == null ? new HashSet<>() : topics,
+        bindings == null ? new HashSet<>() : bindings,
+        serviceAccounts == null ? new HashSet<>() : serviceAccounts);
+  }
+}
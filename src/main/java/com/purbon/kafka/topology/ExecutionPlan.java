@@ -5,20 +5,33 @@ import com.purbon.kafka.topology.actions.BaseAccountsAction;
 import com.purbon.kafka.topology.actions.access.ClearBindings;
 import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
 import com.purbon.kafka.topology.actions.accounts.CreateAccounts;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
 import com.purbon.kafka.topology.actions.topics.DeleteTopics;
 import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
-import com.purbon.kafka.topology.utils.StreamUtils;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -26,7 +39,54 @@ public class ExecutionPlan {
 
   private static final Logger LOGGER = LogManager.getLogger(ExecutionPlan.class);
 
+  static final int DEFAULT_CHECKPOINT_ACTIONS = 10;
+
+  /**
+   * The stages of a plan, in execution order. The actions of a stage are independent of each other
+   * and can run concurrently, a stage only starts once the previous one is completed.
+   */
+  public enum Stage {
+    // Create users should always be first, so user exists when making acl link
+    CREATE_ACCOUNTS,
+    SYNC_TOPICS,
+    // Schemas are registered once the topics are synced, so slow Schema Registry calls never
+    // hold back the topics
+    SYNC_SCHEMAS,
+    CREATE_BINDINGS,
+    DELETE_RESOURCES,
+    // Delete users should always be last, avoids any unlinked acls
+    DELETE_ACCOUNTS;
+
+    public static Stage of(Action action) {
+      if (action instanceof CreateAccounts) {
+        return CREATE_ACCOUNTS;
+      } else if (action instanceof ClearAccounts) {
+        return DELETE_ACCOUNTS;
+      } else if (action instanceof SyncTopicAction) {
+        return SYNC_TOPICS;
+      } else if (action instanceof RegisterSchemaAction) {
+        return SYNC_SCHEMAS;
+      } else if (action instanceof DeleteTopics || action instanceof ClearBindings) {
+        return DELETE_RESOURCES;
+      } else {
+        return CREATE_BINDINGS;
+      }
+    }
+  }
+
   private final List<Action> plan;
+  private final int parallelism;
+  private final boolean resume;
+  private int schemaParallelism;
+  private boolean checkSchemas;
+  private int checkpointActions;
+  private int actionsSinceCheckpoint;
+  private final Map<String, String> storedMetadata;
+  private final ActionJournal journal;
+  private final List<Supplier<Map<String, String>>> metadataSources;
+  private final List<Consumer<Action>> actionListeners;
+  private final List<Consumer<Map<String, String>>> completionMetadata;
+  private String dryRunFormat;
   private PrintStream outputStream;
   private BackendController backendController;
   private Set<TopologyAclBinding> bindings;
@@ -34,8 +94,24 @@ public class ExecutionPlan {
   private Set<String> topics;
 
   private ExecutionPlan(
-      List<Action> plan, PrintStream outputStream, BackendController backendController) {
+      List<Action> plan,
+      PrintStream outputStream,
+      BackendController backendController,
+      int parallelism,
+      boolean resume) {
     this.plan = plan;
+    this.parallelism = parallelism;
+    this.resume = resume;
+    this.schemaParallelism = parallelism;
+    this.checkpointActions = DEFAULT_CHECKPOINT_ACTIONS;
+    this.actionsSinceCheckpoint = 0;
+    this.storedMetadata = ActionJournal.withoutJournal(backendController.getMetadata());
+    this.journal =
+        resume ? new ActionJournal(backendController.getMetadata()) : new ActionJournal();
+    this.metadataSources = new ArrayList<>();
+    this.actionListeners = new ArrayList<>();
+    this.completionMetadata = new ArrayList<>();
+    this.dryRunFormat = TopologyBuilderConfig.DRY_RUN_TEXT_FORMAT;
     this.outputStream = outputStream;
     this.bindings = new HashSet<>();
     this.serviceAccounts = new HashSet<>();
@@ -52,11 +128,71 @@ public class ExecutionPlan {
     this.plan.add(action);
   }
 
+  /**
+   * Add a source of metadata to store with the state once the plan ran, as well when it failed.
+   *
+   * @param source the supplier of the metadata, called after the actions ran
+   */
+  public void addMetadataSource(Supplier<Map<String, String>> source) {
+    metadataSources.add(source);
+  }
+
+  /**
+   * Add an update of the metadata stored once all the actions completed, like the fingerprint of
+   * the applied topology. Unlike the metadata sources, it is never stored by a checkpoint nor by a
+   * failed run, as it describes the outcome of the whole plan.
+   *
+   * @param update the update, given the metadata to store, called once the actions completed
+   */
+  public void addCompletionMetadata(Consumer<Map<String, String>> update) {
+    completionMetadata.add(update);
+  }
+
+  /**
+   * Add a listener of the actions applied to the cluster, called once each action completed.
+   *
+   * @param listener the listener, called from the threads running the actions
+   */
+  public void addActionListener(Consumer<Action> listener) {
+    actionListeners.add(listener);
+  }
+
   public static ExecutionPlan init(BackendController backendController, PrintStream outputStream)
       throws IOException {
-    backendController.load();
+    return init(backendController, outputStream, 1, false);
+  }
+
+  public static ExecutionPlan init(
+      BackendController backendController, PrintStream outputStream, TopologyBuilderConfig config)
+      throws IOException {
+    ExecutionPlan plan =
+        init(backendController, outputStream, config.getExecutionParallelism(), config.isResume());
+    plan.dryRunFormat = config.getDryRunFormat();
+    plan.schemaParallelism = config.getSchemaParallelism();
+    plan.checkSchemas = config.isSchemaCompatibilityCheckEnabled();
+    plan.checkpointActions = config.getStateCheckpointActions();
+    return plan;
+  }
+
+  /**
+   * @param backendController The state backend
+   * @param outputStream The stream where dry runs print the actions
+   * @param parallelism The maximum number of actions of a stage that run concurrently
+   * @param resume If true, the actions completed by the last failed run are skipped
+   * @return an empty execution plan
+   * @throws IOException if the state can not be loaded
+   */
+  public static ExecutionPlan init(
+      BackendController backendController,
+      PrintStream outputStream,
+      int parallelism,
+      boolean resume)
+      throws IOException {
+    try (Timings.Timer timer = Timings.phase("state.load")) {
+      backendController.load();
+    }
     List<Action> listOfActions = Collections.synchronizedList(new LinkedList<>());
-    return new ExecutionPlan(listOfActions, outputStream, backendController);
+    return new ExecutionPlan(listOfActions, outputStream, backendController, parallelism, resume);
   }
 
   public void run() throws IOException {
@@ -64,59 +200,320 @@ public class ExecutionPlan {
   }
 
   public void run(boolean dryRun) throws IOException {
-    for (Action action : plan) {
+    if (resume && journal.size() > 0) {
+      LOGGER.info(
+          String.format("Resuming the last run, with %s journaled actions", journal.size()));
+    }
+    // the checkpoints replace the metadata of the controller, keep what was staged before the run
+    Map<String, String> staged = ActionJournal.withoutJournal(backendController.getMetadata());
+    try {
+      runStages(dryRun);
+    } catch (IOException | RuntimeException e) {
+      if (!dryRun) {
+        LOGGER.info(
+            String.format(
+                "Storing the state of the failed run, with %s journaled actions", journal.size()));
+        checkpoint(true);
+      }
+      throw e;
+    }
+    if (!dryRun) {
+      // a completed run does not need its journal anymore
+      Map<String, String> metadata = new HashMap<>(staged);
+      metadataSources.forEach(source -> metadata.putAll(source.get()));
+      completionMetadata.forEach(update -> update.accept(metadata));
+      backendController.setMetadata(metadata);
+    }
+    flushState();
+  }
+
+  private void runStages(boolean dryRun) throws IOException {
+    Map<Stage, List<Action>> stages = stages();
+    if (!dryRun && checkSchemas && stages.containsKey(Stage.SYNC_SCHEMAS)) {
+      checkSchemas(stages.get(Stage.SYNC_SCHEMAS));
+    }
+    if (dryRun && NdjsonPlanWriter.FORMAT.equals(dryRunFormat)) {
+      writePlan(stages);
+    } else if (dryRun) {
+      for (List<Action> actions : stages.values()) {
+        for (Action action : actions) {
+          runAction(action, dryRun);
+        }
+      }
+    } else {
+      Iterator<Map.Entry<Stage, List<Action>>> iterator = stages.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Stage, List<Action>> stage = iterator.next();
+        runStage(stage.getKey(), stage.getValue());
+        if (iterator.hasNext()) {
+          // the state of the last stage is stored once the run is over
+          checkpoint(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Run the actions of a stage, concurrently if the stage allows it. The schemas stage has its own
+   * bound, as Schema Registry calls are slower and sized independently of the Kafka ones.
+   */
+  private void runStage(Stage stage, List<Action> actions) throws IOException {
+    int stageParallelism =
+        Math.min(stage == Stage.SYNC_SCHEMAS ? schemaParallelism : parallelism, actions.size());
+    LOGGER.debug(
+        String.format(
+            "Running stage %s with %s actions, %s at a time",
+            stage, actions.size(), Math.max(stageParallelism, 1)));
+    if (stageParallelism <= 1) {
+      for (Action action : actions) {
+        runAction(action, false);
+      }
+      return;
+    }
+    runConcurrently(stageParallelism, tasks(actions, action -> runAction(action, false)));
+  }
+
+  /**
+   * Check the schemas of the plan against the latest version of their subjects, before any action
+   * runs, so an incompatible schema fails the run before anything is changed. All the schemas are
+   * checked, and the errors of the incompatible ones are reported together.
+   */
+  private void checkSchemas(List<Action> actions) throws IOException {
+    List<Action> pending = new ArrayList<>();
+    for (Action action : actions) {
+      if (!(resume && journal.isCompleted(action))) {
+        pending.add(action);
+      }
+    }
+    LOGGER.debug(String.format("Checking the compatibility of %s schemas", pending.size()));
+    try (Timings.Timer timer = Timings.phase("schemas.check")) {
+      runConcurrently(
+          Math.min(schemaParallelism, pending.size()),
+          tasks(pending, action -> ((RegisterSchemaAction) action).checkCompatibility()));
+    }
+  }
+
+  /** Stream the actions of a dry run as newline delimited JSON, one record per resource change. */
+  private void writePlan(Map<Stage, List<Action>> stages) throws IOException {
+    try (NdjsonPlanWriter writer = new NdjsonPlanWriter(outputStream)) {
+      for (List<Action> actions : stages.values()) {
+        for (Action action : actions) {
+          writer.write(action);
+        }
+      }
+      writer.writeSummary();
+    }
+  }
+
+  /**
+   * Persist the state of the actions applied so far together with the action journal, so the next
+   * run only diffs what is left and a resumed run skips the completed actions, even if this run is
+   * killed. The metadata staged on the controller before the run, and the completion metadata, are
+   * only stored once all the actions completed.
+   *
+   * @param close true to release the backend, once the run is over
+   */
+  private synchronized void checkpoint(boolean close) {
+    if (actionsSinceCheckpoint == 0 && !close) {
+      return;
+    }
+    LOGGER.debug(String.format("Checkpoint with %s journaled actions", journal.size()));
+    Map<String, String> metadata = new HashMap<>(storedMetadata);
+    metadata.putAll(journal.asMetadata());
+    metadataSources.forEach(source -> metadata.putAll(source.get()));
+    backendController.setMetadata(metadata);
+    flushState(close);
+  }
+
+  /** Checkpoint every few completed actions, the stages checkpoint once they are completed. */
+  private synchronized void actionCompleted() {
+    actionsSinceCheckpoint++;
+    if (actionsSinceCheckpoint >= checkpointActions) {
+      checkpoint(false);
+    }
+  }
+
+  private void flushState() {
+    flushState(true);
+  }
+
+  private synchronized void flushState(boolean close) {
+    try (Timings.Timer timer = Timings.phase("state.flush")) {
+      backendController.reset();
+      backendController.addBindings(new ArrayList<>(bindings));
+      backendController.addServiceAccounts(serviceAccounts);
+      backendController.addTopics(topics);
+      if (close) {
+        backendController.flushAndClose();
+      } else {
+        backendController.flush();
+      }
+    }
+    actionsSinceCheckpoint = 0;
+  }
+
+  /** Group the actions per stage, keeping the order in which they were added to the plan. */
+  private Map<Stage, List<Action>> stages() {
+    Map<Stage, List<Action>> stages = new EnumMap<>(Stage.class);
+    synchronized (plan) {
+      for (Action action : plan) {
+        stages.computeIfAbsent(Stage.of(action), stage -> new ArrayList<>()).add(action);
+      }
+    }
+    return stages;
+  }
+
+  private interface ActionTask {
+    void run(Action action) throws IOException;
+  }
+
+  private static List<Callable<Void>> tasks(List<Action> actions, ActionTask task) {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (Action action : actions) {
+      tasks.add(
+          () -> {
+            task.run(action);
+            return null;
+          });
+    }
+    return tasks;
+  }
+
+  private static void runConcurrently(int parallelism, List<Callable<Void>> tasks)
+      throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(parallelism, 1));
+    try {
+      runConcurrently(executor, tasks);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void runConcurrently(ExecutorService executor, List<Callable<Void>> tasks)
+      throws IOException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (Callable<Void> task : tasks) {
+      futures.add(executor.submit(task));
+    }
+    // wait for every action of the stage, so no action is left running when the run fails
+    Throwable error = null;
+    for (Future<?> future : futures) {
       try {
-        execute(action, dryRun);
-      } catch (IOException e) {
-        LOGGER.error(String.format("Something happen running action %s", action), e);
-        throw e;
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        if (error == null) {
+          error = e.getCause();
+        } else {
+          error.addSuppressed(e.getCause());
+        }
       }
     }
+    if (error instanceof IOException) {
+      throw (IOException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error != null) {
+      throw new IOException(error);
+    }
+  }
 
-    backendController.reset();
-    backendController.addBindings(new ArrayList<>(bindings));
-    backendController.addServiceAccounts(serviceAccounts);
-    backendController.addTopics(topics);
-    backendController.flushAndClose();
+  private void runAction(Action action, boolean dryRun) throws IOException {
+    try {
+      execute(action, dryRun);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.error(String.format("Something happen running action %s", action), e);
+      if (!dryRun) {
+        journal.record(action, ActionJournal.Status.FAILED);
+      }
+      throw e;
+    }
   }
 
   private void execute(Action action, boolean dryRun) throws IOException {
     LOGGER.debug(String.format("Execution action %s (dryRun=%s)", action, dryRun));
     if (dryRun) {
       outputStream.println(action);
+    } else if (resume && journal.isCompleted(action)) {
+      LOGGER.info(String.format("Skipping action %s, completed by the last run", action));
     } else {
-      action.run();
-      if (action instanceof SyncTopicAction) {
-        topics.add(((SyncTopicAction) action).getTopic());
-      } else if (action instanceof DeleteTopics) {
-        List<String> topicsToBeDeleted = ((DeleteTopics) action).getTopicsToBeDeleted();
-        topics =
-            new StreamUtils<>(topics.stream())
-                .filterAsSet(topic -> !topicsToBeDeleted.contains(topic));
+      try (Timings.Timer timer = Timings.action(action)) {
+        action.run();
       }
-      if (!action.getBindings().isEmpty()) {
-        if (action instanceof ClearBindings) {
-          bindings =
-              new StreamUtils<>(bindings.stream())
-                  .filterAsSet(binding -> !action.getBindings().contains(binding));
-        } else {
-          bindings.addAll(action.getBindings());
-        }
+      updateState(action);
+      actionListeners.forEach(listener -> listener.accept(action));
+      recordChanges(action);
+      journal.record(action, ActionJournal.Status.COMPLETED);
+      actionCompleted();
+    }
+  }
+
+  private synchronized void updateState(Action action) {
+    applyTo(action, topics, bindings, serviceAccounts);
+  }
+
+  /** Apply the changes of an action to a set of topics, bindings and service accounts. */
+  static void applyTo(
+      Action action,
+      Set<String> topics,
+      Set<TopologyAclBinding> bindings,
+      Set<ServiceAccount> serviceAccounts) {
+    if (action instanceof SyncTopicAction) {
+      topics.add(((SyncTopicAction) action).getTopic());
+    } else if (action instanceof DeleteTopics) {
+      removeAll(topics, ((DeleteTopics) action).getTopicsToBeDeleted());
+    }
+    if (!action.getBindings().isEmpty()) {
+      if (action instanceof ClearBindings) {
+        removeAll(bindings, action.getBindings());
+      } else {
+        bindings.addAll(action.getBindings());
       }
-      if (action instanceof BaseAccountsAction) {
-        if (action instanceof ClearAccounts) {
-          Collection<ServiceAccount> toDeletePrincipals = ((ClearAccounts) action).getPrincipals();
-          serviceAccounts =
-              new StreamUtils<>(serviceAccounts.stream())
-                  .filterAsSet(sa -> !toDeletePrincipals.contains(sa));
-        } else {
-          CreateAccounts createAction = (CreateAccounts) action;
-          serviceAccounts.addAll(createAction.getPrincipals());
-        }
+    }
+    if (action instanceof BaseAccountsAction) {
+      if (action instanceof ClearAccounts) {
+        removeAll(serviceAccounts, ((ClearAccounts) action).getPrincipals());
+      } else {
+        CreateAccounts createAction = (CreateAccounts) action;
+        serviceAccounts.addAll(createAction.getPrincipals());
       }
     }
   }
 
+  private static void recordChanges(Action action) {
+    if (action instanceof SyncTopicAction) {
+      String op =
+          ((SyncTopicAction) action).isUpdate() ? NdjsonPlanWriter.UPDATE : NdjsonPlanWriter.CREATE;
+      Metrics.resourcesChanged("topic", op, 1);
+    } else if (action instanceof RegisterSchemaAction) {
+      Metrics.resourcesChanged("schema", NdjsonPlanWriter.REGISTER, 1);
+    } else if (action instanceof DeleteTopics) {
+      Metrics.resourcesChanged(
+          "topic", NdjsonPlanWriter.DELETE, ((DeleteTopics) action).getTopicsToBeDeleted().size());
+    }
+    if (!action.getBindings().isEmpty()) {
+      String op =
+          action instanceof ClearBindings ? NdjsonPlanWriter.DELETE : NdjsonPlanWriter.CREATE;
+      Metrics.resourcesChanged("binding", op, action.getBindings().size());
+    }
+    if (action instanceof BaseAccountsAction) {
+      String op =
+          action instanceof ClearAccounts ? NdjsonPlanWriter.DELETE : NdjsonPlanWriter.CREATE;
+      Metrics.resourcesChanged("account", op, ((BaseAccountsAction) action).getPrincipals().size());
+    }
+  }
+
+  /**
+   * Remove the elements of a delta from the plan state in place. The delta is hashed first, as
+   * {@link java.util.AbstractSet#removeAll(Collection)} probes it with contains() when it is larger
+   * than the state.
+   */
+  private static <T> void removeAll(Set<T> state, Collection<T> delta) {
+    state.removeAll(delta instanceof Set ? delta : new HashSet<>(delta));
+  }
+
   public Set<ServiceAccount> getServiceAccounts() {
     return serviceAccounts;
   }
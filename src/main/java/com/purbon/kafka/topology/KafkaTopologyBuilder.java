@@ -1,30 +1,42 @@
 package com.purbon.kafka.topology;
 
-import static com.purbon.kafka.topology.TopologyBuilderConfig.REDIS_HOST_CONFIG;
-import static com.purbon.kafka.topology.TopologyBuilderConfig.REDIS_PORT_CONFIG;
-import static com.purbon.kafka.topology.TopologyBuilderConfig.REDIS_STATE_PROCESSOR_CLASS;
-import static com.purbon.kafka.topology.TopologyBuilderConfig.STATE_PROCESSOR_DEFAULT_CLASS;
-
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClientBuilder;
 import com.purbon.kafka.topology.api.mds.MDSApiClientBuilder;
-import com.purbon.kafka.topology.backend.FileBackend;
-import com.purbon.kafka.topology.backend.RedisBackend;
+import com.purbon.kafka.topology.backend.Backend;
+import com.purbon.kafka.topology.backend.BackendFactory;
+import com.purbon.kafka.topology.backend.ShardedBackend;
 import com.purbon.kafka.topology.exceptions.ValidationException;
+import com.purbon.kafka.topology.metrics.Metrics;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
+import com.purbon.kafka.topology.serdes.PlanArtifactSerdes;
 import com.purbon.kafka.topology.serviceAccounts.VoidPrincipalProvider;
+import com.purbon.kafka.topology.timing.Timings;
 import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -36,21 +48,40 @@ public class KafkaTopologyBuilder implements AutoCloseable {
   private PrincipalManager principalManager;
   private AccessControlManager accessControlManager;
   private Topology topology;
+  private String topologyFileOrDir;
   private TopologyBuilderConfig config;
   private PrintStream outputStream;
+  private TopologyFingerprint fingerprint;
+  private boolean upToDate;
+  private List<String> changedProjects;
+  private Optional<List<String>> incrementalProjects;
+  private boolean fullSync;
+  private boolean dryRun;
+  private PlanArtifactSerdes planSerdes;
+  private SchemaRegistryManager schemaRegistryManager;
+  private final ClusterSnapshot clusterSnapshot;
 
   private KafkaTopologyBuilder(
       Topology topology,
+      String topologyFileOrDir,
       TopologyBuilderConfig config,
       TopicManager topicManager,
       AccessControlManager accessControlManager,
       PrincipalManager principalManager) {
     this.topology = topology;
+    this.topologyFileOrDir = topologyFileOrDir;
     this.config = config;
     this.topicManager = topicManager;
     this.accessControlManager = accessControlManager;
     this.principalManager = principalManager;
     this.outputStream = System.out;
+    this.fingerprint = null;
+    this.upToDate = false;
+    this.changedProjects = new ArrayList<>();
+    this.incrementalProjects = Optional.empty();
+    this.clusterSnapshot = new ClusterSnapshot();
+    this.fullSync = false;
+    this.dryRun = config.isDryRun();
   }
 
   public static KafkaTopologyBuilder build(String topologyFile, Map<String, String> config)
@@ -62,6 +93,43 @@ public class KafkaTopologyBuilder implements AutoCloseable {
       String topologyFile, String plansFile, Map<String, String> config) throws Exception {
 
     TopologyBuilderConfig builderConfig = TopologyBuilderConfig.build(config);
+    enableInstrumentation(builderConfig);
+    // an execution plan artifact is applied as is, without the topology
+    Topology topology =
+        builderConfig.getPlanInFile().isPresent()
+            ? new TopologyImpl(builderConfig)
+            : buildTopology(topologyFile, plansFile, builderConfig);
+
+    if (builderConfig.isFingerprintEnabled()
+        && !builderConfig.fetchTopicStateFromTheCluster()
+        && !builderConfig.getPlanInFile().isPresent()
+        && !builderConfig.getPlanOutFile().isPresent()) {
+      TopologyFingerprint fingerprint =
+          TopologyFingerprint.build(topology, builderConfig, topologyFile);
+      Map<String, String> metadata = buildStateProcessor(builderConfig, topology).loadMetadata();
+      if (fingerprint.matches(metadata)) {
+        LOGGER.debug(
+            String.format(
+                "Topology fingerprint %s matches the last applied one",
+                fingerprint.getFingerprint()));
+        KafkaTopologyBuilder builder =
+            new KafkaTopologyBuilder(topology, topologyFile, builderConfig, null, null, null);
+        builder.fingerprint = fingerprint;
+        builder.upToDate = true;
+        return builder;
+      }
+    }
+
+    return build(topology, topologyFile, builderConfig, config);
+  }
+
+  /** Build the clients of the configured cluster, and a builder for a topology parsed already. */
+  static KafkaTopologyBuilder build(
+      Topology topology,
+      String topologyFile,
+      TopologyBuilderConfig builderConfig,
+      Map<String, String> config)
+      throws Exception {
     TopologyBuilderAdminClient adminClient =
         new TopologyBuilderAdminClientBuilder(builderConfig).build();
     AccessControlProviderFactory factory =
@@ -72,8 +140,8 @@ public class KafkaTopologyBuilder implements AutoCloseable {
 
     KafkaTopologyBuilder builder =
         build(
+            topology,
             topologyFile,
-            plansFile,
             builderConfig,
             adminClient,
             factory.get(),
@@ -110,21 +178,75 @@ public class KafkaTopologyBuilder implements AutoCloseable {
       BindingsBuilderProvider bindingsBuilderProvider,
       PrincipalProvider principalProvider)
       throws Exception {
+    enableInstrumentation(config);
+    return build(
+        buildTopology(topologyFileOrDir, plansFile, config),
+        topologyFileOrDir,
+        config,
+        adminClient,
+        accessControlProvider,
+        bindingsBuilderProvider,
+        principalProvider);
+  }
 
+  static Topology buildTopology(
+      String topologyFileOrDir, String plansFile, TopologyBuilderConfig config) throws Exception {
     Topology topology;
-    if (plansFile.equals("default")) {
-      topology = TopologyObjectBuilder.build(topologyFileOrDir, config);
+    try (Timings.Timer timer = Timings.phase("parse")) {
+      if (plansFile.equals("default")) {
+        topology = TopologyObjectBuilder.build(topologyFileOrDir, config);
+      } else {
+        topology = TopologyObjectBuilder.build(topologyFileOrDir, plansFile, config);
+      }
+    }
+
+    try (Timings.Timer timer = Timings.phase("validate")) {
+      TopologyValidator validator = new TopologyValidator(config);
+      List<String> validationResults = validator.validate(topology);
+      if (!validationResults.isEmpty()) {
+        String resultsMessage = String.join("\n", validationResults);
+        throw new ValidationException(resultsMessage);
+      }
+      config.validateWith(topology);
+    }
+    return topology;
+  }
+
+  static void enableInstrumentation(TopologyBuilderConfig config) {
+    if (config.isTimingEnabled()) {
+      Timings.enable();
+    } else {
+      Timings.disable();
+    }
+    if (config.isMetricsEnabled()) {
+      Metrics.enable(config.isMetricsJmxEnabled());
     } else {
-      topology = TopologyObjectBuilder.build(topologyFileOrDir, plansFile, config);
+      Metrics.disable();
     }
+  }
 
-    TopologyValidator validator = new TopologyValidator(config);
-    List<String> validationResults = validator.validate(topology);
-    if (!validationResults.isEmpty()) {
-      String resultsMessage = String.join("\n", validationResults);
-      throw new ValidationException(resultsMessage);
+  /**
+   * Discard the timings and the metrics recorded by the last run of a long running process, so the
+   * table and the metrics it prints cover a single run, and the recorded samples do not grow
+   * without bound.
+   */
+  static void resetInstrumentation(TopologyBuilderConfig config) {
+    if (Timings.isEnabled()) {
+      Timings.enable();
+    }
+    if (Metrics.isEnabled()) {
+      Metrics.enable(config.isMetricsJmxEnabled());
     }
-    config.validateWith(topology);
+  }
+
+  private static KafkaTopologyBuilder build(
+      Topology topology,
+      String topologyFileOrDir,
+      TopologyBuilderConfig config,
+      TopologyBuilderAdminClient adminClient,
+      AccessControlProvider accessControlProvider,
+      BindingsBuilderProvider bindingsBuilderProvider,
+      PrincipalProvider principalProvider) {
 
     AccessControlManager accessControlManager =
         new AccessControlManager(accessControlProvider, bindingsBuilderProvider, config);
@@ -133,7 +255,9 @@ public class KafkaTopologyBuilder implements AutoCloseable {
     Map<String, ?> schemaRegistryConfig = config.asMap();
     SchemaRegistryClient schemaRegistryClient =
         new CachedSchemaRegistryClient(
-            restService, 10, schemaRegistryConfig.isEmpty() ? null : schemaRegistryConfig);
+            restService,
+            config.getSchemaRegistryCacheCapacity(),
+            schemaRegistryConfig.isEmpty() ? null : schemaRegistryConfig);
     SchemaRegistryManager schemaRegistryManager =
         new SchemaRegistryManager(schemaRegistryClient, topologyFileOrDir);
 
@@ -141,13 +265,24 @@ public class KafkaTopologyBuilder implements AutoCloseable {
 
     PrincipalManager principalManager = new PrincipalManager(principalProvider, config);
 
-    return new KafkaTopologyBuilder(
-        topology, config, topicManager, accessControlManager, principalManager);
+    KafkaTopologyBuilder builder =
+        new KafkaTopologyBuilder(
+            topology,
+            topologyFileOrDir,
+            config,
+            topicManager,
+            accessControlManager,
+            principalManager);
+    builder.planSerdes =
+        new PlanArtifactSerdes(
+            adminClient, schemaRegistryManager, accessControlProvider, principalProvider);
+    builder.schemaRegistryManager = schemaRegistryManager;
+    return builder;
   }
 
   void verifyRequiredParameters(String topologyFile, Map<String, String> config)
       throws IOException {
-    if (!Files.exists(Paths.get(topologyFile))) {
+    if (!config.containsKey(BuilderCLI.PLAN_IN_OPTION) && !Files.exists(Paths.get(topologyFile))) {
       throw new IOException("Topology file does not exist");
     }
 
@@ -162,22 +297,38 @@ public class KafkaTopologyBuilder implements AutoCloseable {
     LOGGER.debug(
         String.format(
             "Running topology builder with TopicManager=[%s], accessControlManager=[%s], dryRun=[%s], isQuite=[%s]",
-            topicManager, accessControlManager, config.isDryRun(), config.isQuiet()));
+            topicManager, accessControlManager, dryRun, config.isQuiet()));
 
     // Create users should always be first, so user exists when making acl link
-    principalManager.applyCreate(topology, plan);
+    try (Timings.Timer timer = Timings.phase("diff.accounts")) {
+      principalManager.applyCreate(topology, plan);
+    }
 
-    topicManager.apply(topology, plan);
-    accessControlManager.apply(topology, plan);
+    try (Timings.Timer timer = Timings.phase("diff.topics")) {
+      if (incrementalProjects.isPresent()) {
+        topicManager.applyIncremental(topology, plan, incrementalProjects.get());
+      } else {
+        topicManager.apply(topology, plan);
+      }
+    }
+    try (Timings.Timer timer = Timings.phase("diff.bindings")) {
+      accessControlManager.apply(topology, plan);
+    }
 
     // Delete users should always be last,
     // avoids any unlinked acls, e.g. if acl delete or something errors then there is a link still
     // from the account, and can be re-run or manually fixed more easily
-    principalManager.applyDelete(topology, plan);
+    try (Timings.Timer timer = Timings.phase("diff.accounts")) {
+      principalManager.applyDelete(topology, plan);
+    }
 
-    plan.run(config.isDryRun());
+    if (config.getPlanOutFile().isPresent()) {
+      writePlanArtifact(plan, config.getPlanOutFile().get());
+    }
+
+    plan.run(dryRun);
 
-    if (!config.isQuiet() && !config.isDryRun()) {
+    if (!config.isQuiet() && !dryRun) {
       topicManager.printCurrentState(System.out);
       accessControlManager.printCurrentState(System.out);
       principalManager.printCurrentState(System.out);
@@ -185,13 +336,280 @@ public class KafkaTopologyBuilder implements AutoCloseable {
   }
 
   public void run() throws IOException {
-    BackendController cs = buildStateProcessor(config);
-    ExecutionPlan plan = ExecutionPlan.init(cs, outputStream);
-    run(plan);
+    try {
+      if (upToDate) {
+        outputStream.println("The topology is already applied, nothing to do");
+      } else if (config.getPlanInFile().isPresent()) {
+        applyPlanArtifact(config.getPlanInFile().get());
+      } else {
+        SyncScope scope = config.getSyncScope();
+        boolean tracksFingerprint =
+            scope.isAll() && (config.isFingerprintEnabled() || config.isIncrementalSyncEnabled());
+        if (tracksFingerprint && fingerprint == null) {
+          fingerprint = TopologyFingerprint.build(topology, config, topologyFileOrDir);
+        }
+        BackendController cs = buildStateProcessor(config, topology, this::projectsToLoad);
+        // a sharded state is only partly loaded, it is always read from the backend
+        boolean keepsState = !config.isStateShardingEnabled();
+        if (keepsState) {
+          clusterSnapshot.restore(cs);
+        }
+        ExecutionPlan plan = ExecutionPlan.init(cs, outputStream, config);
+        plan.addActionListener(clusterSnapshot::apply);
+        trackSchemaState(cs, plan);
+        if (!scope.isAll()) {
+          // the fingerprint covers the whole topology, a scoped run does not apply all of it
+          LOGGER.info(String.format("Running a scoped sync, limited to %s", scope));
+        } else if (tracksFingerprint) {
+          if (config.isStateShardingEnabled()) {
+            scope = scope.excluding(unloadedProjects(cs.getMetadata()));
+          }
+          recordFingerprint(cs, plan);
+        }
+        topicManager.setScope(scope);
+        accessControlManager.setScope(scope);
+        principalManager.setScope(scope);
+        topicManager.setClusterSnapshot(clusterSnapshot);
+        accessControlManager.setClusterSnapshot(clusterSnapshot);
+        principalManager.setClusterSnapshot(clusterSnapshot);
+        try {
+          run(plan);
+        } catch (IOException | RuntimeException e) {
+          // the actions of a failed run may be partly applied
+          clusterSnapshot.invalidate();
+          throw e;
+        }
+        if (keepsState && !dryRun) {
+          clusterSnapshot.store(cs);
+        }
+      }
+    } finally {
+      // the output stream may carry a machine readable plan, keep the table out of it
+      Timings.printTable(System.err);
+      writeMetrics();
+    }
+  }
+
+  /**
+   * Apply a topology parsed again, with the clients and the managers of this builder, so a long
+   * running process does not connect to the cluster for every run. The runs of the changed projects
+   * start from the state, and the cluster listings, kept in memory by the last run, while a full
+   * sync reads them again to catch any drift.
+   *
+   * @param topology the topology to apply
+   * @param projects the name prefixes of the projects to sync the topics of, or empty to sync the
+   *     topics of the whole topology
+   */
+  void reconcile(Topology topology, Optional<List<String>> projects) throws IOException {
+    reset(topology);
+    this.incrementalProjects = projects;
+    this.fullSync = !projects.isPresent();
+    if (fullSync) {
+      clusterSnapshot.invalidate();
+    }
+    run();
+  }
+
+  /**
+   * Run a topology parsed again, as the CLI would, with the clients and the managers of this
+   * builder.
+   *
+   * @param topology the topology to apply
+   * @param dryRun true to only print the execution plan
+   * @param outputStream the stream the run prints to
+   */
+  void run(Topology topology, boolean dryRun, PrintStream outputStream) throws IOException {
+    reset(topology);
+    this.dryRun = dryRun;
+    this.outputStream = outputStream;
+    // nothing tells the changes made by other processes since the last run, read them again
+    clusterSnapshot.invalidate();
+    run();
+  }
+
+  private void reset(Topology topology) {
+    this.topology = topology;
+    this.fingerprint = null;
+    this.upToDate = false;
+    this.changedProjects = new ArrayList<>();
+    this.incrementalProjects = Optional.empty();
+    this.fullSync = false;
+    this.dryRun = config.isDryRun();
+    this.outputStream = System.out;
+    if (schemaRegistryManager != null) {
+      schemaRegistryManager.refresh();
+    }
+  }
+
+  /**
+   * @return the topics, bindings and service accounts stored with the state by the last run, from
+   *     memory when this builder applied it
+   */
+  BackendController loadState() throws IOException {
+    BackendController cs = buildStateProcessor(config, topology);
+    if (!clusterSnapshot.restore(cs)) {
+      cs.loadAndClose();
+    }
+    return cs;
+  }
+
+  /**
+   * Keep the schemas and compatibilities applied with the state, so the next runs only send the
+   * changed ones to the Schema Registry. Runs reading the state from the cluster skip this, to
+   * detect any drift.
+   */
+  private void trackSchemaState(BackendController cs, ExecutionPlan plan) {
+    if (schemaRegistryManager != null && !config.fetchStateFromTheCluster()) {
+      schemaRegistryManager.loadState(cs.getMetadata());
+      plan.addMetadataSource(schemaRegistryManager::stateMetadata);
+    }
+  }
+
+  private void writeMetrics() {
+    Optional<String> textFile = config.getMetricsTextFile();
+    if (textFile.isPresent()) {
+      try {
+        Metrics.writeTextFile(Paths.get(textFile.get()));
+      } catch (IOException e) {
+        LOGGER.error("The metrics could not be written to " + textFile.get(), e);
+      }
+    }
+  }
+
+  /**
+   * Compute which projects changed since the last successful run, and register the new fingerprint
+   * to be stored with the state once the whole plan is applied. Dry runs, and failed runs, never
+   * store it.
+   *
+   * <p>With incremental sync, only the topics of the changed projects are synced, unless the
+   * configuration or the cluster epoch changed since the last run.
+   */
+  private void recordFingerprint(BackendController cs, ExecutionPlan plan) throws IOException {
+    if (fingerprint == null) {
+      fingerprint = TopologyFingerprint.build(topology, config, topologyFileOrDir);
+    }
+    Map<String, String> metadata = cs.getMetadata();
+    changedProjects = fingerprint.changedProjects(metadata);
+    LOGGER.info(String.format("Projects changed since the last run: %s", changedProjects));
+    if (config.isIncrementalSyncEnabled() && !fullSync) {
+      if (fingerprint.matchesConfig(metadata)) {
+        incrementalProjects = Optional.of(changedProjects);
+      } else {
+        LOGGER.info("The configuration changed since the last run, running a full sync");
+        incrementalProjects = Optional.empty();
+      }
+    }
+    if (!dryRun) {
+      plan.addCompletionMetadata(fingerprint::storeIn);
+    }
+  }
+
+  /**
+   * Select the projects whose state shards a run loads, once the metadata of the last run is
+   * loaded. Scoped runs load the projects in scope, and incremental runs the projects changed since
+   * the last run: the resources of the other projects are left as they are.
+   *
+   * @param metadata the metadata stored by the last run
+   * @return the name prefix of the projects to load
+   */
+  private Collection<String> projectsToLoad(Map<String, String> metadata) {
+    List<String> namePrefixes =
+        topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList());
+    SyncScope scope = config.getSyncScope();
+    if (!scope.isAll()) {
+      SyncScope.Filter filter = scope.filter(topology, config.getTopicPrefixSeparator());
+      namePrefixes.removeIf(prefix -> !filter.includesState(prefix));
+    } else if (config.isIncrementalSyncEnabled()
+        && !fullSync
+        && fingerprint != null
+        && fingerprint.matchesConfig(metadata)) {
+      namePrefixes.retainAll(fingerprint.changedProjects(metadata));
+    }
+    return namePrefixes;
+  }
+
+  private List<String> unloadedProjects(Map<String, String> metadata) {
+    Collection<String> loaded = projectsToLoad(metadata);
+    List<String> unloaded =
+        topology.getProjects().stream()
+            .map(Project::namePrefix)
+            .filter(prefix -> !loaded.contains(prefix))
+            .collect(Collectors.toList());
+    if (!unloaded.isEmpty()) {
+      LOGGER.debug(String.format("Leaving the unchanged projects %s as they are", unloaded));
+    }
+    return unloaded;
+  }
+
+  private void writePlanArtifact(ExecutionPlan plan, String planFile) throws IOException {
+    List<String> projects =
+        topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList());
+    Map<String, String> metadata =
+        fingerprint == null ? Collections.emptyMap() : fingerprint.asMetadata();
+    PlanArtifact artifact =
+        new PlanArtifact(stateFingerprint(plan), projects, metadata, plan.getActions());
+    Files.write(
+        Paths.get(planFile), planSerdes.serialise(artifact).getBytes(StandardCharsets.UTF_8));
+    outputStream.println(
+        String.format(
+            "Execution plan with %d actions written to %s", plan.getActions().size(), planFile));
+  }
+
+  /**
+   * Apply an execution plan written by a previous run, as long as the state it was computed from
+   * did not change since.
+   */
+  private void applyPlanArtifact(String planFile) throws IOException {
+    PlanArtifact artifact = planSerdes.deserialise(new File(planFile));
+    BackendController cs = buildStateProcessor(config, artifact.getProjects());
+    ExecutionPlan plan = ExecutionPlan.init(cs, outputStream, config);
+    trackSchemaState(cs, plan);
+
+    String currentFingerprint = stateFingerprint(plan);
+    if (!currentFingerprint.equals(artifact.getStateFingerprint())) {
+      throw new IOException(
+          String.format(
+              "The state changed since the execution plan %s was computed (%s != %s), refusing to apply it",
+              planFile, currentFingerprint, artifact.getStateFingerprint()));
+    }
+
+    if (!dryRun && !artifact.getMetadata().isEmpty()) {
+      plan.addCompletionMetadata(
+          metadata -> TopologyFingerprint.replace(metadata, artifact.getMetadata()));
+    }
+
+    artifact.getActions().forEach(plan::add);
+    plan.run(dryRun);
+  }
+
+  /** @return a fingerprint of the topics, bindings and service accounts the managers start from */
+  private String stateFingerprint(ExecutionPlan plan) throws IOException {
+    List<String> state = new ArrayList<>();
+    for (String topic : topicManager.loadActualClusterStateIfAvailable(plan)) {
+      state.add("topic:" + topic);
+    }
+    for (TopologyAclBinding binding :
+        accessControlManager.loadActualClusterStateIfAvailable(plan)) {
+      state.add("binding:" + binding);
+    }
+    for (ServiceAccount account : principalManager.currentAccounts(plan)) {
+      state.add("account:" + account.getName());
+    }
+    return PlanArtifact.stateFingerprint(state);
+  }
+
+  public boolean isUpToDate() {
+    return upToDate;
+  }
+
+  public List<String> getChangedProjects() {
+    return changedProjects;
   }
 
   public void close() {
-    topicManager.close();
+    if (topicManager != null) {
+      topicManager.close();
+    }
   }
 
   public static String getVersion() {
@@ -208,24 +626,54 @@ public class KafkaTopologyBuilder implements AutoCloseable {
     }
   }
 
-  private static BackendController buildStateProcessor(TopologyBuilderConfig config)
+  private static BackendController buildStateProcessor(
+      TopologyBuilderConfig config, Topology topology) throws IOException {
+    return buildStateProcessor(
+        config,
+        topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList()));
+  }
+
+  private static BackendController buildStateProcessor(
+      TopologyBuilderConfig config, List<String> namePrefixes) throws IOException {
+    return buildStateProcessor(config, namePrefixes, metadata -> namePrefixes);
+  }
+
+  private static BackendController buildStateProcessor(
+      TopologyBuilderConfig config,
+      Topology topology,
+      Function<Map<String, String>, Collection<String>> selection)
+      throws IOException {
+    return buildStateProcessor(
+        config,
+        topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList()),
+        selection);
+  }
+
+  /**
+   * @param namePrefixes the name prefix of the projects of the topology
+   * @param selection with a sharded state, the projects whose shards are loaded, given the metadata
+   *     of the last run
+   */
+  private static BackendController buildStateProcessor(
+      TopologyBuilderConfig config,
+      List<String> namePrefixes,
+      Function<Map<String, String>, Collection<String>> selection)
       throws IOException {
 
     String stateProcessorClass = config.getStateProcessorImplementationClassName();
 
-    try {
-      if (stateProcessorClass.equalsIgnoreCase(STATE_PROCESSOR_DEFAULT_CLASS)) {
-        return new BackendController(new FileBackend());
-      } else if (stateProcessorClass.equalsIgnoreCase(REDIS_STATE_PROCESSOR_CLASS)) {
-        String host = config.getProperty(REDIS_HOST_CONFIG);
-        int port = Integer.parseInt(config.getProperty(REDIS_PORT_CONFIG));
-        return new BackendController(new RedisBackend(host, port));
-      } else {
-        throw new IOException(stateProcessorClass + " Unknown state processor provided.");
+    for (BackendFactory factory : ServiceLoader.load(BackendFactory.class)) {
+      if (factory.backendClassName().equalsIgnoreCase(stateProcessorClass)) {
+        Backend backend;
+        if (config.isStateShardingEnabled()) {
+          backend = new ShardedBackend(factory, config, namePrefixes, selection);
+        } else {
+          backend = factory.build(config, null);
+        }
+        return new BackendController(backend);
       }
-    } catch (Exception ex) {
-      throw new IOException(ex);
     }
+    throw new IOException(stateProcessorClass + " Unknown state processor provided.");
   }
 
   void setTopicManager(TopicManager topicManager) {
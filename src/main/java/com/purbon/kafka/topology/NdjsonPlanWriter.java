@@ -0,0 +1,147 @@
+package com.purbon.kafka.topology;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.actions.BaseAccountsAction;
+import com.purbon.kafka.topology.actions.access.ClearBindings;
+import com.purbon.kafka.topology.actions.access.CreateBindings;
+import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
+import com.purbon.kafka.topology.actions.topics.DeleteTopics;
+import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the actions of a dry run as newline delimited JSON, one record per resource change (a
+ * topic, a schema, a binding or a service account), followed by a summary record.
+ *
+ * <p>Records are streamed through a Jackson generator as the actions are visited, so the output of
+ * large plans can be consumed line by line, and is never built in memory as a whole.
+ */
+public class NdjsonPlanWriter implements Closeable {
+
+  public static final String FORMAT = "ndjson";
+
+  static final String CREATE = "create";
+  static final String UPDATE = "update";
+  static final String DELETE = "delete";
+  static final String REGISTER = "register";
+
+  private final JsonGenerator generator;
+  private final Map<String, Map<String, Long>> changes;
+  private long actions;
+  private long records;
+
+  public NdjsonPlanWriter(OutputStream out) throws IOException {
+    this.generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+    // the target stream is shared with the rest of the run output
+    this.generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    this.changes = new TreeMap<>();
+    this.actions = 0;
+    this.records = 0;
+  }
+
+  public void write(Action action) throws IOException {
+    actions++;
+    if (action instanceof SyncTopicAction) {
+      SyncTopicAction syncTopicAction = (SyncTopicAction) action;
+      writeNamed("topic", syncTopicAction.isUpdate() ? UPDATE : CREATE, syncTopicAction.getTopic());
+    } else if (action instanceof RegisterSchemaAction) {
+      writeSchema((RegisterSchemaAction) action);
+    } else if (action instanceof DeleteTopics) {
+      for (String topic : ((DeleteTopics) action).getTopicsToBeDeleted()) {
+        writeNamed("topic", DELETE, topic);
+      }
+    } else if (action instanceof CreateBindings || action instanceof ClearBindings) {
+      String op = action instanceof ClearBindings ? DELETE : CREATE;
+      for (TopologyAclBinding binding : action.getBindings()) {
+        writeBinding(op, binding);
+      }
+    } else if (action instanceof BaseAccountsAction) {
+      String op = action instanceof ClearAccounts ? DELETE : CREATE;
+      for (ServiceAccount account : ((BaseAccountsAction) action).getPrincipals()) {
+        writeNamed("account", op, account.getName());
+      }
+    } else {
+      writeNamed("action", "run", action.getClass().getName());
+    }
+    generator.flush();
+  }
+
+  private void writeNamed(String resource, String op, String name) throws IOException {
+    startRecord(resource, op);
+    generator.writeStringField("name", name);
+    endRecord();
+  }
+
+  private void writeSchema(RegisterSchemaAction action) throws IOException {
+    startRecord("schema", REGISTER);
+    generator.writeStringField("name", action.getSubject());
+    generator.writeStringField("topic", action.getTopic());
+    generator.writeStringField("file", action.getSchemaFile());
+    generator.writeStringField("format", action.getFormat());
+    if (action.getCompatibility().isPresent()) {
+      generator.writeStringField("compatibility", action.getCompatibility().get());
+    }
+    endRecord();
+  }
+
+  private void writeBinding(String op, TopologyAclBinding binding) throws IOException {
+    startRecord("binding", op);
+    generator.writeStringField("resourceType", binding.getResourceType().name());
+    generator.writeStringField("resourceName", binding.getResourceName());
+    generator.writeStringField("host", binding.getHost());
+    generator.writeStringField("operation", binding.getOperation());
+    generator.writeStringField("principal", binding.getPrincipal());
+    generator.writeStringField("pattern", binding.getPattern());
+    endRecord();
+  }
+
+  private void startRecord(String resource, String op) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("resource", resource);
+    generator.writeStringField("op", op);
+    changes.computeIfAbsent(resource, key -> new TreeMap<>()).merge(op, 1L, Long::sum);
+    records++;
+  }
+
+  private void endRecord() throws IOException {
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  /** Write the summary record, with the number of changes per resource and operation. */
+  public void writeSummary() throws IOException {
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("summary");
+    generator.writeNumberField("actions", actions);
+    generator.writeNumberField("records", records);
+    generator.writeObjectFieldStart("changes");
+    for (Map.Entry<String, Map<String, Long>> resource : changes.entrySet()) {
+      generator.writeObjectFieldStart(resource.getKey());
+      for (Map.Entry<String, Long> op : resource.getValue().entrySet()) {
+        generator.writeNumberField(op.getKey(), op.getValue());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+    generator.writeEndObject();
+    endRecord();
+    generator.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
@@ -0,0 +1,72 @@
+package com.purbon.kafka.topology;
+
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.utils.HashUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An execution plan computed by a run, to be applied later by another run without parsing the
+ * topology or diffing it again.
+ *
+ * <p>The plan keeps a fingerprint of the state it was computed from, so it is only applied as long
+ * as the state did not change in between.
+ */
+public class PlanArtifact {
+
+  public static final int VERSION = 2;
+
+  private final String stateFingerprint;
+  private final List<String> projects;
+  private final Map<String, String> metadata;
+  private final List<Action> actions;
+
+  /**
+   * @param stateFingerprint The fingerprint of the state the plan was computed from
+   * @param projects The name prefix of the projects in the planned topology
+   * @param metadata The metadata to store with the state once the plan is applied
+   * @param actions The actions of the plan
+   */
+  public PlanArtifact(
+      String stateFingerprint,
+      List<String> projects,
+      Map<String, String> metadata,
+      List<Action> actions) {
+    this.stateFingerprint = stateFingerprint;
+    this.projects = projects;
+    this.metadata = metadata;
+    this.actions = actions;
+  }
+
+  /**
+   * @param state The topics, bindings and service accounts the plan is computed from, as seen by
+   *     the managers
+   * @return a fingerprint of the state, independent of its order
+   * @throws IOException if the fingerprint can not be computed
+   */
+  public static String stateFingerprint(Collection<String> state) throws IOException {
+    List<String> sortedState = new ArrayList<>(state);
+    Collections.sort(sortedState);
+    return HashUtils.sha256Hex(String.join("\n", sortedState));
+  }
+
+  public String getStateFingerprint() {
+    return stateFingerprint;
+  }
+
+  public List<String> getProjects() {
+    return projects;
+  }
+
+  public Map<String, String> getMetadata() {
+    return metadata;
+  }
+
+  public List<Action> getActions() {
+    return actions;
+  }
+}
@@ -2,14 +2,18 @@ package com.purbon.kafka.topology;
 
 import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
 import com.purbon.kafka.topology.actions.accounts.CreateAccounts;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
 import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.model.User;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.serviceAccounts.VoidPrincipalProvider;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,19 +21,50 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Creates and deletes the service accounts of the principals of a topology.
+ *
+ * <p>The principals of the topology and the service accounts already present are computed once per
+ * run, as hash sets shared by the create and delete phases. Once a {@link CreateAccounts} action
+ * completed, the service accounts are forgotten, and listed again from the state or the cluster
+ * snapshot, both updated with the created accounts, by the next read.
+ */
 public class PrincipalManager {
 
   private static final Logger LOGGER = LogManager.getLogger(PrincipalManager.class);
   private final List<String> managedPrefixes;
+  private SyncScope scope;
+  private ClusterSnapshot clusterSnapshot;
 
   private PrincipalProvider provider;
 
   private TopologyBuilderConfig config;
 
+  // the principal inventory of the current run
+  private Topology inventoryTopology;
+  private Set<String> desiredPrincipals;
+  private Set<String> desiredPrincipalsInScope;
+  private ExecutionPlan inventoryPlan;
+  private volatile Map<String, ServiceAccount> actualAccounts;
+
   public PrincipalManager(PrincipalProvider provider, TopologyBuilderConfig config) {
     this.provider = provider;
     this.config = config;
     this.managedPrefixes = config.getServiceAccountManagedPrefixes();
+    this.scope = config.getSyncScope();
+    this.clusterSnapshot = new ClusterSnapshot();
+  }
+
+  /** Limit the next runs to the given scope, instead of the configured one. */
+  void setScope(SyncScope scope) {
+    this.scope = scope;
+  }
+
+  /**
+   * List the cluster through the given snapshot, kept between the runs of a long running process.
+   */
+  void setClusterSnapshot(ClusterSnapshot clusterSnapshot) {
+    this.clusterSnapshot = clusterSnapshot;
   }
 
   public void applyCreate(Topology topology, ExecutionPlan plan) throws IOException {
@@ -45,18 +80,25 @@ public class PrincipalManager {
 
     provider.configure();
 
-    List<String> principals = parseListOfPrincipals(topology);
+    loadDesiredPrincipals(topology);
     Map<String, ServiceAccount> accounts = loadActualClusterStateIfAvailable(plan);
 
     // build list of principals to be created.
     List<ServiceAccount> principalsToBeCreated =
-        principals.stream()
+        desiredPrincipalsInScope.stream()
             .filter(wishPrincipal -> !accounts.containsKey(wishPrincipal))
             .map(principal -> new ServiceAccount(-1, principal, "Managed by KTB"))
             .collect(Collectors.toList());
 
     if (!principalsToBeCreated.isEmpty()) {
-      plan.add(new CreateAccounts(provider, principalsToBeCreated));
+      CreateAccounts createAccounts = new CreateAccounts(provider, principalsToBeCreated);
+      plan.add(createAccounts);
+      plan.addActionListener(
+          action -> {
+            if (action == createAccounts) {
+              forgetActualAccounts();
+            }
+          });
     }
   }
 
@@ -74,12 +116,16 @@ public class PrincipalManager {
     if (config.allowDelete() || config.isAllowDeletePrincipals()) {
       provider.configure();
 
-      List<String> principals = parseListOfPrincipals(topology);
+      // principals used anywhere in the topology are never deleted, whatever the scope
+      SyncScope.Filter filter = scope.filter(topology, config.getTopicPrefixSeparator());
+      loadDesiredPrincipals(topology);
+      Set<String> principals = desiredPrincipals;
       Map<String, ServiceAccount> accounts = loadActualClusterStateIfAvailable(plan);
 
       // build list of principals to be deleted.
       List<ServiceAccount> principalsToBeDeleted =
           accounts.values().stream()
+              .filter(currentPrincipal -> filter.includesAccount(currentPrincipal.getName()))
               .filter(currentPrincipal -> !principals.contains(currentPrincipal.getName()))
               .collect(Collectors.toList());
       if (!principalsToBeDeleted.isEmpty()) {
@@ -88,15 +134,46 @@ public class PrincipalManager {
     }
   }
 
+  /**
+   * @param plan The execution plan, holding the state of the last run
+   * @return the managed service accounts, empty if the principals are not managed
+   */
+  Set<ServiceAccount> currentAccounts(ExecutionPlan plan) throws IOException {
+    if (!config.enabledExperimental() || provider instanceof VoidPrincipalProvider) {
+      return Collections.emptySet();
+    }
+    provider.configure();
+    return new HashSet<>(loadActualClusterStateIfAvailable(plan).values());
+  }
+
+  /** The managed service accounts of the run, loaded once per execution plan. */
   private Map<String, ServiceAccount> loadActualClusterStateIfAvailable(ExecutionPlan plan)
       throws IOException {
-    Set<ServiceAccount> accounts =
-        config.fetchStateFromTheCluster()
-            ? provider.listServiceAccounts()
-            : plan.getServiceAccounts();
-    return accounts.stream()
-        .filter(serviceAccount -> matchesPrefixList(serviceAccount.getName()))
-        .collect(Collectors.toMap(ServiceAccount::getName, serviceAccount -> serviceAccount));
+    Map<String, ServiceAccount> inventory = actualAccounts;
+    if (inventory != null && inventoryPlan == plan) {
+      return inventory;
+    }
+    Set<ServiceAccount> accounts;
+    try (Timings.Timer timer = Timings.phase("fetch.accounts")) {
+      accounts =
+          config.fetchStateFromTheCluster()
+              ? clusterSnapshot.serviceAccounts(provider::listServiceAccounts)
+              : plan.getServiceAccounts();
+    }
+    inventory =
+        accounts.stream()
+            .filter(serviceAccount -> matchesPrefixList(serviceAccount.getName()))
+            .collect(
+                Collectors.toConcurrentMap(
+                    ServiceAccount::getName, serviceAccount -> serviceAccount));
+    inventoryPlan = plan;
+    actualAccounts = inventory;
+    return inventory;
+  }
+
+  /** Forget the managed service accounts, so the next read lists them again. */
+  private void forgetActualAccounts() {
+    actualAccounts = null;
   }
 
   private boolean matchesPrefixList(String principal) {
@@ -107,25 +184,50 @@ public class PrincipalManager {
     return matches;
   }
 
-  private List<String> parseListOfPrincipals(Topology topology) {
-    return topology.getProjects().stream()
-        .flatMap(
-            project -> {
-              List<User> users = new ArrayList<>();
-              users.addAll(project.getConsumers());
-              users.addAll(project.getProducers());
-              users.addAll(project.getStreams());
-              users.addAll(project.getConnectors());
-              users.addAll(project.getSchemas());
-              for (Topic topic : project.getTopics()) {
-                users.addAll(topic.getConsumers());
-                users.addAll(topic.getProducers());
-              }
-              return users.stream();
-            })
-        .map(User::getPrincipal)
-        .filter(this::matchesPrefixList)
-        .collect(Collectors.toList());
+  /**
+   * Collect the managed principals of the topology, once per topology: all of them, as they are
+   * never deleted, and the ones in the scope of the run, in the order they are described.
+   */
+  private void loadDesiredPrincipals(Topology topology) {
+    if (desiredPrincipals != null && inventoryTopology == topology) {
+      return;
+    }
+    SyncScope.Filter filter = scope.filter(topology, config.getTopicPrefixSeparator());
+    Set<String> principals = new HashSet<>();
+    Set<String> principalsInScope = new LinkedHashSet<>();
+    for (Project project : topology.getProjects()) {
+      boolean projectInScope = filter.includesUsers(project, null);
+      addPrincipals(principals, principalsInScope, projectInScope, project.getConsumers());
+      addPrincipals(principals, principalsInScope, projectInScope, project.getProducers());
+      addPrincipals(principals, principalsInScope, projectInScope, project.getStreams());
+      addPrincipals(principals, principalsInScope, projectInScope, project.getConnectors());
+      addPrincipals(principals, principalsInScope, projectInScope, project.getSchemas());
+      for (Topic topic : project.getTopics()) {
+        boolean topicInScope = filter.includesUsers(project, topic.toString());
+        addPrincipals(principals, principalsInScope, topicInScope, topic.getConsumers());
+        addPrincipals(principals, principalsInScope, topicInScope, topic.getProducers());
+      }
+    }
+    principalsInScope.removeIf(principal -> !filter.includesPrincipal(principal));
+    desiredPrincipals = principals;
+    desiredPrincipalsInScope = principalsInScope;
+    inventoryTopology = topology;
+  }
+
+  private void addPrincipals(
+      Set<String> principals,
+      Set<String> principalsInScope,
+      boolean inScope,
+      List<? extends User> users) {
+    for (User user : users) {
+      String principal = user.getPrincipal();
+      if (matchesPrefixList(principal)) {
+        principals.add(principal);
+        if (inScope) {
+          principalsInScope.add(principal);
+        }
+      }
+    }
   }
 
   public void printCurrentState(PrintStream out) throws IOException {
@@ -0,0 +1,254 @@
+package com.purbon.kafka.topology;
+
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.resource.ResourceType;
+
+/**
+ * The subset of the topology a run is limited to: a list of projects, of topics and of principals.
+ * Resources outside of the scope are never created, updated nor deleted, and the cluster state
+ * outside of the scope is never diffed, so a scoped run can not remove what it does not see.
+ *
+ * <p>Each given dimension narrows the scope further. Projects are given by name or by name prefix,
+ * topics by their full name. A run scoped to principals only leaves the topics untouched, and
+ * applies the bindings and service accounts of these principals.
+ */
+public class SyncScope {
+
+  private static final SyncScope ALL =
+      new SyncScope(Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+
+  private final Set<String> projects;
+  private final Set<String> topics;
+  private final Set<String> principals;
+  private final Set<String> excludedProjects;
+
+  public SyncScope(
+      Collection<String> projects, Collection<String> topics, Collection<String> principals) {
+    this(projects, topics, principals, Collections.emptySet());
+  }
+
+  private SyncScope(
+      Collection<String> projects,
+      Collection<String> topics,
+      Collection<String> principals,
+      Collection<String> excludedProjects) {
+    this.projects = new HashSet<>(projects);
+    this.topics = new HashSet<>(topics);
+    this.principals = new HashSet<>(principals);
+    this.excludedProjects = new HashSet<>(excludedProjects);
+  }
+
+  public static SyncScope all() {
+    return ALL;
+  }
+
+  /** @return true if the run is not limited to any subset of the topology */
+  public boolean isAll() {
+    return projects.isEmpty()
+        && topics.isEmpty()
+        && principals.isEmpty()
+        && excludedProjects.isEmpty();
+  }
+
+  /**
+   * Leave the resources of some projects as they are, for example because their state was not
+   * loaded. Resources are attributed to these projects by name, whatever their type, so bindings on
+   * their transactional ids or subjects are left alone as well.
+   *
+   * @param namePrefixes the name prefix of the excluded projects
+   * @return a new scope, narrowed to exclude the resources of these projects
+   */
+  public SyncScope excluding(Collection<String> namePrefixes) {
+    if (namePrefixes.isEmpty()) {
+      return this;
+    }
+    Set<String> excluded = new HashSet<>(excludedProjects);
+    excluded.addAll(namePrefixes);
+    return new SyncScope(projects, topics, principals, excluded);
+  }
+
+  /**
+   * Resolve the scope against a topology, so the resources of the cluster can be attributed to its
+   * projects.
+   *
+   * @param topology the topology of the run
+   * @param separator the topic prefix separator
+   * @return the filter of the resources in scope
+   */
+  public Filter filter(Topology topology, String separator) {
+    Map<String, Boolean> prefixes = new HashMap<>();
+    for (Project project : topology.getProjects()) {
+      prefixes.put(project.namePrefix(), includes(project));
+    }
+    return new Filter(prefixes, separator);
+  }
+
+  private boolean includes(Project project) {
+    return isListed(project) && !excludedProjects.contains(project.namePrefix());
+  }
+
+  private boolean isListed(Project project) {
+    return projects.isEmpty()
+        || projects.contains(project.getName())
+        || projects.contains(project.namePrefix());
+  }
+
+  private boolean isResourceScoped() {
+    return !projects.isEmpty() || !topics.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    if (excludedProjects.isEmpty()) {
+      return String.format("projects=%s, topics=%s, principals=%s", projects, topics, principals);
+    }
+    return String.format(
+        "projects=%s, topics=%s, principals=%s, excludedProjects=%s",
+        projects, topics, principals, excludedProjects);
+  }
+
+  /** The scope of a run, resolved against its topology. */
+  public class Filter {
+
+    private final Map<String, Boolean> prefixes;
+    private final String separator;
+
+    private Filter(Map<String, Boolean> prefixes, String separator) {
+      this.prefixes = prefixes;
+      this.separator = separator;
+    }
+
+    /** @return true if the topics of the project are in scope */
+    public boolean includes(Project project) {
+      return SyncScope.this.includes(project) && (isResourceScoped() || principals.isEmpty());
+    }
+
+    /**
+     * @param project the project the topic is described in
+     * @param topic the full name of a topic of the project
+     * @return true if the topic is in scope
+     */
+    public boolean includesTopic(Project project, String topic) {
+      return includes(project) && (topics.isEmpty() || topics.contains(topic));
+    }
+
+    /**
+     * @param topic the full name of a topic of the cluster
+     * @return true if the topic is in scope, given the project it is attributed to by name
+     */
+    public boolean includesTopic(String topic) {
+      if (ownedByExcludedProject(topic)) {
+        return false;
+      }
+      if (!isResourceScoped()) {
+        return principals.isEmpty();
+      }
+      return (projects.isEmpty() || ownedByProjectInScope(topic))
+          && (topics.isEmpty() || topics.contains(topic));
+    }
+
+    public boolean includesPrincipal(String principal) {
+      return principals.isEmpty() || principals.contains(principal);
+    }
+
+    /**
+     * @param project a project of the topology
+     * @param topic the full name of a topic of the project, or null for the project level users
+     * @return true if the users of the project, or of its topic, are in scope
+     */
+    public boolean includesUsers(Project project, String topic) {
+      // the bindings of the users of excluded projects are filtered by resource, their service
+      // accounts are not attributed to projects and stay in scope
+      return isListed(project) && (topic == null || topics.isEmpty() || topics.contains(topic));
+    }
+
+    /**
+     * @param namePrefix the name prefix of a project, described in the topology or not
+     * @return true if any resource attributed to the project may be in scope, so its state is
+     *     needed by the run
+     */
+    public boolean includesState(String namePrefix) {
+      if (excludedProjects.contains(namePrefix)) {
+        return false;
+      }
+      if (!isResourceScoped()) {
+        return true;
+      }
+      if (!projects.isEmpty() && !Boolean.TRUE.equals(prefixes.get(namePrefix))) {
+        return false;
+      }
+      return topics.isEmpty() || topics.stream().anyMatch(topic -> namePrefix.equals(owner(topic)));
+    }
+
+    /**
+     * Service accounts can not be attributed to projects or topics, so only runs scoped to
+     * principals, or not scoped at all, can delete them.
+     *
+     * @param principal the name of a service account of the cluster
+     * @return true if the service account is in scope
+     */
+    public boolean includesAccount(String principal) {
+      return !isResourceScoped() && includesPrincipal(principal);
+    }
+
+    /**
+     * Bindings are in scope when their principal is, and when their topic (or for project scopes,
+     * their topic or group prefix) is in scope. Any other resource is out of a project or topic
+     * scope.
+     */
+    public boolean includes(TopologyAclBinding binding) {
+      String resourceName = binding.getResourceName();
+      if (!includesPrincipal(binding.getPrincipal()) || ownedByExcludedProject(resourceName)) {
+        return false;
+      }
+      if (!isResourceScoped()) {
+        return true;
+      }
+      ResourceType resourceType = binding.getResourceType();
+      if (resourceType == ResourceType.TOPIC) {
+        return (projects.isEmpty() || ownedByProjectInScope(resourceName))
+            && (topics.isEmpty() || topics.contains(resourceName));
+      } else if (resourceType == ResourceType.GROUP) {
+        return topics.isEmpty() && ownedByProjectInScope(resourceName);
+      }
+      return false;
+    }
+
+    /**
+     * A resource belongs to the project with the longest name prefix it starts with, up to a
+     * separator, so the resources of a project "foo" are never attributed to a project "foo.bar".
+     */
+    private boolean ownedByProjectInScope(String resourceName) {
+      String owner = owner(resourceName);
+      return owner != null && prefixes.get(owner);
+    }
+
+    private boolean ownedByExcludedProject(String resourceName) {
+      return !excludedProjects.isEmpty() && excludedProjects.contains(owner(resourceName));
+    }
+
+    /** @return the name prefix of the project the resource belongs to, or null if none */
+    private String owner(String resourceName) {
+      if (prefixes.containsKey(resourceName)) {
+        return resourceName;
+      }
+      int index = resourceName.lastIndexOf(separator);
+      while (index > 0) {
+        String prefix = resourceName.substring(0, index);
+        if (prefixes.containsKey(prefix)) {
+          return prefix;
+        }
+        index = resourceName.lastIndexOf(separator, index - 1);
+      }
+      return null;
+    }
+  }
+}
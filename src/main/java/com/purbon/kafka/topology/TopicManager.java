@@ -1,14 +1,20 @@
 package com.purbon.kafka.topology;
 
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
 import com.purbon.kafka.topology.actions.topics.DeleteTopics;
 import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.TopicSchemas;
 import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.schema.Subject;
 import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -26,6 +32,8 @@ public class TopicManager {
   private final TopologyBuilderConfig config;
   private final List<String> internalTopicPrefixes;
   private final List<String> managedPrefixes;
+  private SyncScope scope;
+  private ClusterSnapshot clusterSnapshot;
 
   public TopicManager(
       TopologyBuilderAdminClient adminClient, SchemaRegistryManager schemaRegistryManager) {
@@ -41,27 +49,83 @@ public class TopicManager {
     this.config = config;
     this.internalTopicPrefixes = config.getKafkaInternalTopicPrefixes();
     this.managedPrefixes = config.getTopicManagedPrefixes();
+    this.scope = config.getSyncScope();
+    this.clusterSnapshot = new ClusterSnapshot();
+  }
+
+  /** Limit the next runs to the given scope, instead of the configured one. */
+  void setScope(SyncScope scope) {
+    this.scope = scope;
+  }
+
+  /**
+   * List the cluster through the given snapshot, kept between the runs of a long running process.
+   */
+  void setClusterSnapshot(ClusterSnapshot clusterSnapshot) {
+    this.clusterSnapshot = clusterSnapshot;
   }
 
   public void apply(Topology topology, ExecutionPlan plan) throws IOException {
+    apply(topology, plan, project -> true);
+  }
 
+  /**
+   * Apply the topics of the projects changed since the last run. The topics of the other projects
+   * are only synced when they are missing from the state, topic deletion is unaffected.
+   *
+   * @param topology A topology file descriptor
+   * @param plan An Execution plan
+   * @param changedProjects The name prefix of the projects changed since the last run
+   */
+  public void applyIncremental(
+      Topology topology, ExecutionPlan plan, Collection<String> changedProjects)
+      throws IOException {
+    Set<String> projects = new HashSet<>(changedProjects);
+    apply(topology, plan, project -> projects.contains(project.namePrefix()));
+  }
+
+  private void apply(Topology topology, ExecutionPlan plan, Predicate<Project> changed)
+      throws IOException {
+
+    SyncScope.Filter filter = scope.filter(topology, config.getTopicPrefixSeparator());
     Set<String> listOfTopics = loadActualClusterStateIfAvailable(plan);
     // Foreach topic in the topology, sync it's content
     // if topics does not exist already it's created
 
-    Map<String, Topic> topics = parseMapOfTopics(topology);
-    topics.forEach(
-        (topicName, topic) -> {
-          plan.add(
-              new SyncTopicAction(
-                  adminClient, schemaRegistryManager, topic, topicName, listOfTopics));
-        });
+    Map<String, Topic> topics = new HashMap<>();
+    int skipped = 0;
+    for (Project project : topology.getProjects()) {
+      boolean projectChanged = changed.test(project);
+      for (Topic topic : project.getTopics()) {
+        String topicName = topic.toString();
+        if (!matchesPrefixList(topicName)) {
+          continue;
+        }
+        if (topics.put(topicName, topic) != null) {
+          throw new IllegalStateException(String.format("Duplicate key %s", topicName));
+        }
+        if (!filter.includesTopic(project, topicName)) {
+          continue;
+        }
+        if (projectChanged || !listOfTopics.contains(topicName)) {
+          plan.add(new SyncTopicAction(adminClient, topic, topicName, listOfTopics));
+          addSchemaActions(topic, topicName, plan);
+        } else {
+          skipped++;
+        }
+      }
+    }
+    if (skipped > 0) {
+      LOGGER.debug(String.format("Skipped %s topics of unchanged projects", skipped));
+    }
 
     if (config.allowDelete() || config.isAllowDeleteTopics()) {
       // Handle topic delete: Topics in the initial list, but not present anymore after a
-      // full topic sync should be deleted
+      // full topic sync should be deleted. Topics described anywhere in the topology are kept,
+      // whatever the scope of the run.
       List<String> topicsToBeDeleted =
           listOfTopics.stream()
+              .filter(filter::includesTopic)
               .filter(topic -> !topics.containsKey(topic) && !isAnInternalTopics(topic))
               .collect(Collectors.toList());
 
@@ -72,22 +136,37 @@ public class TopicManager {
     }
   }
 
-  private Map<String, Topic> parseMapOfTopics(Topology topology) {
-    return topology.getProjects().stream()
-        .flatMap(project -> project.getTopics().stream())
-        .filter(this::matchesPrefixList)
-        .collect(Collectors.toMap(Topic::toString, topic -> topic));
+  /** Register the schemas of a topic in their own plan stage, one action per subject. */
+  private void addSchemaActions(Topic topic, String topicName, ExecutionPlan plan)
+      throws IOException {
+    for (TopicSchemas schemas : topic.getSchemas()) {
+      for (Subject subject : Arrays.asList(schemas.getKeySubject(), schemas.getValueSubject())) {
+        if (subject.hasSchemaFile()) {
+          plan.add(
+              new RegisterSchemaAction(
+                  schemaRegistryManager,
+                  topicName,
+                  subject.buildSubjectName(topic),
+                  subject.getSchemaFile(),
+                  subject.getFormat(),
+                  subject.getOptionalCompatibility()));
+        }
+      }
+    }
   }
 
   private boolean isAnInternalTopics(String topic) {
     return internalTopicPrefixes.stream().anyMatch(topic::startsWith);
   }
 
-  private Set<String> loadActualClusterStateIfAvailable(ExecutionPlan plan) throws IOException {
-    Set<String> listOfTopics =
-        config.fetchTopicStateFromTheCluster()
-            ? adminClient.listApplicationTopics()
-            : plan.getTopics();
+  Set<String> loadActualClusterStateIfAvailable(ExecutionPlan plan) throws IOException {
+    Set<String> listOfTopics;
+    try (Timings.Timer timer = Timings.phase("fetch.topics")) {
+      listOfTopics =
+          config.fetchTopicStateFromTheCluster()
+              ? clusterSnapshot.topics(adminClient::listApplicationTopics)
+              : plan.getTopics();
+    }
 
     listOfTopics =
         listOfTopics.stream().filter(this::matchesPrefixList).collect(Collectors.toSet());
@@ -98,10 +177,6 @@ public class TopicManager {
     return listOfTopics;
   }
 
-  private boolean matchesPrefixList(Topic topic) {
-    return matchesPrefixList(topic.toString());
-  }
-
   private boolean matchesPrefixList(String topic) {
     boolean matches =
         managedPrefixes.size() == 0 || managedPrefixes.stream().anyMatch(topic::startsWith);
@@ -2,6 +2,12 @@ package com.purbon.kafka.topology;
 
 import static com.purbon.kafka.topology.BuilderCLI.ADMIN_CLIENT_CONFIG_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.DRY_RUN_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.PLAN_IN_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.PLAN_OUT_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.PRINCIPALS_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.PROJECTS_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.RESUME_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.TOPICS_OPTION;
 
 import com.purbon.kafka.topology.exceptions.ConfigurationException;
 import com.purbon.kafka.topology.model.Project;
@@ -10,9 +16,11 @@ import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.serdes.TopologySerdes.FileType;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -32,17 +40,43 @@ public class TopologyBuilderConfig {
 
   static final String RBAC_ACCESS_CONTROL_CLASS = "com.purbon.kafka.topology.roles.RBACProvider";
 
-  private static final String STATE_PROCESSOR_IMPLEMENTATION_CLASS =
+  static final String STATE_PROCESSOR_IMPLEMENTATION_CLASS =
       "topology.builder.state.processor.class";
 
-  static final String STATE_PROCESSOR_DEFAULT_CLASS =
-      "com.purbon.kafka.topology.backend.FileBackend";
-
-  static final String REDIS_STATE_PROCESSOR_CLASS =
-      "com.purbon.kafka.topology.backend.RedisBackend";
-
-  static final String REDIS_HOST_CONFIG = "topology.builder.redis.host";
-  static final String REDIS_PORT_CONFIG = "topology.builder.redis.port";
+  static final String FINGERPRINT_ENABLED_CONFIG = "topology.builder.fingerprint.enabled";
+  static final String FINGERPRINT_CLUSTER_EPOCH_CONFIG =
+      "topology.builder.fingerprint.cluster.epoch";
+  static final String INCREMENTAL_SYNC_CONFIG = "topology.builder.incremental.enabled";
+
+  static final String STATE_SHARDING_ENABLED_CONFIG = "topology.builder.state.sharding.enabled";
+  static final String STATE_CHECKPOINT_ACTIONS_CONFIG = "topology.builder.state.checkpoint.actions";
+
+  static final String EXECUTION_PARALLELISM_CONFIG = "topology.builder.execution.parallelism";
+  static final String SCHEMAS_PARALLELISM_CONFIG = "topology.builder.schemas.parallelism";
+  static final String SCHEMAS_COMPATIBILITY_CHECK_CONFIG =
+      "topology.builder.schemas.compatibility.check.enabled";
+  static final String SCHEMAS_CACHE_CAPACITY_CONFIG = "topology.builder.schemas.cache.capacity";
+  static final String PARSE_PARALLELISM_CONFIG = "topology.builder.parse.parallelism";
+  static final String PARSE_STREAMING_CONFIG = "topology.builder.parse.streaming";
+  static final String PARSE_CACHE_DIR_CONFIG = "topology.builder.parse.cache.dir";
+  static final String PARSE_CACHE_MAX_AGE_CONFIG = "topology.builder.parse.cache.max.age";
+  static final String TIMING_ENABLED_CONFIG = "topology.builder.timing.enabled";
+  static final String METRICS_JMX_ENABLED_CONFIG = "topology.builder.metrics.jmx.enabled";
+  static final String METRICS_TEXTFILE_CONFIG = "topology.builder.metrics.textfile";
+  static final String DAEMON_DRIFT_INTERVAL_CONFIG = "topology.builder.daemon.drift.interval";
+  static final String DAEMON_DEBOUNCE_CONFIG = "topology.builder.daemon.debounce";
+  static final String SERVER_HOST_CONFIG = "topology.builder.server.host";
+  static final String SERVER_PORT_CONFIG = "topology.builder.server.port";
+  static final String DRY_RUN_FORMAT_CONFIG = "topology.builder.dry.run.format";
+  static final String DRY_RUN_TEXT_FORMAT = "text";
+
+  public static final String REDIS_HOST_CONFIG = "topology.builder.redis.host";
+  public static final String REDIS_PORT_CONFIG = "topology.builder.redis.port";
+
+  static final String KAFKA_STATE_TOPIC_CONFIG = "topology.builder.kafka.state.topic";
+  static final String KAFKA_STATE_REPLICATION_FACTOR_CONFIG =
+      "topology.builder.kafka.state.replication.factor";
+  static final String KAFKA_STATE_LOAD_TIMEOUT_CONFIG = "topology.builder.kafka.state.load.timeout";
 
   public static final String MDS_SERVER = "topology.builder.mds.server";
   static final String MDS_USER_CONFIG = "topology.builder.mds.user";
@@ -288,6 +322,127 @@ public class TopologyBuilderConfig {
     return config.getString(STATE_PROCESSOR_IMPLEMENTATION_CLASS);
   }
 
+  public boolean isFingerprintEnabled() {
+    return config.getBoolean(FINGERPRINT_ENABLED_CONFIG);
+  }
+
+  public String getFingerprintClusterEpoch() {
+    return config.getString(FINGERPRINT_CLUSTER_EPOCH_CONFIG);
+  }
+
+  public boolean isIncrementalSyncEnabled() {
+    return config.getBoolean(INCREMENTAL_SYNC_CONFIG);
+  }
+
+  public boolean isStateShardingEnabled() {
+    return config.getBoolean(STATE_SHARDING_ENABLED_CONFIG);
+  }
+
+  /** @return how many actions complete between two stores of the state and the journal */
+  public int getStateCheckpointActions() {
+    return Math.max(config.getInt(STATE_CHECKPOINT_ACTIONS_CONFIG), 1);
+  }
+
+  public int getExecutionParallelism() {
+    return config.getInt(EXECUTION_PARALLELISM_CONFIG);
+  }
+
+  /** @return how many schemas are registered concurrently, by default the execution parallelism */
+  public int getSchemaParallelism() {
+    int parallelism = config.getInt(SCHEMAS_PARALLELISM_CONFIG);
+    return parallelism > 0 ? parallelism : getExecutionParallelism();
+  }
+
+  public boolean isSchemaCompatibilityCheckEnabled() {
+    return config.getBoolean(SCHEMAS_COMPATIBILITY_CHECK_CONFIG);
+  }
+
+  /** @return how many schemas the Schema Registry client caches per subject */
+  public int getSchemaRegistryCacheCapacity() {
+    return config.getInt(SCHEMAS_CACHE_CAPACITY_CONFIG);
+  }
+
+  /** @return how often the daemon runs a full sync, to repair any drift of the cluster */
+  public Duration getDaemonDriftInterval() {
+    return config.getDuration(DAEMON_DRIFT_INTERVAL_CONFIG);
+  }
+
+  /** @return how long the daemon waits for the topology files to settle before applying them */
+  public Duration getDaemonDebounce() {
+    return config.getDuration(DAEMON_DEBOUNCE_CONFIG);
+  }
+
+  /** @return the address the HTTP API listens on */
+  public String getServerHost() {
+    return config.getString(SERVER_HOST_CONFIG);
+  }
+
+  public int getServerPort() {
+    return config.getInt(SERVER_PORT_CONFIG);
+  }
+
+  /** @return how many topology files are parsed concurrently, by default one per processor */
+  public int getParseParallelism() {
+    int parallelism = config.getInt(PARSE_PARALLELISM_CONFIG);
+    return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+
+  public boolean isStreamingParseEnabled() {
+    return config.getBoolean(PARSE_STREAMING_CONFIG);
+  }
+
+  /** @return the directory of the parse cache, if enabled */
+  public Optional<String> getParseCacheDir() {
+    String dir = config.getString(PARSE_CACHE_DIR_CONFIG);
+    return dir.isEmpty() ? Optional.empty() : Optional.of(dir);
+  }
+
+  /** @return how long a parse cache entry is kept once no run reads it anymore */
+  public Duration getParseCacheMaxAge() {
+    return config.getDuration(PARSE_CACHE_MAX_AGE_CONFIG);
+  }
+
+  public boolean isTimingEnabled() {
+    return config.getBoolean(TIMING_ENABLED_CONFIG);
+  }
+
+  public boolean isMetricsJmxEnabled() {
+    return config.getBoolean(METRICS_JMX_ENABLED_CONFIG);
+  }
+
+  /** @return the file the run metrics are written to in the Prometheus text format, if any */
+  public Optional<String> getMetricsTextFile() {
+    String textFile = config.getString(METRICS_TEXTFILE_CONFIG);
+    return textFile.isEmpty() ? Optional.empty() : Optional.of(textFile);
+  }
+
+  public boolean isMetricsEnabled() {
+    return isMetricsJmxEnabled() || getMetricsTextFile().isPresent();
+  }
+
+  /** @return the format dry runs print the plan with, either text or ndjson */
+  public String getDryRunFormat() throws ConfigurationException {
+    String format = config.getString(DRY_RUN_FORMAT_CONFIG).toLowerCase();
+    if (!format.equals(DRY_RUN_TEXT_FORMAT) && !format.equals(NdjsonPlanWriter.FORMAT)) {
+      throw new ConfigurationException(
+          String.format("%s should be text or ndjson, not %s", DRY_RUN_FORMAT_CONFIG, format));
+    }
+    return format;
+  }
+
+  public String getKafkaStateTopic() {
+    return config.getString(KAFKA_STATE_TOPIC_CONFIG);
+  }
+
+  public short getKafkaStateReplicationFactor() {
+    return (short) config.getInt(KAFKA_STATE_REPLICATION_FACTOR_CONFIG);
+  }
+
+  /** @return how long loading the state from the state topic may take before the run fails */
+  public Duration getKafkaStateLoadTimeout() {
+    return config.getDuration(KAFKA_STATE_LOAD_TIMEOUT_CONFIG);
+  }
+
   public String getTopicPrefixFormat() {
     return config.getString(TOPIC_PREFIX_FORMAT_CONFIG);
   }
@@ -337,8 +492,35 @@ public class TopologyBuilderConfig {
     return Boolean.parseBoolean(cliParams.getOrDefault(BuilderCLI.QUIET_OPTION, "false"));
   }
 
+  /** @return true if the run should not alter anything, as well when only writing the plan */
   public boolean isDryRun() {
-    return Boolean.parseBoolean(cliParams.getOrDefault(DRY_RUN_OPTION, "false"));
+    return Boolean.parseBoolean(cliParams.getOrDefault(DRY_RUN_OPTION, "false"))
+        || getPlanOutFile().isPresent();
+  }
+
+  public Optional<String> getPlanOutFile() {
+    return Optional.ofNullable(cliParams.get(PLAN_OUT_OPTION));
+  }
+
+  public Optional<String> getPlanInFile() {
+    return Optional.ofNullable(cliParams.get(PLAN_IN_OPTION));
+  }
+
+  public boolean isResume() {
+    return Boolean.parseBoolean(cliParams.getOrDefault(RESUME_OPTION, "false"));
+  }
+
+  /** @return the subset of the topology the run is limited to, all of it by default */
+  public SyncScope getSyncScope() {
+    return new SyncScope(
+        cliList(PROJECTS_OPTION), cliList(TOPICS_OPTION), cliList(PRINCIPALS_OPTION));
+  }
+
+  private List<String> cliList(String option) {
+    return Stream.of(cliParams.getOrDefault(option, "").split(","))
+        .map(String::trim)
+        .filter(value -> !value.isEmpty())
+        .collect(Collectors.toList());
   }
 
   public FileType getTopologyFileType() {
@@ -0,0 +1,241 @@
+package com.purbon.kafka.topology;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.purbon.kafka.topology.exceptions.ConfigurationException;
+import com.purbon.kafka.topology.model.Topology;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps a topology applied to the cluster. The daemon watches the topology files, and applies the
+ * projects changed since the last successful run as soon as the files settle. At a regular
+ * interval, it runs a full sync of the whole topology, to repair any drift of the cluster.
+ *
+ * <p>All the runs share a single {@link KafkaTopologyBuilder}, so the clients, the caches of the
+ * managers, the state and the cluster listings kept in memory, and the parse cache stay warm
+ * between them. A run that fails is logged, and the projects it did not apply are applied again
+ * with the next change or drift check.
+ */
+public class TopologyDaemon implements AutoCloseable {
+
+  private static final Logger LOGGER = LogManager.getLogger(TopologyDaemon.class);
+
+  private final String topologyFileOrDir;
+  private final String plansFile;
+  private final TopologyBuilderConfig config;
+  private final KafkaTopologyBuilder builder;
+  private final ReentrantLock reconcileLock;
+  // the fingerprint of the topology applied by the last successful run
+  private Map<String, String> applied;
+  private WatchService watcher;
+  private volatile boolean closed;
+
+  TopologyDaemon(
+      String topologyFileOrDir,
+      String plansFile,
+      TopologyBuilderConfig config,
+      KafkaTopologyBuilder builder) {
+    this.topologyFileOrDir = topologyFileOrDir;
+    this.plansFile = plansFile;
+    this.config = config;
+    this.builder = builder;
+    this.reconcileLock = new ReentrantLock();
+    this.applied = Collections.emptyMap();
+    this.closed = false;
+  }
+
+  public static TopologyDaemon build(
+      String topologyFileOrDir, String plansFile, Map<String, String> config) throws Exception {
+    TopologyBuilderConfig builderConfig = TopologyBuilderConfig.build(config);
+    if (builderConfig.getPlanInFile().isPresent() || builderConfig.getPlanOutFile().isPresent()) {
+      throw new ConfigurationException("The daemon can not write nor apply execution plans");
+    }
+    KafkaTopologyBuilder.enableInstrumentation(builderConfig);
+    Topology topology =
+        KafkaTopologyBuilder.buildTopology(topologyFileOrDir, plansFile, builderConfig);
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(topology, topologyFileOrDir, builderConfig, config);
+    return new TopologyDaemon(topologyFileOrDir, plansFile, builderConfig, builder);
+  }
+
+  /** Apply the whole topology, then keep it applied until the daemon is closed. */
+  public void run() throws IOException, InterruptedException {
+    long driftInterval = config.getDaemonDriftInterval().toMillis();
+    long debounce = config.getDaemonDebounce().toMillis();
+    LOGGER.info(
+        String.format(
+            "Watching %s, with a full sync every %d ms", topologyFileOrDir, driftInterval));
+    try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+      this.watcher = watcher;
+      for (Path dir : watchedDirs()) {
+        register(watcher, dir);
+      }
+      reconcile(true);
+      long nextDriftCheck = System.currentTimeMillis() + driftInterval;
+      while (!closed) {
+        long timeout = Math.max(nextDriftCheck - System.currentTimeMillis(), 0);
+        WatchKey key = watcher.poll(timeout, TimeUnit.MILLISECONDS);
+        if (key == null) {
+          reconcile(true);
+          nextDriftCheck = System.currentTimeMillis() + driftInterval;
+          continue;
+        }
+        // editors and checkouts write files in bursts, wait for them to settle
+        boolean changed = false;
+        while (key != null) {
+          changed |= handle(watcher, key);
+          key = watcher.poll(debounce, TimeUnit.MILLISECONDS);
+        }
+        if (changed) {
+          reconcile(false);
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      LOGGER.debug("The topology daemon was closed");
+    }
+  }
+
+  /**
+   * Parse the topology again, and apply it if it changed since the last successful run.
+   *
+   * @param full true to sync the topics of the whole topology, even if it did not change
+   * @return true if the topology was applied
+   */
+  boolean reconcile(boolean full) {
+    reconcileLock.lock();
+    try {
+      if (closed) {
+        return false;
+      }
+      KafkaTopologyBuilder.resetInstrumentation(config);
+      Topology topology = KafkaTopologyBuilder.buildTopology(topologyFileOrDir, plansFile, config);
+      TopologyFingerprint fingerprint =
+          TopologyFingerprint.build(topology, config, topologyFileOrDir);
+      if (!full && fingerprint.matches(applied)) {
+        LOGGER.debug("The topology did not change since the last run");
+        return false;
+      }
+      if (full) {
+        LOGGER.info("Running a full sync of the topology");
+        builder.reconcile(topology, Optional.empty());
+      } else {
+        // removed projects are not listed, their topics are deleted by the topology wide diff
+        List<String> changedProjects = fingerprint.changedProjects(applied);
+        LOGGER.info(String.format("Syncing the changed projects %s", changedProjects));
+        builder.reconcile(topology, Optional.of(changedProjects));
+      }
+      if (!config.isDryRun()) {
+        applied = fingerprint.asMetadata();
+      }
+      return true;
+    } catch (Exception e) {
+      LOGGER.error("The topology could not be applied, waiting for the next change", e);
+      return false;
+    } finally {
+      reconcileLock.unlock();
+    }
+  }
+
+  private Set<Path> watchedDirs() {
+    Set<Path> dirs = new LinkedHashSet<>();
+    dirs.add(dirOf(topologyFileOrDir));
+    if (!plansFile.equals("default")) {
+      dirs.add(dirOf(plansFile));
+    }
+    return dirs;
+  }
+
+  private static Path dirOf(String fileOrDir) {
+    Path path = Paths.get(fileOrDir).toAbsolutePath();
+    return Files.isDirectory(path) ? path : path.getParent();
+  }
+
+  /** Watch a directory and its subdirectories, where the schema files usually are. */
+  private static void register(WatchService watcher, Path dir) throws IOException {
+    Files.walkFileTree(
+        dir,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs)
+              throws IOException {
+            if (!path.equals(dir) && isHidden(path)) {
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            path.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  /** @return true if any file of the topology may have changed */
+  private static boolean handle(WatchService watcher, WatchKey key) throws IOException {
+    Path dir = (Path) key.watchable();
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        changed = true;
+        continue;
+      }
+      Path path = dir.resolve((Path) event.context());
+      // the state file, and the swap files of editors, are not part of the topology
+      if (isHidden(path)) {
+        continue;
+      }
+      if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+        register(watcher, path);
+      }
+      changed = true;
+    }
+    key.reset();
+    return changed;
+  }
+
+  private static boolean isHidden(Path path) {
+    return path.getFileName().toString().startsWith(".");
+  }
+
+  /**
+   * Stop watching the topology, and release the builder once the run in progress, if any, is over,
+   * so a plan is never cut in the middle by a shutdown.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (watcher != null) {
+      watcher.close();
+    }
+    reconcileLock.lock();
+    try {
+      builder.close();
+    } finally {
+      reconcileLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package com.purbon.kafka.topology;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.TopicSchemas;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.schema.Subject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+
+/**
+ * SHA-256 fingerprint of everything a run applies to the cluster: the parsed topology (with the
+ * plans already merged into the topics), the content of the referenced schema files and the builder
+ * configuration.
+ *
+ * <p>Besides the global fingerprint, one fingerprint per project is computed, so a run can tell
+ * which projects changed since the last successful one.
+ */
+public class TopologyFingerprint {
+
+  static final String FINGERPRINT_KEY = "fingerprint";
+  static final String EPOCH_KEY = "fingerprint.epoch";
+  static final String CONFIG_FINGERPRINT_KEY = "fingerprint.config";
+  static final String PROJECT_FINGERPRINT_KEY_PREFIX = "fingerprint.project.";
+
+  private static final ObjectMapper mapper;
+
+  static {
+    mapper = new ObjectMapper();
+    mapper.registerModule(new Jdk8Module());
+    mapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+    mapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+    mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+  }
+
+  private final String fingerprint;
+  private final String epoch;
+  private final String configFingerprint;
+  private final Map<String, String> projectFingerprints;
+
+  private TopologyFingerprint(
+      String fingerprint,
+      String epoch,
+      String configFingerprint,
+      Map<String, String> projectFingerprints) {
+    this.fingerprint = fingerprint;
+    this.epoch = epoch;
+    this.configFingerprint = configFingerprint;
+    this.projectFingerprints = projectFingerprints;
+  }
+
+  public static TopologyFingerprint build(
+      Topology topology, TopologyBuilderConfig config, String topologyFileOrDir)
+      throws IOException {
+    String rootPath =
+        Files.isDirectory(Paths.get(topologyFileOrDir))
+            ? topologyFileOrDir
+            : new File(topologyFileOrDir).getParent();
+
+    Map<String, String> projectFingerprints = new TreeMap<>();
+    for (Project project : topology.getProjects()) {
+      projectFingerprints.put(project.namePrefix(), projectFingerprint(project, rootPath));
+    }
+
+    String relevantConfig = mapper.writeValueAsString(relevantConfig(config));
+    MessageDigest configDigest = newDigest();
+    update(configDigest, relevantConfig);
+
+    MessageDigest digest = newDigest();
+    update(digest, mapper.writeValueAsString(new TreeMap<>(topology.asFullContext())));
+    update(digest, mapper.writeValueAsString(topology.getPlatform()));
+    update(digest, mapper.writeValueAsString(projectFingerprints));
+    update(digest, relevantConfig);
+
+    return new TopologyFingerprint(
+        hex(digest.digest()),
+        config.getFingerprintClusterEpoch(),
+        hex(configDigest.digest()),
+        projectFingerprints);
+  }
+
+  private static String projectFingerprint(Project project, String rootPath) throws IOException {
+    MessageDigest digest = newDigest();
+    update(digest, project.namePrefix());
+    update(digest, mapper.writeValueAsString(project));
+    for (Topic topic : project.getTopics()) {
+      update(digest, topic.toString());
+      for (TopicSchemas schemas : topic.getSchemas()) {
+        update(digest, schemaFileContent(schemas.getKeySubject(), rootPath));
+        update(digest, schemaFileContent(schemas.getValueSubject(), rootPath));
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  private static String schemaFileContent(Subject subject, String rootPath) throws IOException {
+    if (!subject.hasSchemaFile()) {
+      return "";
+    }
+    Path path = Paths.get(subject.getSchemaFile());
+    if (!path.isAbsolute()) {
+      path = Paths.get(rootPath, subject.getSchemaFile());
+    }
+    if (!Files.exists(path)) {
+      return "missing:" + path;
+    }
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The configuration that changes the computed plan, or the cluster and the state it is applied
+   * to: the naming and managed prefixes, the validations, the deletion and state toggles, the
+   * access control and state providers. The operational settings, like the parallelism, the
+   * timings, the metrics, the parse cache, the daemon and the server, or the client credentials,
+   * are left out, so changing them does not force a full sync.
+   */
+  private static final List<String> PLAN_CONFIG_PREFIXES =
+      Arrays.asList(
+          "topology.acls.",
+          "topology.features.",
+          "topology.file.",
+          "topology.validations",
+          "topology.translation.",
+          "topology.topic.",
+          "topology.project.",
+          "topology.connector.",
+          "topology.state.",
+          "topology.service.",
+          "topology.group.",
+          TopologyBuilderConfig.ACCESS_CONTROL_IMPLEMENTATION_CLASS,
+          TopologyBuilderConfig.STATE_PROCESSOR_IMPLEMENTATION_CLASS,
+          TopologyBuilderConfig.STATE_SHARDING_ENABLED_CONFIG,
+          TopologyBuilderConfig.KAFKA_STATE_TOPIC_CONFIG,
+          TopologyBuilderConfig.REDIS_HOST_CONFIG,
+          TopologyBuilderConfig.REDIS_PORT_CONFIG,
+          TopologyBuilderConfig.MDS_SERVER,
+          TopologyBuilderConfig.MDS_KAFKA_CLUSTER_ID_CONFIG,
+          TopologyBuilderConfig.MDS_SR_CLUSTER_ID_CONFIG,
+          TopologyBuilderConfig.MDS_KC_CLUSTER_ID_CONFIG,
+          "allow.delete.",
+          "kafka.internal.",
+          "confluent.",
+          "ccloud.",
+          TopologyBuilderConfig.CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG,
+          AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG);
+
+  /**
+   * The builder configuration that changes the computed plan. The cluster epoch is compared on its
+   * own.
+   */
+  static Map<String, String> relevantConfig(TopologyBuilderConfig config) {
+    Map<String, String> relevantConfig = new TreeMap<>();
+    config
+        .asProperties()
+        .forEach(
+            (key, value) -> {
+              String name = String.valueOf(key);
+              if (PLAN_CONFIG_PREFIXES.stream().anyMatch(name::startsWith)) {
+                relevantConfig.put(name, String.valueOf(value));
+              }
+            });
+    return relevantConfig;
+  }
+
+  private static MessageDigest newDigest() throws IOException {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param metadata the metadata stored with the state by the last successful run
+   * @return true if the stored fingerprint and cluster epoch match this one
+   */
+  public boolean matches(Map<String, String> metadata) {
+    return fingerprint.equals(metadata.get(FINGERPRINT_KEY))
+        && epoch.equals(metadata.get(EPOCH_KEY));
+  }
+
+  /**
+   * The project fingerprints do not cover the configuration, so they can only be compared when the
+   * configuration and the cluster epoch did not change either.
+   *
+   * @param metadata the metadata stored with the state by the last successful run
+   * @return true if the stored configuration fingerprint and cluster epoch match this one
+   */
+  public boolean matchesConfig(Map<String, String> metadata) {
+    return configFingerprint.equals(metadata.get(CONFIG_FINGERPRINT_KEY))
+        && epoch.equals(metadata.get(EPOCH_KEY));
+  }
+
+  /**
+   * @param metadata the metadata stored with the state by the last successful run
+   * @return the name prefixes of the projects that are new or changed since the last successful run
+   */
+  public List<String> changedProjects(Map<String, String> metadata) {
+    List<String> changedProjects = new ArrayList<>();
+    projectFingerprints.forEach(
+        (project, projectFingerprint) -> {
+          if (!projectFingerprint.equals(metadata.get(PROJECT_FINGERPRINT_KEY_PREFIX + project))) {
+            changedProjects.add(project);
+          }
+        });
+    return changedProjects;
+  }
+
+  /**
+   * Replace the fingerprint stored in the metadata by this one, dropping the fingerprints of the
+   * projects removed since.
+   *
+   * @param metadata the metadata to store with the state
+   */
+  public void storeIn(Map<String, String> metadata) {
+    replace(metadata, asMetadata());
+  }
+
+  static void replace(Map<String, String> metadata, Map<String, String> fingerprint) {
+    metadata.keySet().removeIf(key -> key.startsWith(PROJECT_FINGERPRINT_KEY_PREFIX));
+    metadata.putAll(fingerprint);
+  }
+
+  public Map<String, String> asMetadata() {
+    Map<String, String> metadata = new TreeMap<>();
+    metadata.put(FINGERPRINT_KEY, fingerprint);
+    metadata.put(EPOCH_KEY, epoch);
+    metadata.put(CONFIG_FINGERPRINT_KEY, configFingerprint);
+    projectFingerprints.forEach(
+        (project, projectFingerprint) ->
+            metadata.put(PROJECT_FINGERPRINT_KEY_PREFIX + project, projectFingerprint));
+    return Collections.unmodifiableMap(metadata);
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+}
@@ -1,15 +1,24 @@
 package com.purbon.kafka.topology;
 
+import com.purbon.kafka.topology.exceptions.TopologyParsingException;
 import com.purbon.kafka.topology.model.PlanMap;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.serdes.PlanMapSerdes;
 import com.purbon.kafka.topology.serdes.TopologySerdes;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TopologyObjectBuilder {
 
@@ -27,8 +36,9 @@ public class TopologyObjectBuilder {
 
   public static Topology build(String fileOrDir, String plansFile, TopologyBuilderConfig config)
       throws IOException {
-    PlanMap plans = buildPlans(plansFile);
-    List<Topology> topologies = parseListOfTopologies(fileOrDir, config, plans);
+    TopologyParseCache cache = TopologyParseCache.build(config, plansFile);
+    PlanMap plans = buildPlans(plansFile, cache);
+    List<Topology> topologies = parseListOfTopologies(fileOrDir, config, plans, cache);
     Topology topology = topologies.get(0);
     if (topologies.size() > 1) {
       List<Topology> subTopologies = topologies.subList(1, topologies.size());
@@ -39,28 +49,111 @@ public class TopologyObjectBuilder {
         subTopology.getProjects().forEach(project -> topology.addProject(project));
       }
     }
+    if (cache != null) {
+      cache.prune();
+    }
     return topology;
   }
 
-  private static PlanMap buildPlans(String plansFile) throws IOException {
+  private static PlanMap buildPlans(String plansFile, TopologyParseCache cache) throws IOException {
     PlanMapSerdes plansSerdes = new PlanMapSerdes();
-    return plansFile.isEmpty() ? new PlanMap() : plansSerdes.deserialise(new File(plansFile));
+    if (plansFile.isEmpty()) {
+      return new PlanMap();
+    }
+    return cache == null
+        ? plansSerdes.deserialise(new File(plansFile))
+        : cache.plans(new File(plansFile), plansSerdes);
   }
 
   private static List<Topology> parseListOfTopologies(
-      String fileOrDir, TopologyBuilderConfig config, PlanMap plans) throws IOException {
-    TopologySerdes parser = new TopologySerdes(config, plans);
+      String fileOrDir, TopologyBuilderConfig config, PlanMap plans, TopologyParseCache cache)
+      throws IOException {
     List<Topology> topologies = new ArrayList<>();
     boolean isDir = Files.isDirectory(Paths.get(fileOrDir));
     if (isDir) {
-      Files.list(Paths.get(fileOrDir))
-          .sorted()
-          .map(path -> parser.deserialise(path.toFile()))
-          .forEach(subTopology -> topologies.add(subTopology));
+      List<Path> files;
+      try (Stream<Path> paths = Files.list(Paths.get(fileOrDir))) {
+        files = paths.sorted().collect(Collectors.toList());
+      }
+      topologies.addAll(parseFiles(files, config, plans, cache));
     } else {
-      Topology firstTopology = parser.deserialise(new File(fileOrDir));
+      TopologySerdes parser = new TopologySerdes(config, plans);
+      Topology firstTopology = deserialise(parser, new File(fileOrDir), config, cache);
       topologies.add(firstTopology);
     }
     return topologies;
   }
+
+  private static Topology deserialise(
+      TopologySerdes parser, File file, TopologyBuilderConfig config, TopologyParseCache cache)
+      throws IOException {
+    if (!config.isStreamingParseEnabled()) {
+      return cache == null ? parser.deserialise(file) : cache.topology(file, parser);
+    }
+    List<Project> projects = new ArrayList<>();
+    Topology topology = parser.deserialise(file, projects::add);
+    projects.forEach(topology::addProject);
+    return topology;
+  }
+
+  /**
+   * Parse the files of a topology directory concurrently, each worker thread with its own mapper.
+   * The topologies are returned in the order of the files, and the parsing errors of all the files
+   * are reported together.
+   */
+  private static List<Topology> parseFiles(
+      List<Path> files, TopologyBuilderConfig config, PlanMap plans, TopologyParseCache cache)
+      throws IOException {
+    ThreadLocal<TopologySerdes> parsers =
+        ThreadLocal.withInitial(() -> new TopologySerdes(config, plans));
+    int parallelism = Math.min(config.getParseParallelism(), files.size());
+    List<Topology> topologies = new ArrayList<>();
+    List<RuntimeException> errors = new ArrayList<>();
+    if (parallelism <= 1) {
+      for (Path file : files) {
+        try {
+          topologies.add(deserialise(parsers.get(), file.toFile(), config, cache));
+        } catch (RuntimeException e) {
+          errors.add(e);
+        }
+      }
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+      try {
+        List<Future<Topology>> results = new ArrayList<>();
+        for (Path file : files) {
+          results.add(
+              executor.submit(() -> deserialise(parsers.get(), file.toFile(), config, cache)));
+        }
+        for (Future<Topology> result : results) {
+          try {
+            topologies.add(result.get());
+          } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+              errors.add((RuntimeException) e.getCause());
+            } else {
+              errors.add(new TopologyParsingException(e.getCause().getMessage(), e.getCause()));
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    if (errors.size() == 1) {
+      throw errors.get(0);
+    } else if (!errors.isEmpty()) {
+      String message = errors.stream().map(Throwable::getMessage).collect(Collectors.joining("\n"));
+      TopologyParsingException exception =
+          new TopologyParsingException(
+              String.format("Failed to parse %s topology files:%n%s", errors.size(), message),
+              errors.get(0));
+      errors.subList(1, errors.size()).forEach(exception::addSuppressed);
+      throw exception;
+    }
+    return topologies;
+  }
 }
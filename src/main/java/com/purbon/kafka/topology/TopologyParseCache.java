@@ -0,0 +1,279 @@
+package com.purbon.kafka.topology;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.purbon.kafka.topology.exceptions.TopologyParsingException;
+import com.purbon.kafka.topology.model.PlanMap;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.serdes.PlanMapSerdes;
+import com.purbon.kafka.topology.serdes.TopologySerdes;
+import com.purbon.kafka.topology.utils.HashUtils;
+import com.purbon.kafka.topology.utils.JSON;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * On disk cache of the parsed topology and plans files. Each file is stored as its document tree,
+ * in a compact binary encoding that is read much faster than YAML, under a key made of the hash of
+ * the file content and the hash of the builder configuration. A change in either, like a new topic
+ * naming format, leads to a new key, so stale entries are never read.
+ *
+ * <p>The model objects are still built from the tree by the deserializers, as they depend on the
+ * configuration. An entry is touched each time it is read, and the entries not read for longer than
+ * topology.builder.parse.cache.max.age are removed by {@link #prune()}.
+ */
+public class TopologyParseCache {
+
+  private static final Logger LOGGER = LogManager.getLogger(TopologyParseCache.class);
+
+  private static final int MAGIC = 0x4b544243; // KTBC
+  private static final int VERSION = 1;
+
+  private static final byte NULL = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte DECIMAL = 5;
+  private static final byte STRING = 6;
+  private static final byte ARRAY = 7;
+  private static final byte OBJECT = 8;
+  private static final byte BIG_INTEGER = 9;
+
+  private static final String ENTRY_SUFFIX = ".bin";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private final Path dir;
+  private final String configHash;
+  private final String plansHash;
+  private final Duration maxAge;
+
+  /**
+   * @param dir The directory of the cache entries, created if missing
+   * @param config The builder configuration the files are parsed with
+   * @param plansFile The plans file the topics are built with, empty if none
+   * @throws IOException if the directory can not be created or the plans file read
+   */
+  public TopologyParseCache(Path dir, TopologyBuilderConfig config, String plansFile)
+      throws IOException {
+    this.dir = Files.createDirectories(dir);
+    this.configHash =
+        HashUtils.sha256Hex(JSON.asString(TopologyFingerprint.relevantConfig(config)));
+    // plans are merged into the topics while parsing, so they are part of the topology entries
+    this.plansHash =
+        plansFile.isEmpty() ? "" : HashUtils.sha256Hex(Files.readAllBytes(Paths.get(plansFile)));
+    this.maxAge = config.getParseCacheMaxAge();
+  }
+
+  /** @return the cache configured with topology.builder.parse.cache.dir, null if it is disabled */
+  static TopologyParseCache build(TopologyBuilderConfig config, String plansFile)
+      throws IOException {
+    Optional<String> dir = config.getParseCacheDir();
+    return dir.isPresent() ? new TopologyParseCache(Paths.get(dir.get()), config, plansFile) : null;
+  }
+
+  /**
+   * @param file A topology file
+   * @param serdes The serdes the topology is parsed with
+   * @return the parsed topology
+   */
+  public Topology topology(File file, TopologySerdes serdes) throws IOException {
+    JsonNode tree = tree(file, plansHash, serdes::readTree);
+    try {
+      return serdes.deserialise(tree);
+    } catch (TopologyParsingException e) {
+      throw new TopologyParsingException(
+          "Failed to deserialize topology from " + file.getPath(), e.getCause());
+    }
+  }
+
+  public PlanMap plans(File file, PlanMapSerdes serdes) throws IOException {
+    return serdes.deserialise(tree(file, "", serdes::readTree));
+  }
+
+  @FunctionalInterface
+  private interface TreeReader {
+    JsonNode read(byte[] content) throws IOException;
+  }
+
+  private JsonNode tree(File file, String dependencyHash, TreeReader reader) throws IOException {
+    byte[] content = Files.readAllBytes(file.toPath());
+    String key =
+        HashUtils.sha256Hex(configHash + ":" + dependencyHash + ":" + HashUtils.sha256Hex(content));
+    Path entry = dir.resolve(key + ENTRY_SUFFIX);
+    if (Files.exists(entry)) {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+        if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+          LOGGER.debug(String.format("Using the cached parse of %s", file.getPath()));
+          JsonNode tree = decode(in);
+          touch(entry);
+          return tree;
+        }
+      } catch (IOException e) {
+        LOGGER.warn(String.format("Ignoring the unreadable cache entry %s: %s", entry, e));
+      }
+    }
+    JsonNode tree = reader.read(content);
+    write(entry, tree);
+    return tree;
+  }
+
+  private void write(Path entry, JsonNode tree) {
+    try {
+      Path tmp = Files.createTempFile(dir, entry.getFileName().toString(), TMP_SUFFIX);
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        encode(tree, out);
+      }
+      Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // the cache is an optimisation, a run never fails because of it
+      LOGGER.warn(String.format("The cache entry %s could not be written: %s", entry, e));
+    }
+  }
+
+  /** Keep the entries read by the runs, the age of an entry is the time since it was last used. */
+  private static void touch(Path entry) {
+    try {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      LOGGER.debug(String.format("The cache entry %s could not be touched: %s", entry, e));
+    }
+  }
+
+  /**
+   * Remove the entries, and the leftovers of interrupted writes, that were not used for longer than
+   * the maximum age. Entries of changed files, or of an older configuration, are never read again.
+   */
+  public void prune() {
+    long oldest = System.currentTimeMillis() - maxAge.toMillis();
+    try (DirectoryStream<Path> entries =
+        Files.newDirectoryStream(dir, "*{" + ENTRY_SUFFIX + "," + TMP_SUFFIX + "}")) {
+      for (Path entry : entries) {
+        try {
+          if (Files.getLastModifiedTime(entry).toMillis() < oldest) {
+            Files.deleteIfExists(entry);
+            LOGGER.debug(String.format("Removed the unused cache entry %s", entry));
+          }
+        } catch (IOException e) {
+          LOGGER.warn(String.format("The cache entry %s could not be removed: %s", entry, e));
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn(String.format("The cache directory %s could not be pruned: %s", dir, e));
+    }
+  }
+
+  static void encode(JsonNode node, DataOutputStream out) throws IOException {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      out.writeByte(NULL);
+    } else if (node.isBoolean()) {
+      out.writeByte(node.booleanValue() ? TRUE : FALSE);
+    } else if (node.isIntegralNumber() && node.canConvertToLong()) {
+      out.writeByte(LONG);
+      out.writeLong(node.longValue());
+    } else if (node.isDouble() || node.isFloat()) {
+      out.writeByte(DOUBLE);
+      out.writeDouble(node.doubleValue());
+    } else if (node.isBigInteger()) {
+      out.writeByte(BIG_INTEGER);
+      writeString(node.bigIntegerValue().toString(), out);
+    } else if (node.isNumber()) {
+      out.writeByte(DECIMAL);
+      writeString(node.decimalValue().toString(), out);
+    } else if (node.isArray()) {
+      out.writeByte(ARRAY);
+      out.writeInt(node.size());
+      for (JsonNode element : node) {
+        encode(element, out);
+      }
+    } else if (node.isObject()) {
+      out.writeByte(OBJECT);
+      out.writeInt(node.size());
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        writeString(field.getKey(), out);
+        encode(field.getValue(), out);
+      }
+    } else {
+      out.writeByte(STRING);
+      writeString(node.asText(), out);
+    }
+  }
+
+  static JsonNode decode(DataInputStream in) throws IOException {
+    JsonNodeFactory factory = JsonNodeFactory.instance;
+    byte type = in.readByte();
+    switch (type) {
+      case NULL:
+        return factory.nullNode();
+      case TRUE:
+        return factory.booleanNode(true);
+      case FALSE:
+        return factory.booleanNode(false);
+      case LONG:
+        long value = in.readLong();
+        return value == (int) value ? factory.numberNode((int) value) : factory.numberNode(value);
+      case DOUBLE:
+        return factory.numberNode(in.readDouble());
+      case DECIMAL:
+        return factory.numberNode(new BigDecimal(readString(in)));
+      case BIG_INTEGER:
+        return factory.numberNode(new BigInteger(readString(in)));
+      case STRING:
+        return factory.textNode(readString(in));
+      case ARRAY:
+        ArrayNode array = factory.arrayNode();
+        for (int i = in.readInt(); i > 0; i--) {
+          array.add(decode(in));
+        }
+        return array;
+      case OBJECT:
+        ObjectNode object = factory.objectNode();
+        for (int i = in.readInt(); i > 0; i--) {
+          String name = readString(in);
+          object.set(name, decode(in));
+        }
+        return object;
+      default:
+        throw new IOException("Unknown node type " + type);
+    }
+  }
+
+  private static void writeString(String value, DataOutputStream out) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,313 @@
+package com.purbon.kafka.topology;
+
+import com.purbon.kafka.topology.exceptions.ConfigurationException;
+import com.purbon.kafka.topology.exceptions.TopologyParsingException;
+import com.purbon.kafka.topology.exceptions.ValidationException;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.utils.JSON;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Serves the topology over HTTP, so the plan of the topology files can be computed, and applied,
+ * without starting a new process for each request:
+ *
+ * <ul>
+ *   <li>POST /plan prints the execution plan, as a dry run would
+ *   <li>POST /apply applies the topology, and returns the result of the run
+ *   <li>GET /status returns the run in progress, if any, and the result of the last run
+ *   <li>GET /state returns the topics, bindings and service accounts stored with the state
+ * </ul>
+ *
+ * <p>All the requests share a single {@link KafkaTopologyBuilder}, so the clients and the caches of
+ * the managers stay warm between them. The builder runs one plan or apply at a time, a plan or
+ * apply requested while another one runs is refused with 409, and can be sent again once it is
+ * over. The state is served from memory, as loaded by the first request or applied by the last run.
+ */
+public class TopologyServer implements AutoCloseable {
+
+  private static final Logger LOGGER = LogManager.getLogger(TopologyServer.class);
+
+  // the runs are exclusive, more threads only serve the status and the state
+  private static final int REQUEST_THREADS = 4;
+
+  private final String topologyFileOrDir;
+  private final String plansFile;
+  private final TopologyBuilderConfig config;
+  private final KafkaTopologyBuilder builder;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ReentrantLock runLock;
+  private final CountDownLatch stopped;
+  private volatile String running;
+  private volatile Map<String, Object> lastRun;
+  // the state served by GET /state, null until loaded
+  private volatile Map<String, Object> state;
+  private volatile boolean closed;
+
+  TopologyServer(
+      String topologyFileOrDir,
+      String plansFile,
+      TopologyBuilderConfig config,
+      KafkaTopologyBuilder builder,
+      InetSocketAddress address)
+      throws IOException {
+    this.topologyFileOrDir = topologyFileOrDir;
+    this.plansFile = plansFile;
+    this.config = config;
+    this.builder = builder;
+    this.runLock = new ReentrantLock();
+    this.stopped = new CountDownLatch(1);
+    this.running = null;
+    this.lastRun = Collections.emptyMap();
+    this.state = null;
+    this.closed = false;
+    this.executor = Executors.newFixedThreadPool(REQUEST_THREADS);
+    this.server = HttpServer.create(address, 0);
+    server.setExecutor(executor);
+    server.createContext(
+        "/plan", exchange -> handle(exchange, "POST", () -> exclusive(this::plan)));
+    server.createContext(
+        "/apply", exchange -> handle(exchange, "POST", () -> exclusive(this::apply)));
+    server.createContext("/status", exchange -> handle(exchange, "GET", this::status));
+    server.createContext("/state", exchange -> handle(exchange, "GET", this::state));
+  }
+
+  public static TopologyServer build(
+      String topologyFileOrDir, String plansFile, Map<String, String> config) throws Exception {
+    TopologyBuilderConfig builderConfig = TopologyBuilderConfig.build(config);
+    if (builderConfig.getPlanInFile().isPresent() || builderConfig.getPlanOutFile().isPresent()) {
+      throw new ConfigurationException("The server can not write nor apply execution plans");
+    }
+    KafkaTopologyBuilder.enableInstrumentation(builderConfig);
+    Topology topology =
+        KafkaTopologyBuilder.buildTopology(topologyFileOrDir, plansFile, builderConfig);
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(topology, topologyFileOrDir, builderConfig, config);
+    InetSocketAddress address =
+        new InetSocketAddress(builderConfig.getServerHost(), builderConfig.getServerPort());
+    return new TopologyServer(topologyFileOrDir, plansFile, builderConfig, builder, address);
+  }
+
+  public void start() {
+    server.start();
+    LOGGER.info(String.format("Serving %s on %s", topologyFileOrDir, server.getAddress()));
+  }
+
+  /** Serve the requests until the server is closed. */
+  public void run() throws InterruptedException {
+    start();
+    stopped.await();
+  }
+
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  private Response plan() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8.name())) {
+      run("plan", true, out);
+    }
+    String contentType =
+        config.getDryRunFormat().equals(NdjsonPlanWriter.FORMAT)
+            ? "application/x-ndjson"
+            : "text/plain; charset=utf-8";
+    return new Response(200, contentType, output.toByteArray());
+  }
+
+  private Response apply() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    Map<String, Object> result;
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8.name())) {
+      result = new LinkedHashMap<>(run("apply", false, out));
+    }
+    String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+    if (!text.isEmpty()) {
+      result.put("output", text);
+    }
+    return Response.json(200, result);
+  }
+
+  private Response status() throws IOException {
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("running", running);
+    status.put("lastRun", lastRun);
+    return Response.json(200, status);
+  }
+
+  private Response state() throws IOException {
+    Map<String, Object> current = state;
+    if (current == null) {
+      runLock.lock();
+      try {
+        if (state == null) {
+          state = stateOf(builder.loadState());
+        }
+        current = state;
+      } finally {
+        runLock.unlock();
+      }
+    }
+    return Response.json(200, current);
+  }
+
+  private static Map<String, Object> stateOf(BackendController state) {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("topics", state.getTopics().stream().sorted().collect(Collectors.toList()));
+    map.put(
+        "bindings",
+        state.getBindings().stream()
+            .map(TopologyAclBinding::toString)
+            .sorted()
+            .collect(Collectors.toList()));
+    map.put(
+        "serviceAccounts",
+        state.getServiceAccounts().stream()
+            .map(ServiceAccount::getName)
+            .sorted()
+            .collect(Collectors.toList()));
+    return Collections.unmodifiableMap(map);
+  }
+
+  /** Run a plan or apply, unless another one is running or the server is closed. */
+  private Response exclusive(Handler handler) throws Exception {
+    if (!runLock.tryLock()) {
+      return Response.error(409, "Another plan or apply is running, try again once it is over");
+    }
+    try {
+      if (closed) {
+        return Response.error(503, "The server is shutting down");
+      }
+      return handler.handle();
+    } finally {
+      runLock.unlock();
+    }
+  }
+
+  /**
+   * Parse the topology files again, and run them with the shared builder. The caller holds the run
+   * lock.
+   */
+  private Map<String, Object> run(String operation, boolean dryRun, PrintStream out)
+      throws Exception {
+    long start = System.currentTimeMillis();
+    Map<String, Object> run = new LinkedHashMap<>();
+    run.put("operation", operation);
+    run.put("startedAt", Instant.ofEpochMilli(start).toString());
+    running = operation;
+    try {
+      KafkaTopologyBuilder.resetInstrumentation(config);
+      Topology topology = KafkaTopologyBuilder.buildTopology(topologyFileOrDir, plansFile, config);
+      builder.run(topology, dryRun, out);
+      if (!dryRun) {
+        // kept in memory by the builder, it is not read from the backend again
+        state = stateOf(builder.loadState());
+      }
+      run.put("result", "succeeded");
+      run.put("changedProjects", builder.getChangedProjects());
+      return run;
+    } catch (Exception e) {
+      if (!dryRun) {
+        state = null;
+      }
+      run.put("result", "failed");
+      run.put("error", String.valueOf(e.getMessage()));
+      throw e;
+    } finally {
+      run.put("durationMs", System.currentTimeMillis() - start);
+      lastRun = Collections.unmodifiableMap(run);
+      running = null;
+    }
+  }
+
+  private interface Handler {
+    Response handle() throws Exception;
+  }
+
+  private static void handle(HttpExchange exchange, String method, Handler handler)
+      throws IOException {
+    Response response;
+    if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+      exchange.getResponseHeaders().set("Allow", method);
+      response = Response.error(405, "Method not allowed, use " + method);
+    } else {
+      try {
+        response = handler.handle();
+      } catch (ValidationException | TopologyParsingException e) {
+        LOGGER.info("The topology is not valid", e);
+        response = Response.error(400, e.getMessage());
+      } catch (Exception e) {
+        LOGGER.error(String.format("The request %s failed", exchange.getRequestURI()), e);
+        response = Response.error(500, e.getMessage());
+      }
+    }
+    exchange.getResponseHeaders().set("Content-Type", response.contentType);
+    exchange.sendResponseHeaders(response.status, response.body.length);
+    try (OutputStream body = exchange.getResponseBody()) {
+      body.write(response.body);
+    }
+  }
+
+  private static class Response {
+
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    private Response(int status, String contentType, byte[] body) {
+      this.status = status;
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    private static Response json(int status, Map<String, Object> map) throws IOException {
+      return new Response(
+          status, "application/json", JSON.asString(map).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Response error(int status, String message) throws IOException {
+      Map<String, Object> map = new HashMap<>();
+      map.put("error", String.valueOf(message));
+      return json(status, map);
+    }
+  }
+
+  /** Stop serving, and release the builder once the run in progress, if any, is over. */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    server.stop(0);
+    executor.shutdown();
+    runLock.lock();
+    try {
+      builder.close();
+    } finally {
+      runLock.unlock();
+    }
+    stopped.countDown();
+  }
+}
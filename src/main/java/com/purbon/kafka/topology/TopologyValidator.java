@@ -4,105 +4,168 @@ import com.purbon.kafka.topology.exceptions.ValidationException;
 import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
 import com.purbon.kafka.topology.model.Topology;
-import com.purbon.kafka.topology.utils.Either;
 import com.purbon.kafka.topology.validation.TopicValidation;
 import com.purbon.kafka.topology.validation.TopologyValidation;
 import com.purbon.kafka.topology.validation.Validation;
+import com.purbon.kafka.topology.validation.ValidationResult;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Runs the configured validations against a topology.
+ *
+ * <p>The validations are resolved once, when the validator is built. A configured name is looked up
+ * first among the validations registered in
+ * META-INF/services/com.purbon.kafka.topology.validation.Validation, matching either their fully
+ * qualified class name or their name relative to the com.purbon.kafka.topology.validation package,
+ * and is otherwise loaded as a class from the classpath.
+ *
+ * <p>Topic validations of large topologies run in parallel, so {@link TopicValidation}
+ * implementations must be thread safe. Results are reported in a stable order: topology validations
+ * first, then each topic in order, with the validations in their configured order.
+ */
 public class TopologyValidator {
 
   private static final Logger LOGGER = LogManager.getLogger(TopologyValidator.class);
 
-  private final TopologyBuilderConfig config;
-  private final String classPrefix;
+  static final String CLASS_PREFIX = "com.purbon.kafka.topology.validation.";
+
+  /** Number of topics from which topic validations run in parallel. */
+  static final int PARALLEL_THRESHOLD = 1024;
+
+  private final List<TopologyValidation> topologyValidations;
+  private final List<TopicValidation> topicValidations;
 
   public TopologyValidator(TopologyBuilderConfig config) {
-    this.config = config;
-    this.classPrefix = "com.purbon.kafka.topology.validation.";
+    this.topologyValidations = new ArrayList<>();
+    this.topicValidations = new ArrayList<>();
+    Map<String, Validation> providers = providers();
+    for (String validationClass : config.getTopologyValidations()) {
+      try {
+        Validation validation = resolve(validationClass, providers);
+        if (validation instanceof TopologyValidation) {
+          topologyValidations.add((TopologyValidation) validation);
+        }
+        if (validation instanceof TopicValidation) {
+          topicValidations.add((TopicValidation) validation);
+        }
+      } catch (Exception ex) {
+        LOGGER.debug(ex);
+      }
+    }
   }
 
   public List<String> validate(Topology topology) {
+    return results(topology).stream()
+        .map(ValidationResult::getMessage)
+        .collect(Collectors.toList());
+  }
 
-    Stream<Either<Boolean, ValidationException>> streamOfTopologyResults =
-        validations().stream()
-            .filter(p -> p instanceof TopologyValidation)
-            .map(validation -> (TopologyValidation) validation)
-            .map(
-                validation -> {
-                  try {
-                    validation.valid(topology);
-                    return Either.Left(true);
-                  } catch (ValidationException validationError) {
-                    return Either.Right(validationError);
-                  }
-                });
+  /**
+   * Run the validations against a topology.
+   *
+   * @param topology the topology to validate
+   * @return the failed validations, an empty list if the topology is valid
+   */
+  public List<ValidationResult> results(Topology topology) {
+    List<ValidationResult> results = new ArrayList<>();
+    for (TopologyValidation validation : topologyValidations) {
+      try {
+        validation.valid(topology);
+      } catch (ValidationException ex) {
+        results.add(new ValidationResult(validation.getClass().getName(), ex.getMessage()));
+      }
+    }
 
-    List<TopicValidation> listOfTopicValidations =
-        validations().stream()
-            .filter(p -> p instanceof TopicValidation)
-            .map(validation -> (TopicValidation) validation)
-            .collect(Collectors.toList());
+    if (topicValidations.isEmpty()) {
+      return results;
+    }
 
-    Stream<Topic> streamOfTopics =
-        topology.getProjects().stream()
-            .flatMap((Function<Project, Stream<Topic>>) project -> project.getTopics().stream());
+    List<Project> projects = new ArrayList<>();
+    List<Topic> topics = new ArrayList<>();
+    for (Project project : topology.getProjects()) {
+      for (Topic topic : project.getTopics()) {
+        projects.add(project);
+        topics.add(topic);
+      }
+    }
 
-    Stream<Either<Boolean, ValidationException>> streamOfTopicResults =
-        streamOfTopics.flatMap(
-            (Function<Topic, Stream<Either<Boolean, ValidationException>>>)
-                topic ->
-                    listOfTopicValidations.stream()
-                        .map(
-                            validation -> {
-                              try {
-                                validation.valid(topic);
-                                return Either.Left(true);
-                              } catch (ValidationException ex) {
-                                return Either.Right(ex);
-                              }
-                            }));
+    IntStream indexes = IntStream.range(0, topics.size());
+    if (topics.size() >= PARALLEL_THRESHOLD) {
+      indexes = indexes.parallel();
+    }
+    indexes
+        .mapToObj(i -> validate(projects.get(i), topics.get(i)))
+        .flatMap(List::stream)
+        .forEachOrdered(results::add);
+    return results;
+  }
 
-    return Stream.concat(streamOfTopologyResults, streamOfTopicResults)
-        .filter(Either::isRight)
-        .map(either -> either.getRight().get().getMessage())
-        .collect(Collectors.toList());
+  private List<ValidationResult> validate(Project project, Topic topic) {
+    List<ValidationResult> results = Collections.emptyList();
+    for (TopicValidation validation : topicValidations) {
+      try {
+        validation.valid(topic);
+      } catch (ValidationException ex) {
+        if (results.isEmpty()) {
+          results = new ArrayList<>();
+        }
+        results.add(
+            new ValidationResult(
+                validation.getClass().getName(),
+                ex.getMessage(),
+                project.getName(),
+                topic.toString()));
+      }
+    }
+    return results;
   }
 
-  class VoidValidation implements TopologyValidation {
-    @Override
-    public void valid(Topology topology) {}
+  private static Map<String, Validation> providers() {
+    Map<String, Validation> providers = new HashMap<>();
+    try {
+      for (Validation validation : ServiceLoader.load(Validation.class)) {
+        providers.put(validation.getClass().getName(), validation);
+      }
+    } catch (ServiceConfigurationError error) {
+      LOGGER.warn("Failed to load the registered validations", error);
+    }
+    return providers;
   }
 
-  private List<Validation> validations() {
-    return config.getTopologyValidations().stream()
-        .map(
-            validationClass -> {
-              try {
-                String fullValidationClass = classPrefix + validationClass;
-                Class<?> clazz = Class.forName(fullValidationClass);
-                Constructor<?> constructor = clazz.getConstructor();
-                Object instance = constructor.newInstance();
-                if (instance instanceof TopologyValidation) {
-                  return (TopologyValidation) instance;
-                } else if (instance instanceof TopicValidation) {
-                  return (TopicValidation) instance;
-                } else {
-                  throw new IOException("invalid validation type " + fullValidationClass);
-                }
-              } catch (Exception ex) {
-                LOGGER.debug(ex);
-                return new VoidValidation();
-              }
-            })
-        .filter(validation -> !(validation instanceof VoidValidation))
-        .collect(Collectors.toList());
+  private static Validation resolve(String validationClass, Map<String, Validation> providers)
+      throws Exception {
+    List<String> names = new ArrayList<>();
+    names.add(CLASS_PREFIX + validationClass);
+    names.add(validationClass);
+    for (String name : names) {
+      if (providers.containsKey(name)) {
+        return providers.get(name);
+      }
+    }
+    for (String name : names) {
+      Class<?> clazz;
+      try {
+        clazz = Class.forName(name);
+      } catch (ClassNotFoundException ex) {
+        continue;
+      }
+      Object instance = clazz.getConstructor().newInstance();
+      if (instance instanceof TopologyValidation || instance instanceof TopicValidation) {
+        return (Validation) instance;
+      }
+      throw new IOException("invalid validation type " + name);
+    }
+    throw new ClassNotFoundException(CLASS_PREFIX + validationClass);
   }
 }
@@ -12,4 +12,12 @@ public interface Action {
   default List<TopologyAclBinding> getBindings() {
     return Collections.emptyList();
   }
+
+  /**
+   * @return an id that identifies the action across runs, used to journal its execution
+   * @throws IOException if the id can not be built
+   */
+  default String getId() throws IOException {
+    return getClass().getName() + ":" + toString();
+  }
 }
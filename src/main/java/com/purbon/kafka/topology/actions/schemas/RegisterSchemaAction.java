@@ -0,0 +1,112 @@
+package com.purbon.kafka.topology.actions.schemas;
+
+import com.purbon.kafka.topology.actions.BaseAction;
+import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Registers the schema of a subject, then sets its compatibility. A failed registration leaves the
+ * compatibility of the subject untouched.
+ */
+public class RegisterSchemaAction extends BaseAction {
+
+  private static final Logger LOGGER = LogManager.getLogger(RegisterSchemaAction.class);
+
+  private final SchemaRegistryManager schemaRegistryManager;
+  private final String topic;
+  private final String subject;
+  private final String schemaFile;
+  private final String format;
+  private final Optional<String> compatibility;
+
+  public RegisterSchemaAction(
+      SchemaRegistryManager schemaRegistryManager,
+      String topic,
+      String subject,
+      String schemaFile,
+      String format,
+      Optional<String> compatibility) {
+    this.schemaRegistryManager = schemaRegistryManager;
+    this.topic = topic;
+    this.subject = subject;
+    this.schemaFile = schemaFile;
+    this.format = format;
+    this.compatibility = compatibility;
+  }
+
+  /** @return the full name of the topic the subject belongs to */
+  public String getTopic() {
+    return topic;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getSchemaFile() {
+    return schemaFile;
+  }
+
+  public String getFormat() {
+    return format;
+  }
+
+  public Optional<String> getCompatibility() {
+    return compatibility;
+  }
+
+  /**
+   * The id includes the hash of the schema content, so a resumed run registers a schema file edited
+   * since the failed run. An unreadable schema file gets an empty hash, and fails the registration
+   * itself.
+   */
+  @Override
+  public String getId() {
+    String contentHash;
+    try {
+      contentHash = schemaRegistryManager.schemaContentHash(schemaFile);
+    } catch (IOException e) {
+      contentHash = "";
+    }
+    return String.join(
+        ":",
+        getClass().getName(),
+        subject,
+        schemaFile,
+        contentHash,
+        format,
+        compatibility.orElse(""));
+  }
+
+  /**
+   * Check the schema against the latest version of the subject, without registering it.
+   *
+   * @see SchemaRegistryManager#checkCompatibility(String, String, String)
+   */
+  public void checkCompatibility() {
+    schemaRegistryManager.checkCompatibility(subject, schemaFile, format);
+  }
+
+  @Override
+  public void run() {
+    LOGGER.debug(String.format("Register the schema of subject %s", subject));
+    schemaRegistryManager.register(subject, schemaFile, format);
+    compatibility.ifPresent(level -> schemaRegistryManager.setCompatibility(subject, level));
+  }
+
+  @Override
+  protected Map<String, Object> props() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("Operation", getClass().getName());
+    map.put("Topic", topic);
+    map.put("Subject", subject);
+    map.put("Schema", schemaFile);
+    compatibility.ifPresent(level -> map.put("Compatibility", level));
+    return map;
+  }
+}
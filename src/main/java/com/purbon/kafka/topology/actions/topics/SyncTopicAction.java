@@ -3,17 +3,18 @@ package com.purbon.kafka.topology.actions.topics;
 import com.purbon.kafka.topology.actions.BaseAction;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
 import com.purbon.kafka.topology.model.Topic;
-import com.purbon.kafka.topology.model.TopicSchemas;
-import com.purbon.kafka.topology.model.schema.Subject;
-import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Creates a topic, or updates its partition count and config. The schemas of the topic are
+ * registered by their own {@link com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction}.
+ */
 public class SyncTopicAction extends BaseAction {
 
   private static final Logger LOGGER = LogManager.getLogger(SyncTopicAction.class);
@@ -22,11 +23,9 @@ public class SyncTopicAction extends BaseAction {
   private final String fullTopicName;
   private final Set<String> listOfTopics;
   private final TopologyBuilderAdminClient adminClient;
-  private final SchemaRegistryManager schemaRegistryManager;
 
   public SyncTopicAction(
       TopologyBuilderAdminClient adminClient,
-      SchemaRegistryManager schemaRegistryManager,
       Topic topic,
       String fullTopicName,
       Set<String> listOfTopics) {
@@ -34,13 +33,27 @@ public class SyncTopicAction extends BaseAction {
     this.fullTopicName = fullTopicName;
     this.listOfTopics = listOfTopics;
     this.adminClient = adminClient;
-    this.schemaRegistryManager = schemaRegistryManager;
   }
 
   public String getTopic() {
     return fullTopicName;
   }
 
+  public Topic getTopicDescriptor() {
+    return topic;
+  }
+
+  /** @return true if the topic already exists, so it is updated instead of created */
+  public boolean isUpdate() {
+    return existTopic(fullTopicName, listOfTopics);
+  }
+
+  /** The topic name and its config, as the action is a create or an update. */
+  @Override
+  public String getId() {
+    return getClass().getName() + ":" + fullTopicName + ":" + new TreeMap<>(topic.getConfig());
+  }
+
   @Override
   public void run() throws IOException {
     syncTopic(topic, fullTopicName, listOfTopics);
@@ -59,28 +72,6 @@ public class SyncTopicAction extends BaseAction {
       LOGGER.debug(String.format("Create new topic with name %s", fullTopicName));
       adminClient.createTopic(topic, fullTopicName);
     }
-
-    for (TopicSchemas schema : topic.getSchemas()) {
-      Subject keySubject = schema.getKeySubject();
-      Subject valueSubject = schema.getValueSubject();
-      if (keySubject.hasSchemaFile()) {
-        String keySchemaFile = keySubject.getSchemaFile();
-        String subjectName = keySubject.buildSubjectName(topic);
-        schemaRegistryManager.register(subjectName, keySchemaFile, keySubject.getFormat());
-        setCompatibility(subjectName, keySubject.getOptionalCompatibility());
-      }
-      if (valueSubject.hasSchemaFile()) {
-        String valueSchemaFile = valueSubject.getSchemaFile();
-        String subjectName = valueSubject.buildSubjectName(topic);
-        schemaRegistryManager.register(subjectName, valueSchemaFile, valueSubject.getFormat());
-        setCompatibility(subjectName, valueSubject.getOptionalCompatibility());
-      }
-    }
-  }
-
-  private void setCompatibility(String subjectName, Optional<String> compatibilityOptional) {
-    compatibilityOptional.ifPresent(
-        compatibility -> schemaRegistryManager.setCompatibility(subjectName, compatibility));
   }
 
   private boolean existTopic(String topic, Set<String> listOfTopics) {
@@ -1,7 +1,9 @@
 package com.purbon.kafka.topology.api.adminclient;
 
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.model.Topic;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -45,9 +47,10 @@ public class TopologyBuilderAdminClient {
 
   public Set<String> listTopics(ListTopicsOptions options) throws IOException {
     Set<String> listOfTopics;
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "listTopics")) {
       listOfTopics = adminClient.listTopics(options).names().get();
     } catch (InterruptedException | ExecutionException e) {
+      Metrics.callError("admin", "listTopics");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -74,20 +77,22 @@ public class TopologyBuilderAdminClient {
   }
 
   public void updateTopicConfig(Topic topic, String fullTopicName) throws IOException {
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "updateTopicConfig")) {
       updateTopicConfigPostAK23(topic, fullTopicName);
     } catch (InterruptedException | ExecutionException ex) {
+      Metrics.callError("admin", "updateTopicConfig");
       LOGGER.error(ex);
       throw new IOException(ex);
     }
   }
 
   public int getPartitionCount(String topic) throws IOException {
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "getPartitionCount")) {
       Map<String, TopicDescription> results =
           adminClient.describeTopics(Collections.singletonList(topic)).all().get();
       return results.get(topic).partitions().size();
     } catch (InterruptedException | ExecutionException e) {
+      Metrics.callError("admin", "getPartitionCount");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -96,9 +101,10 @@ public class TopologyBuilderAdminClient {
   public void updatePartitionCount(Topic topic, String topicName) throws IOException {
     Map<String, NewPartitions> map = new HashMap<>();
     map.put(topicName, NewPartitions.increaseTo(topic.partitionsCount()));
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "updatePartitionCount")) {
       adminClient.createPartitions(map).all().get();
     } catch (InterruptedException | ExecutionException e) {
+      Metrics.callError("admin", "updatePartitionCount");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -133,9 +139,10 @@ public class TopologyBuilderAdminClient {
   }
 
   private void clearAcls(Collection<AclBindingFilter> filters) throws IOException {
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "deleteAcls")) {
       adminClient.deleteAcls(filters).all().get();
     } catch (ExecutionException | InterruptedException e) {
+      Metrics.callError("admin", "deleteAcls");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -187,11 +194,12 @@ public class TopologyBuilderAdminClient {
         new NewTopic(fullTopicName, topic.partitionsCount(), topic.replicationFactor())
             .configs(topic.getRawConfig());
     Collection<NewTopic> newTopics = Collections.singleton(newTopic);
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "createTopic")) {
       createAllTopics(newTopics);
     } catch (TopicExistsException ex) {
       LOGGER.info(ex);
     } catch (ExecutionException | InterruptedException e) {
+      Metrics.callError("admin", "createTopic");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -203,9 +211,10 @@ public class TopologyBuilderAdminClient {
   }
 
   public void deleteTopics(Collection<String> topics) throws IOException {
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "deleteTopics")) {
       adminClient.deleteTopics(topics).all().get();
     } catch (ExecutionException | InterruptedException e) {
+      Metrics.callError("admin", "deleteTopics");
       LOGGER.error(e);
       throw new IOException(e);
     }
@@ -214,7 +223,7 @@ public class TopologyBuilderAdminClient {
   public Map<String, Collection<AclBinding>> fetchAclsList() {
     Map<String, Collection<AclBinding>> acls = new HashMap<>();
 
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "fetchAclsList")) {
       Collection<AclBinding> list = adminClient.describeAcls(AclBindingFilter.ANY).values().get();
       list.forEach(
           aclBinding -> {
@@ -227,18 +236,21 @@ public class TopologyBuilderAdminClient {
             acls.put(name, updatedList);
           });
     } catch (Exception e) {
+      Metrics.callError("admin", "fetchAclsList");
       return new HashMap<>();
     }
     return acls;
   }
 
   public void createAcls(Collection<AclBinding> acls) throws IOException {
-    try {
+    try (Timings.Timer timer = Timings.call("admin", "createAcls")) {
       adminClient.createAcls(acls).all().get();
     } catch (InvalidConfigurationException ex) {
+      Metrics.callError("admin", "createAcls");
       LOGGER.error(ex);
       throw ex;
     } catch (ExecutionException | InterruptedException e) {
+      Metrics.callError("admin", "createAcls");
       LOGGER.error(e);
     }
   }
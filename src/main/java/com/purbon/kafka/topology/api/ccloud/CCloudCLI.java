@@ -1,7 +1,9 @@
 package com.purbon.kafka.topology.api.ccloud;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.timing.Timings;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -88,12 +90,21 @@ public class CCloudCLI {
     builder.command(cmd);
     builder.redirectErrorStream(true);
 
-    Process pr = builder.start();
-    String stdout = readStdOut(pr);
-    pr.waitFor();
+    String operation = cmd.get(1) + "." + cmd.get(2);
+    try (Timings.Timer timer = Timings.call("ccloud", operation)) {
+      Process pr = builder.start();
+      String stdout = readStdOut(pr);
+      pr.waitFor();
 
-    LOGGER.debug("Exit code: " + pr.exitValue());
-    return stdout;
+      LOGGER.debug("Exit code: " + pr.exitValue());
+      if (pr.exitValue() != 0) {
+        Metrics.callError("ccloud", operation);
+      }
+      return stdout;
+    } catch (IOException | InterruptedException e) {
+      Metrics.callError("ccloud", operation);
+      throw e;
+    }
   }
 
   private String readStdOut(Process pr) {
@@ -5,8 +5,10 @@ import static com.purbon.kafka.topology.api.mds.RequestScope.RESOURCE_PATTERN_TY
 import static com.purbon.kafka.topology.api.mds.RequestScope.RESOURCE_TYPE;
 
 import com.purbon.kafka.topology.api.mds.http.HttpDeleteWithBody;
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import com.purbon.kafka.topology.roles.rbac.ClusterLevelRoleBuilder;
+import com.purbon.kafka.topology.timing.Timings;
 import com.purbon.kafka.topology.utils.JSON;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -210,16 +212,21 @@ public class MDSApiClient {
 
   private Response get(HttpGet request) throws IOException {
     LOGGER.debug("GET.request: " + request);
-    try (CloseableHttpResponse response = httpClient.execute(request)) {
+    try (Timings.Timer timer = Timings.call("mds", "get");
+        CloseableHttpResponse response = httpClient.execute(request)) {
       LOGGER.debug("GET.response: " + response);
       return new Response(response);
+    } catch (IOException ex) {
+      Metrics.callError("mds", "get");
+      throw ex;
     }
   }
 
   private String post(HttpPost request) throws IOException {
     LOGGER.debug("POST.request: " + request);
 
-    try (CloseableHttpResponse response = httpClient.execute(request)) {
+    try (Timings.Timer timer = Timings.call("mds", "post");
+        CloseableHttpResponse response = httpClient.execute(request)) {
       LOGGER.debug("POST.response: " + response);
       HttpEntity entity = response.getEntity();
       int statusCode = response.getStatusLine().getStatusCode();
@@ -236,6 +243,7 @@ public class MDSApiClient {
       }
       return result;
     } catch (IOException ex) {
+      Metrics.callError("mds", "post");
       LOGGER.error(ex);
       throw ex;
     }
@@ -244,7 +252,8 @@ public class MDSApiClient {
   private String delete(HttpDeleteWithBody request) throws IOException {
     LOGGER.debug("DELETE.request: " + request);
 
-    try (CloseableHttpResponse response = httpClient.execute(request)) {
+    try (Timings.Timer timer = Timings.call("mds", "delete");
+        CloseableHttpResponse response = httpClient.execute(request)) {
       LOGGER.debug("DELETE.response: " + response);
       HttpEntity entity = response.getEntity();
       // Header headers = entity.getContentType();
@@ -254,6 +263,9 @@ public class MDSApiClient {
       }
 
       return result;
+    } catch (IOException ex) {
+      Metrics.callError("mds", "delete");
+      throw ex;
     }
   }
 
@@ -27,6 +27,14 @@ public class RequestScope {
     this.clusters = clusters;
   }
 
+  public Map<String, Map<String, String>> getClusters() {
+    return clusters;
+  }
+
+  public List<Map<String, String>> getResources() {
+    return resources;
+  }
+
   public void addResource(String resourceType, String name, String patternType) {
     Map<String, String> resource = new HashMap<>();
     resource.put(RESOURCE_TYPE, resourceType);
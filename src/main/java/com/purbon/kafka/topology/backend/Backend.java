@@ -4,6 +4,8 @@ import com.purbon.kafka.topology.BackendController;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 public interface Backend {
@@ -26,5 +28,33 @@ public interface Backend {
 
   void saveTopics(Set<String> topics);
 
+  /**
+   * Load the metadata stored next to the state, like the fingerprint of the last applied topology.
+   * Backends that do not store metadata return an empty map.
+   *
+   * @return the stored metadata
+   * @throws IOException if the metadata can not be read
+   */
+  default Map<String, String> loadMetadata() throws IOException {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Replace the metadata stored next to the state. Like the rest of the state, it is persisted by
+   * the time the backend is closed.
+   *
+   * @param metadata the metadata to store
+   */
+  default void saveMetadata(Map<String, String> metadata) {}
+
+  /**
+   * Persist the state saved so far, and keep the backend open for the next saves. Backends that can
+   * not store the state without releasing their resources are closed, and opened again by the next
+   * save.
+   */
+  default void flush() {
+    close();
+  }
+
   void close();
 }
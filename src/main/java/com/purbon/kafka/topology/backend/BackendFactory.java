@@ -0,0 +1,41 @@
+package com.purbon.kafka.topology.backend;
+
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import java.io.IOException;
+
+/**
+ * Service provider interface used to build the configured state backend.
+ *
+ * <p>Implementations are discovered with {@link java.util.ServiceLoader}, so a new backend only
+ * needs to ship a factory listed in
+ * META-INF/services/com.purbon.kafka.topology.backend.BackendFactory. The factory is selected by
+ * matching {@link #backendClassName()} against the configured
+ * topology.builder.state.processor.class value.
+ */
+public interface BackendFactory {
+
+  /** @return the fully qualified name of the backend class built by this factory */
+  String backendClassName();
+
+  /**
+   * Build a backend instance.
+   *
+   * @param config the builder configuration
+   * @param shard the shard this backend stores, or null for the unsharded state
+   * @return a new backend, not yet opened
+   * @throws IOException if the backend can not be built with the given configuration
+   */
+  Backend build(TopologyBuilderConfig config, String shard) throws IOException;
+
+  /**
+   * Open the store of the state shards of a run. By default every shard is built on its own, the
+   * factories of backends keeping all the shards in one location override it, so the location is
+   * read only once per run.
+   *
+   * @param config the builder configuration
+   * @return the store of the shards, to be closed once the shards are stored
+   */
+  default ShardStore openShards(TopologyBuilderConfig config) {
+    return shard -> build(config, shard);
+  }
+}
@@ -2,20 +2,27 @@ package com.purbon.kafka.topology.backend;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import com.purbon.kafka.topology.utils.JSON;
 import java.io.*;
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.RandomAccessFile;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -31,13 +38,20 @@ public class FileBackend implements Backend {
   static final String SERVICE_ACCOUNTS_TAG = "ServiceAccounts";
   static final String TOPICS_TAG = "Topics";
   static final String ACLS_TAG = "acls";
+  static final String METADATA_FILE_SUFFIX = ".metadata";
 
+  private final String stateFileName;
   private RandomAccessFile writer;
   private String expression =
       "^\"?\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\'\"?";
   private Pattern regexp;
 
   public FileBackend() {
+    this(STATE_FILE_NAME);
+  }
+
+  public FileBackend(String stateFileName) {
+    this.stateFileName = stateFileName;
     this.regexp = Pattern.compile(expression);
     this.writer = null;
   }
@@ -50,8 +64,8 @@ public class FileBackend implements Backend {
   @Override
   public void createOrOpen(Mode mode) {
     try {
-      writer = new RandomAccessFile(STATE_FILE_NAME, "rw");
-      Path path = Paths.get(STATE_FILE_NAME);
+      writer = new RandomAccessFile(stateFileName, "rw");
+      Path path = Paths.get(stateFileName);
       if (path.toFile().exists()) {
         writer.seek(0);
         if (mode.equals(Mode.TRUNCATE)) {
@@ -67,17 +81,19 @@ public class FileBackend implements Backend {
     if (writer == null) {
       throw new IOException("state file does not exist");
     }
-    File file = new File(STATE_FILE_NAME);
+    File file = new File(stateFileName);
     return load(file.toURI());
   }
 
   public Set<TopologyAclBinding> load(URI uri) throws IOException {
     Path filePath = Paths.get(uri);
     Set<TopologyAclBinding> bindings = new LinkedHashSet<>();
-    BufferedReader in = new BufferedReader(new FileReader(filePath.toFile()));
-    String type = in.readLine();
+    BufferedReader in =
+        new BufferedReader(
+            new InputStreamReader(new FileInputStream(filePath.toFile()), StandardCharsets.UTF_8));
+    String type = readLine(in);
     String line = null;
-    while ((line = in.readLine()) != null) {
+    while ((line = readLine(in)) != null) {
       TopologyAclBinding binding = null;
       if (line.equalsIgnoreCase("ServiceAccounts")) {
         // process service accounts, should break from here.
@@ -132,7 +148,7 @@ public class FileBackend implements Backend {
     BufferedReader in = openLocalStateFile();
     String line = moveFileToTag(tag, in);
     if (line != null && line.equalsIgnoreCase(tag)) {
-      while ((line = in.readLine()) != null && !foundAControlTag(line)) {
+      while ((line = readLine(in)) != null && !foundAControlTag(line)) {
         elements.add(buildFunction.apply(line.trim()));
       }
     }
@@ -140,13 +156,14 @@ public class FileBackend implements Backend {
   }
 
   private BufferedReader openLocalStateFile() throws IOException {
-    Path filePath = Paths.get(STATE_FILE_NAME);
-    return new BufferedReader(new FileReader(filePath.toFile()));
+    Path filePath = Paths.get(stateFileName);
+    return new BufferedReader(
+        new InputStreamReader(new FileInputStream(filePath.toFile()), StandardCharsets.UTF_8));
   }
 
   private String moveFileToTag(String tag, BufferedReader in) throws IOException {
     String line = null;
-    while ((line = in.readLine()) != null) {
+    while ((line = readLine(in)) != null) {
       if (line.equalsIgnoreCase(tag)) {
         break; // process elements, should start from here.
       }
@@ -154,6 +171,14 @@ public class FileBackend implements Backend {
     return line;
   }
 
+  private String readLine(BufferedReader in) throws IOException {
+    String line = in.readLine();
+    if (line != null) {
+      Metrics.stateBytesRead("file", line.getBytes(StandardCharsets.UTF_8).length + 1);
+    }
+    return line;
+  }
+
   private TopologyAclBinding buildAclBinding(String line) throws IOException {
     // 'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'
     Matcher matches = regexp.matcher(line);
@@ -172,6 +197,34 @@ public class FileBackend implements Backend {
         );
   }
 
+  @Override
+  public Map<String, String> loadMetadata() throws IOException {
+    Map<String, String> metadata = new HashMap<>();
+    File file = new File(stateFileName + METADATA_FILE_SUFFIX);
+    if (file.exists()) {
+      Properties props = new Properties();
+      try (Reader reader = new FileReader(file)) {
+        props.load(reader);
+      }
+      Metrics.stateBytesRead("file", file.length());
+      props.stringPropertyNames().forEach(key -> metadata.put(key, props.getProperty(key)));
+    }
+    return metadata;
+  }
+
+  @Override
+  public void saveMetadata(Map<String, String> metadata) {
+    Properties props = new Properties();
+    props.putAll(metadata);
+    File file = new File(stateFileName + METADATA_FILE_SUFFIX);
+    try (Writer out = new FileWriter(file)) {
+      props.store(out, null);
+    } catch (IOException e) {
+      LOGGER.error(e);
+    }
+    Metrics.stateBytesWritten("file", file.length());
+  }
+
   public void saveType(String type) {
     writeLine(type);
   }
@@ -200,8 +253,9 @@ public class FileBackend implements Backend {
 
   private void writeLine(String line) {
     try {
-      writer.writeBytes(line);
-      writer.writeBytes("\n");
+      byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+      writer.write(bytes);
+      Metrics.stateBytesWritten("file", bytes.length);
     } catch (IOException e) {
       LOGGER.error(e);
     }
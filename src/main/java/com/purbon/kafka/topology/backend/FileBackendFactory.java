@@ -0,0 +1,19 @@
+package com.purbon.kafka.topology.backend;
+
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+
+public class FileBackendFactory implements BackendFactory {
+
+  @Override
+  public String backendClassName() {
+    return FileBackend.class.getName();
+  }
+
+  @Override
+  public Backend build(TopologyBuilderConfig config, String shard) {
+    if (shard == null) {
+      return new FileBackend();
+    }
+    return new FileBackend(FileBackend.STATE_FILE_NAME + "." + shard);
+  }
+}
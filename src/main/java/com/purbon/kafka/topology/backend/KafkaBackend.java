@@ -0,0 +1,470 @@
+package com.purbon.kafka.topology.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.metrics.Metrics;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.utils.JSON;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * State backend that keeps the state as keyed records in a compacted topic of the managed cluster.
+ *
+ * <p>Every binding, topic and service account is stored as an individual record, keyed by its type
+ * and identity. Loading the state is a bounded read of the topic from the beginning up to the end
+ * offsets observed when the read starts. Saving only produces the records that changed since the
+ * load, and a tombstone for every element that is gone, so compaction keeps the topic size
+ * proportional to the current state.
+ */
+public class KafkaBackend implements Backend {
+
+  private static final Logger LOGGER = LogManager.getLogger(KafkaBackend.class);
+
+  static final String ACL_KEY_PREFIX = "acl:";
+  static final String TOPIC_KEY_PREFIX = "topic:";
+  static final String SERVICE_ACCOUNT_KEY_PREFIX = "account:";
+  static final String METADATA_KEY_PREFIX = "meta:";
+  static final String SHARD_SEPARATOR = "/";
+
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+  static final Duration DEFAULT_LOAD_TIMEOUT = Duration.ofSeconds(60);
+
+  private String expression =
+      "^\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\'";
+  private Pattern regexp;
+
+  private final String topic;
+  private final String aclKeyPrefix;
+  private final String topicKeyPrefix;
+  private final String serviceAccountKeyPrefix;
+  private final String metadataKeyPrefix;
+  private final TopologyBuilderConfig config;
+  private final Duration loadTimeout;
+  // the backend owning the clients and the snapshot of the topic, this one unless shared
+  private final KafkaBackend stateTopic;
+  private Producer<String, String> producer;
+  private Consumer<String, String> consumer;
+
+  private Map<String, String> snapshot;
+  private Map<String, Map<String, String>> staged;
+
+  public KafkaBackend(TopologyBuilderConfig config) {
+    this(config, null);
+  }
+
+  /**
+   * @param config the builder configuration
+   * @param shard the state shard, used as a prefix of the record keys. The unsharded state uses the
+   *     plain keys.
+   */
+  public KafkaBackend(TopologyBuilderConfig config, String shard) {
+    this(
+        config.getKafkaStateTopic(),
+        shard,
+        config,
+        config.getKafkaStateLoadTimeout(),
+        null,
+        null,
+        null);
+  }
+
+  /**
+   * A backend storing a shard in the same state topic as another backend, sharing its clients and
+   * its read of the topic. The clients are released when the other backend is closed.
+   *
+   * @param stateTopic the backend reading, and writing, the state topic
+   * @param shard the state shard, used as a prefix of the record keys
+   */
+  KafkaBackend(KafkaBackend stateTopic, String shard) {
+    this(
+        stateTopic.topic, shard, stateTopic.config, stateTopic.loadTimeout, null, null, stateTopic);
+  }
+
+  public KafkaBackend(
+      String topic, Producer<String, String> producer, Consumer<String, String> consumer) {
+    this(topic, producer, consumer, DEFAULT_LOAD_TIMEOUT);
+  }
+
+  public KafkaBackend(
+      String topic,
+      Producer<String, String> producer,
+      Consumer<String, String> consumer,
+      Duration loadTimeout) {
+    this(topic, null, null, loadTimeout, producer, consumer, null);
+  }
+
+  private KafkaBackend(
+      String topic,
+      String shard,
+      TopologyBuilderConfig config,
+      Duration loadTimeout,
+      Producer<String, String> producer,
+      Consumer<String, String> consumer,
+      KafkaBackend stateTopic) {
+    this.topic = topic;
+    String keyPrefix = shard == null ? "" : shard + SHARD_SEPARATOR;
+    this.aclKeyPrefix = keyPrefix + ACL_KEY_PREFIX;
+    this.topicKeyPrefix = keyPrefix + TOPIC_KEY_PREFIX;
+    this.serviceAccountKeyPrefix = keyPrefix + SERVICE_ACCOUNT_KEY_PREFIX;
+    this.metadataKeyPrefix = keyPrefix + METADATA_KEY_PREFIX;
+    this.config = config;
+    this.loadTimeout = loadTimeout;
+    this.stateTopic = stateTopic == null ? this : stateTopic;
+    this.producer = producer;
+    this.consumer = consumer;
+    this.regexp = Pattern.compile(expression);
+    this.snapshot = null;
+    this.staged = new HashMap<>();
+  }
+
+  @Override
+  public void createOrOpen() {
+    createOrOpen(Mode.APPEND);
+  }
+
+  @Override
+  public void createOrOpen(Mode mode) {
+    if (stateTopic != this) {
+      stateTopic.createOrOpen(mode);
+      return;
+    }
+    if (config == null || producer != null) {
+      return;
+    }
+    createStateTopicIfNeeded();
+    producer = new KafkaProducer<>(producerProperties());
+    consumer = new KafkaConsumer<>(consumerProperties());
+  }
+
+  /**
+   * The state topic has to exist before anything is loaded or stored, a run without it would diff
+   * against an empty state, so any failure to create it fails the run.
+   */
+  private void createStateTopicIfNeeded() {
+    try (AdminClient adminClient = AdminClient.create(config.asProperties())) {
+      if (adminClient.listTopics().names().get().contains(topic)) {
+        return;
+      }
+      LOGGER.debug(String.format("Creating the state topic %s", topic));
+      NewTopic newTopic =
+          new NewTopic(topic, 1, config.getKafkaStateReplicationFactor())
+              .configs(
+                  Collections.singletonMap(
+                      TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+      adminClient.createTopics(Collections.singleton(newTopic)).all().get();
+    } catch (ExecutionException ex) {
+      if (!(ex.getCause() instanceof TopicExistsException)) {
+        throw new UncheckedIOException(
+            new IOException("Failed to create the state topic " + topic, ex.getCause()));
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedIOException(
+          new IOException("Interrupted while creating the state topic " + topic, ex));
+    }
+  }
+
+  private Properties producerProperties() {
+    Properties props = config.asProperties();
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    return props;
+  }
+
+  private Properties consumerProperties() {
+    Properties props = config.asProperties();
+    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    return props;
+  }
+
+  @Override
+  public Set<TopologyAclBinding> loadBindings() throws IOException {
+    Set<TopologyAclBinding> bindings = new HashSet<>();
+    for (String value : loadValues(aclKeyPrefix)) {
+      bindings.add(buildAclBinding(value));
+    }
+    return bindings;
+  }
+
+  @Override
+  public Set<ServiceAccount> loadServiceAccounts() throws IOException {
+    Set<ServiceAccount> accounts = new HashSet<>();
+    for (String value : loadValues(serviceAccountKeyPrefix)) {
+      accounts.add((ServiceAccount) JSON.toObject(value, ServiceAccount.class));
+    }
+    return accounts;
+  }
+
+  @Override
+  public Set<String> loadTopics() throws IOException {
+    return new HashSet<>(loadValues(topicKeyPrefix));
+  }
+
+  @Override
+  public Map<String, String> loadMetadata() {
+    Map<String, String> metadata = new HashMap<>();
+    loadSnapshot()
+        .forEach(
+            (key, value) -> {
+              if (key.startsWith(metadataKeyPrefix)) {
+                metadata.put(key.substring(metadataKeyPrefix.length()), value);
+              }
+            });
+    return metadata;
+  }
+
+  private List<String> loadValues(String keyPrefix) {
+    return loadSnapshot().entrySet().stream()
+        .filter(entry -> entry.getKey().startsWith(keyPrefix))
+        .map(Map.Entry::getValue)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Read the state topic from the beginning up to the end offsets observed at the start of the
+   * read. Later records for a key override earlier ones, and tombstones remove the key. The read
+   * fails once the load timeout passes, for example while a partition has no leader.
+   */
+  private Map<String, String> loadSnapshot() {
+    if (stateTopic != this) {
+      return stateTopic.loadSnapshot();
+    }
+    if (snapshot != null) {
+      return snapshot;
+    }
+    createOrOpen();
+    snapshot = new HashMap<>();
+    List<TopicPartition> partitions = new ArrayList<>();
+    List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+    if (partitionInfos != null) {
+      partitionInfos.forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+    }
+    if (partitions.isEmpty()) {
+      return snapshot;
+    }
+    consumer.assign(partitions);
+    consumer.seekToBeginning(partitions);
+    Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+    long deadline = System.currentTimeMillis() + loadTimeout.toMillis();
+    while (!hasReached(endOffsets)) {
+      if (System.currentTimeMillis() > deadline) {
+        snapshot = null;
+        throw new UncheckedIOException(
+            new IOException(
+                String.format(
+                    "The state topic %s could not be read within %s ms",
+                    topic, loadTimeout.toMillis())));
+      }
+      for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+        Metrics.stateBytesRead(
+            "kafka",
+            Math.max(0, record.serializedKeySize()) + Math.max(0, record.serializedValueSize()));
+        if (record.value() == null) {
+          snapshot.remove(record.key());
+        } else {
+          snapshot.put(record.key(), record.value());
+        }
+      }
+    }
+    LOGGER.debug(
+        String.format("Loaded %s elements from the state topic %s", snapshot.size(), topic));
+    return snapshot;
+  }
+
+  private boolean hasReached(Map<TopicPartition, Long> endOffsets) {
+    return endOffsets.entrySet().stream()
+        .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+  }
+
+  @Override
+  public void saveType(String type) {
+    // types are encoded as part of the record keys
+  }
+
+  @Override
+  public void saveBindings(Set<TopologyAclBinding> bindings) {
+    Map<String, String> records = new HashMap<>();
+    bindings.forEach(binding -> records.put(aclKeyPrefix + binding, binding.toString()));
+    staged.put(aclKeyPrefix, records);
+  }
+
+  @Override
+  public void saveAccounts(Set<ServiceAccount> accounts) {
+    Map<String, String> records = new HashMap<>();
+    accounts.forEach(
+        account -> {
+          try {
+            records.put(serviceAccountKeyPrefix + account.getName(), JSON.asString(account));
+          } catch (JsonProcessingException e) {
+            LOGGER.error(e);
+          }
+        });
+    staged.put(serviceAccountKeyPrefix, records);
+  }
+
+  @Override
+  public void saveTopics(Set<String> topics) {
+    Map<String, String> records = new HashMap<>();
+    topics.forEach(topic -> records.put(topicKeyPrefix + topic, topic));
+    staged.put(topicKeyPrefix, records);
+  }
+
+  @Override
+  public void saveMetadata(Map<String, String> metadata) {
+    Map<String, String> records = new HashMap<>();
+    metadata.forEach((key, value) -> records.put(metadataKeyPrefix + key, value));
+    staged.put(metadataKeyPrefix, records);
+  }
+
+  /**
+   * Produce the staged state as a delta over the loaded one: new or changed elements as records and
+   * removed elements as tombstones. The whole batch is flushed and acknowledged before returning.
+   */
+  private void produceStaged() throws IOException {
+    if (staged.isEmpty()) {
+      return;
+    }
+    Map<String, String> current = loadSnapshot();
+    Producer<String, String> producer = stateTopic.producer;
+    List<Future<RecordMetadata>> results = new ArrayList<>();
+    staged.forEach(
+        (keyPrefix, records) -> {
+          records.forEach(
+              (key, value) -> {
+                if (!value.equals(current.get(key))) {
+                  results.add(producer.send(new ProducerRecord<>(topic, key, value)));
+                }
+              });
+          current.keySet().stream()
+              .filter(key -> key.startsWith(keyPrefix) && !records.containsKey(key))
+              .forEach(key -> results.add(producer.send(new ProducerRecord<>(topic, key, null))));
+        });
+    producer.flush();
+    LOGGER.debug(String.format("Produced %s changes to the state topic %s", results.size(), topic));
+
+    try {
+      for (Future<RecordMetadata> result : results) {
+        RecordMetadata recordMetadata = result.get();
+        Metrics.stateBytesWritten(
+            "kafka",
+            Math.max(0, recordMetadata.serializedKeySize())
+                + Math.max(0, recordMetadata.serializedValueSize()));
+      }
+    } catch (InterruptedException | ExecutionException e) {
+      LOGGER.error(e);
+      throw new IOException(e);
+    }
+    staged.forEach(
+        (keyPrefix, records) -> {
+          current.keySet().removeIf(key -> key.startsWith(keyPrefix));
+          current.putAll(records);
+        });
+    staged.clear();
+  }
+
+  /**
+   * Produce the staged state, keeping the clients and the snapshot of the topic for the next saves.
+   *
+   * @throws UncheckedIOException if the state could not be stored
+   */
+  @Override
+  public void flush() {
+    try {
+      produceStaged();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to store the state in the topic " + topic, e);
+    }
+  }
+
+  /**
+   * Flush the staged state and release the clients, unless they are shared with the backend owning
+   * them.
+   *
+   * @throws UncheckedIOException if the state could not be stored, so the run is not reported as
+   *     successful with a stale state
+   */
+  @Override
+  public void close() {
+    try {
+      flush();
+    } finally {
+      if (stateTopic == this) {
+        releaseClients();
+      }
+    }
+  }
+
+  private void releaseClients() {
+    if (producer != null) {
+      producer.close();
+    }
+    if (consumer != null) {
+      consumer.close();
+    }
+    if (config != null) {
+      producer = null;
+      consumer = null;
+      snapshot = null;
+    }
+  }
+
+  private TopologyAclBinding buildAclBinding(String line) throws IOException {
+    // 'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'
+    Matcher matches = regexp.matcher(line);
+
+    if (matches.groupCount() != 6 || !matches.matches()) {
+      throw new IOException(("line (" + line + ") does not match"));
+    }
+
+    return TopologyAclBinding.build(
+        matches.group(1), // resourceType
+        matches.group(2), // resourceName
+        matches.group(3), // host
+        matches.group(4), // operation
+        matches.group(5), // principal
+        matches.group(6) // pattern
+        );
+  }
+}
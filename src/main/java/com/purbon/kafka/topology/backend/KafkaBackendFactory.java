@@ -0,0 +1,33 @@
+package com.purbon.kafka.topology.backend;
+
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+
+public class KafkaBackendFactory implements BackendFactory {
+
+  @Override
+  public String backendClassName() {
+    return KafkaBackend.class.getName();
+  }
+
+  @Override
+  public Backend build(TopologyBuilderConfig config, String shard) {
+    return new KafkaBackend(config, shard);
+  }
+
+  /** All the shards are records of the same state topic, read once and shared by the shards. */
+  @Override
+  public ShardStore openShards(TopologyBuilderConfig config) {
+    KafkaBackend stateTopic = new KafkaBackend(config);
+    return new ShardStore() {
+      @Override
+      public Backend shard(String shard) {
+        return new KafkaBackend(stateTopic, shard);
+      }
+
+      @Override
+      public void close() {
+        stateTopic.close();
+      }
+    };
+  }
+}
@@ -1,36 +1,94 @@
 package com.purbon.kafka.topology.backend;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.metrics.Metrics;
 import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.utils.JSON;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
 
+/**
+ * Redis based state backend.
+ *
+ * <p>Each kind of state (bindings, topics and service accounts) is kept in its own redis set. The
+ * whole state is read in a single pipelined round trip, and on close only the differences with the
+ * last known content are written back, as SADD/SREM commands inside a MULTI transaction.
+ */
 public class RedisBackend implements Backend {
 
   private static final Logger LOGGER = LogManager.getLogger(RedisBackend.class);
 
   static final String KAFKA_TOPOLOGY_BUILDER_BINDINGS = "kafka.topology.builder.bindings";
+  static final String KAFKA_TOPOLOGY_BUILDER_TOPICS = "kafka.topology.builder.topics";
+  static final String KAFKA_TOPOLOGY_BUILDER_SERVICE_ACCOUNTS =
+      "kafka.topology.builder.service.accounts";
   static final String KAFKA_TOPOLOGY_BUILDER_TYPE = "kafka.topology.builder.type";
+  static final String KAFKA_TOPOLOGY_BUILDER_METADATA = "kafka.topology.builder.metadata";
 
   private String expression =
       "^\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\',\\s*\\'(\\S+)\\'";
   private Pattern regexp;
   private Jedis jedis;
 
+  private final String bindingsKey;
+  private final String topicsKey;
+  private final String accountsKey;
+  private final String typeKey;
+  private final String metadataKey;
+
+  private Map<String, Set<String>> snapshot;
+  private Map<String, Set<String>> staged;
+  private String type;
+  private Map<String, String> metadata;
+
   public RedisBackend(String host, int port) {
-    this(new Jedis(host, port));
+    this(host, port, null);
+  }
+
+  public RedisBackend(String host, int port, String shard) {
+    this(new Jedis(host, port), shard);
   }
 
   public RedisBackend(Jedis jedis) {
+    this(jedis, null);
+  }
+
+  /**
+   * @param jedis the redis client
+   * @param shard the state shard, used as a suffix of the keys. The unsharded state uses the plain
+   *     keys.
+   */
+  public RedisBackend(Jedis jedis, String shard) {
     this.jedis = jedis;
+    this.bindingsKey = shardKey(KAFKA_TOPOLOGY_BUILDER_BINDINGS, shard);
+    this.topicsKey = shardKey(KAFKA_TOPOLOGY_BUILDER_TOPICS, shard);
+    this.accountsKey = shardKey(KAFKA_TOPOLOGY_BUILDER_SERVICE_ACCOUNTS, shard);
+    this.typeKey = shardKey(KAFKA_TOPOLOGY_BUILDER_TYPE, shard);
+    this.metadataKey = shardKey(KAFKA_TOPOLOGY_BUILDER_METADATA, shard);
     this.regexp = Pattern.compile(expression);
+    this.snapshot = null;
+    this.staged = new HashMap<>();
+    this.type = null;
+    this.metadata = null;
+  }
+
+  private static String shardKey(String key, String shard) {
+    return shard == null ? key : key + "." + shard;
   }
 
   @Override
@@ -41,27 +99,29 @@ public class RedisBackend implements Backend {
   @Override
   public void createOrOpen(Mode mode) {
     jedis.connect();
-    if (mode.equals(Mode.TRUNCATE)) {
-      jedis.del(KAFKA_TOPOLOGY_BUILDER_TYPE);
-      jedis.del(KAFKA_TOPOLOGY_BUILDER_BINDINGS);
-    }
   }
 
   @Override
   public Set<TopologyAclBinding> loadBindings() throws IOException {
-    connectIfNeed();
-
     Set<TopologyAclBinding> bindings = new HashSet<>();
-    String type = jedis.get(KAFKA_TOPOLOGY_BUILDER_TYPE);
+    for (String elem : loadSnapshot().get(bindingsKey)) {
+      bindings.add(buildAclBinding(elem));
+    }
+    return bindings;
+  }
 
-    long count = jedis.scard(KAFKA_TOPOLOGY_BUILDER_BINDINGS);
-    for (long i = 0; i < count; i++) {
-      String elem = jedis.spop(KAFKA_TOPOLOGY_BUILDER_BINDINGS);
-      TopologyAclBinding binding = buildAclBinding(elem);
-      bindings.add(binding);
+  @Override
+  public Set<ServiceAccount> loadServiceAccounts() throws IOException {
+    Set<ServiceAccount> accounts = new HashSet<>();
+    for (String elem : loadSnapshot().get(accountsKey)) {
+      accounts.add((ServiceAccount) JSON.toObject(elem, ServiceAccount.class));
     }
+    return accounts;
+  }
 
-    return bindings;
+  @Override
+  public Set<String> loadTopics() throws IOException {
+    return new HashSet<>(loadSnapshot().get(topicsKey));
   }
 
   private void connectIfNeed() {
@@ -70,38 +130,128 @@ public class RedisBackend implements Backend {
     }
   }
 
+  /**
+   * Fetch the content of all the state sets in a single pipelined round trip. The content is
+   * cached, so following loads and the final delta computation do not need to go back to redis.
+   */
+  private Map<String, Set<String>> loadSnapshot() {
+    if (snapshot == null) {
+      connectIfNeed();
+      Pipeline pipeline = jedis.pipelined();
+      Map<String, Response<Set<String>>> responses = new HashMap<>();
+      Arrays.asList(bindingsKey, topicsKey, accountsKey)
+          .forEach(key -> responses.put(key, pipeline.smembers(key)));
+      pipeline.sync();
+      snapshot = new HashMap<>();
+      responses.forEach((key, response) -> snapshot.put(key, nullSafe(response.get())));
+      snapshot.values().forEach(members -> Metrics.stateBytesRead("redis", length(members)));
+    }
+    return snapshot;
+  }
+
+  private static long length(Collection<String> members) {
+    return members.stream().mapToLong(String::length).sum();
+  }
+
+  private Set<String> nullSafe(Set<String> members) {
+    return members == null ? new HashSet<>() : new HashSet<>(members);
+  }
+
   @Override
-  public Set<ServiceAccount> loadServiceAccounts() throws IOException {
-    return new HashSet<>();
+  public Map<String, String> loadMetadata() {
+    connectIfNeed();
+    Map<String, String> metadata = jedis.hgetAll(metadataKey);
+    return metadata == null ? new HashMap<>() : new HashMap<>(metadata);
   }
 
   @Override
-  public Set<String> loadTopics() throws IOException {
-    return new HashSet<>();
+  public void saveMetadata(Map<String, String> metadata) {
+    this.metadata = new HashMap<>(metadata);
   }
 
   @Override
   public void saveType(String type) {
-    jedis.set(KAFKA_TOPOLOGY_BUILDER_TYPE, type);
+    this.type = type;
   }
 
   @Override
   public void saveBindings(Set<TopologyAclBinding> bindings) {
+    Set<String> members = new HashSet<>();
+    bindings.forEach(binding -> members.add(binding.toString()));
+    staged.put(bindingsKey, members);
+  }
 
-    String[] members =
-        bindings.stream().map(binding -> binding.toString()).toArray(size -> new String[size]);
-
-    jedis.sadd(KAFKA_TOPOLOGY_BUILDER_BINDINGS, members);
+  @Override
+  public void saveAccounts(Set<ServiceAccount> accounts) {
+    Set<String> members = new HashSet<>();
+    accounts.forEach(
+        account -> {
+          try {
+            members.add(JSON.asString(account));
+          } catch (JsonProcessingException e) {
+            LOGGER.error(e);
+          }
+        });
+    staged.put(accountsKey, members);
   }
 
   @Override
-  public void saveAccounts(Set<ServiceAccount> accounts) {}
+  public void saveTopics(Set<String> topics) {
+    staged.put(topicsKey, new HashSet<>(topics));
+  }
 
+  /**
+   * Write the staged state as a delta over the last known content, all within a single MULTI
+   * transaction, keeping the connection open.
+   */
   @Override
-  public void saveTopics(Set<String> topics) {}
+  public void flush() {
+    if (staged.isEmpty() && type == null && metadata == null) {
+      return;
+    }
+    Map<String, Set<String>> current = loadSnapshot();
+    Transaction transaction = jedis.multi();
+    if (type != null) {
+      transaction.set(typeKey, type);
+    }
+    if (metadata != null) {
+      transaction.del(metadataKey);
+      if (!metadata.isEmpty()) {
+        transaction.hset(metadataKey, metadata);
+      }
+    }
+    staged.forEach(
+        (key, members) -> {
+          Set<String> previous = current.get(key);
+          String[] toAdd = difference(members, previous);
+          String[] toRemove = difference(previous, members);
+          LOGGER.debug(
+              String.format(
+                  "Updating %s with %s additions and %s removals",
+                  key, toAdd.length, toRemove.length));
+          if (toAdd.length > 0) {
+            transaction.sadd(key, toAdd);
+          }
+          if (toRemove.length > 0) {
+            transaction.srem(key, toRemove);
+          }
+          Metrics.stateBytesWritten(
+              "redis", length(Arrays.asList(toAdd)) + length(Arrays.asList(toRemove)));
+          current.put(key, new HashSet<>(members));
+        });
+    transaction.exec();
+    staged.clear();
+    type = null;
+    metadata = null;
+  }
+
+  private String[] difference(Set<String> left, Set<String> right) {
+    return left.stream().filter(elem -> !right.contains(elem)).toArray(String[]::new);
+  }
 
   @Override
   public void close() {
+    flush();
     jedis.close();
   }
 
@@ -0,0 +1,26 @@
+package com.purbon.kafka.topology.backend;
+
+import static com.purbon.kafka.topology.TopologyBuilderConfig.REDIS_HOST_CONFIG;
+import static com.purbon.kafka.topology.TopologyBuilderConfig.REDIS_PORT_CONFIG;
+
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import java.io.IOException;
+
+public class RedisBackendFactory implements BackendFactory {
+
+  @Override
+  public String backendClassName() {
+    return RedisBackend.class.getName();
+  }
+
+  @Override
+  public Backend build(TopologyBuilderConfig config, String shard) throws IOException {
+    String host = config.getProperty(REDIS_HOST_CONFIG);
+    try {
+      int port = Integer.parseInt(config.getProperty(REDIS_PORT_CONFIG));
+      return new RedisBackend(host, port, shard);
+    } catch (NumberFormatException ex) {
+      throw new IOException(ex);
+    }
+  }
+}
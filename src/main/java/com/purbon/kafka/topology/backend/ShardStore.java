@@ -0,0 +1,22 @@
+package com.purbon.kafka.topology.backend;
+
+import java.io.IOException;
+
+/**
+ * The backends of the state shards of a run, opened with {@link BackendFactory#openShards}. What
+ * the shards share, like the clients of a state topic, is released when the store is closed.
+ */
+public interface ShardStore extends AutoCloseable {
+
+  /**
+   * @param shard the shard to store, or null for the unsharded state
+   * @return a new backend for the shard, not yet opened
+   * @throws IOException if the backend can not be built
+   */
+  Backend shard(String shard) throws IOException;
+
+  @Override
+  default void close() {
+    // by default the shards share nothing
+  }
+}
@@ -0,0 +1,407 @@
+package com.purbon.kafka.topology.backend;
+
+import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Backend that splits the state in one shard per project, each one stored by its own backend
+ * instance.
+ *
+ * <p>Topics and bindings are assigned to the project whose name prefix they start with, anything
+ * else (service accounts included) is kept in the global shard, together with the backend metadata.
+ * The global shard also keeps an index of the projects with a stored shard, so the shards of
+ * projects removed from the topology are still loaded, and their resources deleted.
+ *
+ * <p>Only the global shard, the shards of the removed projects and the shards selected for the run
+ * are loaded. The selection is made once the global shard is loaded, so a run can limit it to the
+ * projects changed since the last run. On close only the shards whose content changed are
+ * rewritten, the shards that were not loaded are left as they are.
+ */
+public class ShardedBackend implements Backend {
+
+  private static final Logger LOGGER = LogManager.getLogger(ShardedBackend.class);
+
+  static final String GLOBAL_SHARD = "";
+  static final String SHARD_INDEX_KEY = "state.shards";
+
+  private final BackendFactory factory;
+  private final TopologyBuilderConfig config;
+  private final Collection<String> namePrefixes;
+  private final Function<Map<String, String>, Collection<String>> selection;
+  // the shard of every known project, by its name prefix and separator
+  private final Map<String, String> shardsByPrefix;
+
+  private ShardStore store;
+  private Map<String, ShardState> loaded;
+  private boolean selectionLoaded;
+  private Set<String> indexed;
+  private ShardState staged;
+  private Map<String, String> stagedMetadata;
+
+  public ShardedBackend(BackendFactory factory, TopologyBuilderConfig config, Topology topology) {
+    this(
+        factory,
+        config,
+        topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList()));
+  }
+
+  /**
+   * @param factory The factory of the backend storing each shard
+   * @param config The builder configuration
+   * @param namePrefixes The name prefix of the projects of the topology, all their shards are
+   *     loaded
+   */
+  public ShardedBackend(
+      BackendFactory factory, TopologyBuilderConfig config, Collection<String> namePrefixes) {
+    this(factory, config, namePrefixes, metadata -> namePrefixes);
+  }
+
+  /**
+   * @param factory The factory of the backend storing each shard
+   * @param config The builder configuration
+   * @param namePrefixes The name prefix of the projects of the topology
+   * @param selection Given the metadata stored in the global shard, the name prefix of the projects
+   *     of the topology whose shards are loaded
+   */
+  public ShardedBackend(
+      BackendFactory factory,
+      TopologyBuilderConfig config,
+      Collection<String> namePrefixes,
+      Function<Map<String, String>, Collection<String>> selection) {
+    this.factory = factory;
+    this.config = config;
+    this.namePrefixes = new ArrayList<>(namePrefixes);
+    this.selection = selection;
+    this.shardsByPrefix = new HashMap<>();
+    namePrefixes.forEach(this::addShard);
+    this.store = null;
+    this.loaded = new HashMap<>();
+    this.selectionLoaded = false;
+    this.indexed = new HashSet<>();
+    this.staged = null;
+    this.stagedMetadata = null;
+  }
+
+  static String shardName(String prefix) {
+    return prefix.replaceAll("[^A-Za-z0-9._-]", "_");
+  }
+
+  private void addShard(String prefix) {
+    shardsByPrefix.put(prefix + config.getTopicPrefixSeparator(), shardName(prefix));
+  }
+
+  @Override
+  public void createOrOpen() {
+    createOrOpen(Mode.APPEND);
+  }
+
+  @Override
+  public void createOrOpen(Mode mode) {
+    // every shard is opened on demand by its own backend
+  }
+
+  @Override
+  public Set<ServiceAccount> loadServiceAccounts() throws IOException {
+    Set<ServiceAccount> accounts = new HashSet<>();
+    for (ShardState state : loadShards().values()) {
+      accounts.addAll(state.accounts);
+    }
+    return accounts;
+  }
+
+  @Override
+  public Set<TopologyAclBinding> loadBindings() throws IOException {
+    Set<TopologyAclBinding> bindings = new HashSet<>();
+    for (ShardState state : loadShards().values()) {
+      bindings.addAll(state.bindings);
+    }
+    return bindings;
+  }
+
+  @Override
+  public Set<String> loadTopics() throws IOException {
+    Set<String> topics = new HashSet<>();
+    for (ShardState state : loadShards().values()) {
+      topics.addAll(state.topics);
+    }
+    return topics;
+  }
+
+  /** @return the metadata of the global shard, without the shard index */
+  @Override
+  public Map<String, String> loadMetadata() throws IOException {
+    Map<String, String> metadata = new HashMap<>(loadShard(GLOBAL_SHARD).metadata);
+    metadata.remove(SHARD_INDEX_KEY);
+    return metadata;
+  }
+
+  /**
+   * Load the global shard, then the shards of the removed projects listed in its index, and the
+   * shards selected for the run.
+   */
+  private Map<String, ShardState> loadShards() throws IOException {
+    if (selectionLoaded) {
+      return loaded;
+    }
+    Map<String, String> metadata = loadMetadata();
+    Set<String> prefixes = new HashSet<>(selection.apply(metadata));
+    for (String prefix : indexed) {
+      if (!namePrefixes.contains(prefix)) {
+        LOGGER.debug(String.format("Loading the state of the removed project %s", prefix));
+        addShard(prefix);
+        prefixes.add(prefix);
+      }
+    }
+    for (String prefix : prefixes) {
+      loadShard(shardName(prefix));
+    }
+    selectionLoaded = true;
+    LOGGER.debug(
+        String.format(
+            "Loaded %s state shards out of %s known projects",
+            loaded.size(), new HashSet<>(shardsByPrefix.values()).size()));
+    return loaded;
+  }
+
+  private ShardState loadShard(String shard) throws IOException {
+    ShardState state = loaded.get(shard);
+    if (state != null) {
+      return state;
+    }
+    state = new ShardState();
+    Backend backend = store().shard(GLOBAL_SHARD.equals(shard) ? null : shard);
+    backend.createOrOpen();
+    try {
+      state.bindings.addAll(backend.loadBindings());
+      state.accounts.addAll(backend.loadServiceAccounts());
+      state.topics.addAll(backend.loadTopics());
+      if (GLOBAL_SHARD.equals(shard)) {
+        state.metadata.putAll(backend.loadMetadata());
+        indexed = parseIndex(state.metadata.get(SHARD_INDEX_KEY));
+      }
+    } finally {
+      backend.close();
+    }
+    loaded.put(shard, state);
+    return state;
+  }
+
+  private ShardStore store() {
+    if (store == null) {
+      store = factory.openShards(config);
+    }
+    return store;
+  }
+
+  private static Set<String> parseIndex(String index) {
+    Set<String> prefixes = new TreeSet<>();
+    if (index != null && !index.isEmpty()) {
+      prefixes.addAll(Arrays.asList(index.split(",")));
+    }
+    return prefixes;
+  }
+
+  @Override
+  public void saveType(String type) {
+    // every shard writes its own types
+  }
+
+  @Override
+  public void saveBindings(Set<TopologyAclBinding> bindings) {
+    stagedState().bindings = new HashSet<>(bindings);
+  }
+
+  @Override
+  public void saveAccounts(Set<ServiceAccount> accounts) {
+    stagedState().accounts = new HashSet<>(accounts);
+  }
+
+  @Override
+  public void saveTopics(Set<String> topics) {
+    stagedState().topics = new HashSet<>(topics);
+  }
+
+  @Override
+  public void saveMetadata(Map<String, String> metadata) {
+    stagedState();
+    stagedMetadata = new HashMap<>(metadata);
+  }
+
+  private ShardState stagedState() {
+    if (staged == null) {
+      staged = new ShardState();
+    }
+    return staged;
+  }
+
+  String shardFor(String resourceName) {
+    String match = null;
+    for (String prefix : shardsByPrefix.keySet()) {
+      if (resourceName.startsWith(prefix) && (match == null || prefix.length() > match.length())) {
+        match = prefix;
+      }
+    }
+    return match == null ? GLOBAL_SHARD : shardsByPrefix.get(match);
+  }
+
+  /**
+   * Split the staged state into shards and rewrite the shards whose content differs from the loaded
+   * one. A shard that was not loaded only gets the staged resources added to its stored content.
+   */
+  private void flushShards() throws IOException {
+    if (staged == null) {
+      return;
+    }
+    Map<String, ShardState> current = loadShards();
+    Map<String, ShardState> desired = new HashMap<>();
+    current.keySet().forEach(shard -> desired.put(shard, new ShardState()));
+    Function<String, ShardState> shardState =
+        shard -> desired.computeIfAbsent(shard, key -> new ShardState());
+
+    staged.topics.forEach(topic -> shardState.apply(shardFor(topic)).topics.add(topic));
+    staged.bindings.forEach(
+        binding -> shardState.apply(shardFor(binding.getResourceName())).bindings.add(binding));
+    shardState.apply(GLOBAL_SHARD).accounts.addAll(staged.accounts);
+
+    for (String shard : new ArrayList<>(desired.keySet())) {
+      if (!current.containsKey(shard)) {
+        ShardState stored = loadShard(shard);
+        desired.get(shard).topics.addAll(stored.topics);
+        desired.get(shard).bindings.addAll(stored.bindings);
+      }
+    }
+
+    Map<String, String> metadata = desired.get(GLOBAL_SHARD).metadata;
+    metadata.putAll(stagedMetadata != null ? stagedMetadata : loadMetadata());
+    metadata.put(SHARD_INDEX_KEY, String.join(",", index(desired)));
+
+    for (Map.Entry<String, ShardState> entry : desired.entrySet()) {
+      String shard = entry.getKey();
+      ShardState state = entry.getValue();
+      if (state.equals(current.get(shard))) {
+        continue;
+      }
+      LOGGER.debug(String.format("Writing the state shard [%s]", shard));
+      Backend backend = store().shard(GLOBAL_SHARD.equals(shard) ? null : shard);
+      backend.createOrOpen(Mode.TRUNCATE);
+      backend.saveType("acls");
+      backend.saveBindings(state.bindings);
+      backend.saveType("ServiceAccounts");
+      backend.saveAccounts(state.accounts);
+      backend.saveType("Topics");
+      backend.saveTopics(state.topics);
+      if (GLOBAL_SHARD.equals(shard)) {
+        backend.saveMetadata(state.metadata);
+      }
+      backend.close();
+      current.put(shard, state);
+    }
+    indexed = parseIndex(metadata.get(SHARD_INDEX_KEY));
+    staged = null;
+    stagedMetadata = null;
+  }
+
+  /**
+   * @return the name prefix of the projects with a stored shard: the projects of the topology, the
+   *     removed projects whose shard is not empty yet, and the indexed projects that were not
+   *     loaded
+   */
+  private Set<String> index(Map<String, ShardState> desired) {
+    Set<String> index = new TreeSet<>();
+    for (Map.Entry<String, String> entry : shardsByPrefix.entrySet()) {
+      String prefix = entry.getKey().substring(0, entry.getKey().length() - separatorLength());
+      ShardState state = desired.get(entry.getValue());
+      if (namePrefixes.contains(prefix)
+          || (state == null ? indexed.contains(prefix) : !state.isEmpty())) {
+        index.add(prefix);
+      }
+    }
+    return index;
+  }
+
+  private int separatorLength() {
+    return config.getTopicPrefixSeparator().length();
+  }
+
+  /**
+   * Store the staged state, keeping what the shards share open for the next saves.
+   *
+   * @throws UncheckedIOException if the state could not be stored
+   */
+  @Override
+  public void flush() {
+    try {
+      flushShards();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to store the sharded state", e);
+    }
+  }
+
+  /**
+   * Store the staged state, and release what the shards share.
+   *
+   * @throws UncheckedIOException if the state could not be stored, so the run is not reported as
+   *     successful with a stale state
+   */
+  @Override
+  public void close() {
+    try {
+      flush();
+    } finally {
+      if (store != null) {
+        store.close();
+        store = null;
+      }
+    }
+  }
+
+  private static class ShardState {
+    Set<TopologyAclBinding> bindings = new HashSet<>();
+    Set<ServiceAccount> accounts = new HashSet<>();
+    Set<String> topics = new HashSet<>();
+    Map<String, String> metadata = new HashMap<>();
+
+    boolean isEmpty() {
+      return bindings.isEmpty() && accounts.isEmpty() && topics.isEmpty() && metadata.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ShardState)) {
+        return false;
+      }
+      ShardState that = (ShardState) o;
+      return bindings.equals(that.bindings)
+          && accounts.equals(that.accounts)
+          && topics.equals(that.topics)
+          && metadata.equals(that.metadata);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bindings, accounts, topics, metadata);
+    }
+  }
+}
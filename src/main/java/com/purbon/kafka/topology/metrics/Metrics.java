@@ -0,0 +1,137 @@
+package com.purbon.kafka.topology.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The metrics of the Kafka Topology Builder: the remote calls to the Kafka, MDS, Schema Registry
+ * and Confluent Cloud APIs with their errors, the bytes of state read and written by the backends
+ * and the resources created, updated or deleted.
+ *
+ * <p>Metrics are off by default, nothing is then recorded. Once enabled, the registry can be
+ * exposed over JMX and written as a Prometheus text file.
+ */
+public final class Metrics {
+
+  private static final Logger LOGGER = LogManager.getLogger(Metrics.class);
+
+  public static final String OBJECT_NAME = "com.purbon.kafka.topology:type=Metrics";
+
+  static final String CALLS = "ktb_remote_calls_total";
+  static final String CALL_ERRORS = "ktb_remote_call_errors_total";
+  static final String CALL_SECONDS = "ktb_remote_call_seconds";
+  static final String STATE_BYTES_READ = "ktb_state_read_bytes_total";
+  static final String STATE_BYTES_WRITTEN = "ktb_state_written_bytes_total";
+  static final String RESOURCES = "ktb_resources_changed_total";
+
+  private static volatile MetricsRegistry registry = null;
+
+  private Metrics() {}
+
+  /**
+   * Start recording the metrics in a new registry.
+   *
+   * @param jmx If true, the registry is registered as an MBean, replacing the previous one
+   */
+  public static void enable(boolean jmx) {
+    MetricsRegistry newRegistry = new MetricsRegistry();
+    if (jmx) {
+      registerMBean(newRegistry);
+    }
+    registry = newRegistry;
+  }
+
+  public static void disable() {
+    registry = null;
+  }
+
+  public static boolean isEnabled() {
+    return registry != null;
+  }
+
+  /** @return the current registry, null if the metrics are not enabled */
+  public static MetricsRegistry registry() {
+    return registry;
+  }
+
+  /**
+   * @param client The remote API called, like admin, mds, schema-registry or ccloud
+   * @param operation The operation called
+   * @param nanos The duration of the call
+   */
+  public static void call(String client, String operation, long nanos) {
+    MetricsRegistry current = registry;
+    if (current != null) {
+      current.increment(CALLS, "client", client, "operation", operation);
+      current.observe(CALL_SECONDS, nanos, "client", client, "operation", operation);
+    }
+  }
+
+  public static void callError(String client, String operation) {
+    MetricsRegistry current = registry;
+    if (current != null) {
+      current.increment(CALL_ERRORS, "client", client, "operation", operation);
+    }
+  }
+
+  public static void stateBytesRead(String backend, long bytes) {
+    MetricsRegistry current = registry;
+    if (current != null) {
+      current.add(STATE_BYTES_READ, bytes, "backend", backend);
+    }
+  }
+
+  public static void stateBytesWritten(String backend, long bytes) {
+    MetricsRegistry current = registry;
+    if (current != null) {
+      current.add(STATE_BYTES_WRITTEN, bytes, "backend", backend);
+    }
+  }
+
+  /**
+   * @param resource The resource changed: topic, binding or account
+   * @param operation The change: create, update or delete
+   * @param count The number of resources changed
+   */
+  public static void resourcesChanged(String resource, String operation, long count) {
+    MetricsRegistry current = registry;
+    if (current != null && count > 0) {
+      current.add(RESOURCES, count, "resource", resource, "operation", operation);
+    }
+  }
+
+  /** Write the current metrics as a Prometheus text file, if the metrics are enabled. */
+  public static void writeTextFile(Path path) throws IOException {
+    MetricsRegistry current = registry;
+    if (current != null) {
+      new PrometheusTextFile(current).write(path);
+    }
+  }
+
+  private static void registerMBean(MetricsRegistry newRegistry) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(new MetricsMBean(newRegistry), name);
+    } catch (MalformedObjectNameException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | MBeanRegistrationException
+        | NotCompliantMBeanException e) {
+      LOGGER.error("The metrics could not be registered over JMX", e);
+    }
+  }
+}
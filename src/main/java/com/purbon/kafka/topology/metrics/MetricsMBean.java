@@ -0,0 +1,116 @@
+package com.purbon.kafka.topology.metrics;
+
+import com.purbon.kafka.topology.metrics.MetricsRegistry.MetricKey;
+import com.purbon.kafka.topology.metrics.MetricsRegistry.Summary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+
+/**
+ * Read only view of a metrics registry over JMX. Every counter is an attribute, every summary two
+ * attributes, its count and its sum in seconds.
+ */
+class MetricsMBean implements DynamicMBean {
+
+  static final String COUNT_SUFFIX = "_count";
+  static final String SUM_SUFFIX = "_sum";
+
+  private final MetricsRegistry registry;
+
+  MetricsMBean(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    for (Map.Entry<MetricKey, Long> counter : registry.counters().entrySet()) {
+      if (counter.getKey().toString().equals(attribute)) {
+        return counter.getValue();
+      }
+    }
+    for (Map.Entry<MetricKey, Summary> summary : registry.summaries().entrySet()) {
+      if (attributeName(summary.getKey(), COUNT_SUFFIX).equals(attribute)) {
+        return summary.getValue().getCount();
+      } else if (attributeName(summary.getKey(), SUM_SUFFIX).equals(attribute)) {
+        return summary.getValue().getSumSeconds();
+      }
+    }
+    throw new AttributeNotFoundException(attribute);
+  }
+
+  private static String attributeName(MetricKey key, String suffix) {
+    return new MetricKey(key.getName() + suffix, flatten(key.getLabels())).toString();
+  }
+
+  private static String[] flatten(Map<String, String> labels) {
+    List<String> pairs = new ArrayList<>();
+    labels.forEach(
+        (name, value) -> {
+          pairs.add(name);
+          pairs.add(value);
+        });
+    return pairs.toArray(new String[0]);
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) {
+    throw new UnsupportedOperationException("The metrics are read only");
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    AttributeList list = new AttributeList();
+    for (String attribute : attributes) {
+      try {
+        list.add(new Attribute(attribute, getAttribute(attribute)));
+      } catch (AttributeNotFoundException e) {
+        // missing attributes are left out, as the JMX contract allows
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature) {
+    throw new UnsupportedOperationException("The metrics have no operations");
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    List<MBeanAttributeInfo> attributes = new ArrayList<>();
+    registry
+        .counters()
+        .keySet()
+        .forEach(key -> attributes.add(attributeInfo(key.toString(), Long.class.getName())));
+    registry
+        .summaries()
+        .keySet()
+        .forEach(
+            key -> {
+              attributes.add(attributeInfo(attributeName(key, COUNT_SUFFIX), Long.class.getName()));
+              attributes.add(attributeInfo(attributeName(key, SUM_SUFFIX), Double.class.getName()));
+            });
+    return new MBeanInfo(
+        getClass().getName(),
+        "Kafka Topology Builder metrics",
+        attributes.toArray(new MBeanAttributeInfo[0]),
+        null,
+        null,
+        null);
+  }
+
+  private static MBeanAttributeInfo attributeInfo(String name, String type) {
+    return new MBeanAttributeInfo(name, type, name, true, false, false);
+  }
+}
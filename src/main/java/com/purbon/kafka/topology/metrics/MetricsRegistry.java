@@ -0,0 +1,141 @@
+package com.purbon.kafka.topology.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the counters and summaries of a run, identified by a metric name and a set of labels,
+ * as in the Prometheus data model.
+ */
+public class MetricsRegistry {
+
+  /** A metric name with its labels, ordered by label name. */
+  public static final class MetricKey implements Comparable<MetricKey> {
+
+    private final String name;
+    private final TreeMap<String, String> labels;
+
+    MetricKey(String name, String... labels) {
+      if (labels.length % 2 != 0) {
+        throw new IllegalArgumentException("Labels should be name and value pairs");
+      }
+      this.name = name;
+      this.labels = new TreeMap<>();
+      for (int i = 0; i < labels.length; i += 2) {
+        this.labels.put(labels[i], labels[i + 1]);
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Map<String, String> getLabels() {
+      return Collections.unmodifiableMap(labels);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof MetricKey)) {
+        return false;
+      }
+      MetricKey that = (MetricKey) o;
+      return name.equals(that.name) && labels.equals(that.labels);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, labels);
+    }
+
+    @Override
+    public int compareTo(MetricKey o) {
+      int result = name.compareTo(o.name);
+      return result != 0 ? result : labels.toString().compareTo(o.labels.toString());
+    }
+
+    @Override
+    public String toString() {
+      return labels.isEmpty() ? name : name + labels;
+    }
+  }
+
+  /** The count and the sum of the observations of a summary. */
+  public static final class Summary {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    void observe(long nanos) {
+      count.increment();
+      sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public double getSumSeconds() {
+      return sumNanos.sum() / 1_000_000_000.0;
+    }
+  }
+
+  private final ConcurrentMap<MetricKey, LongAdder> counters;
+  private final ConcurrentMap<MetricKey, Summary> summaries;
+
+  public MetricsRegistry() {
+    this.counters = new ConcurrentHashMap<>();
+    this.summaries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param name The name of the counter
+   * @param value The value to add to the counter
+   * @param labels The labels of the counter, as name and value pairs
+   */
+  public void add(String name, long value, String... labels) {
+    counters.computeIfAbsent(new MetricKey(name, labels), key -> new LongAdder()).add(value);
+  }
+
+  public void increment(String name, String... labels) {
+    add(name, 1, labels);
+  }
+
+  /**
+   * @param name The name of the summary
+   * @param nanos The observed duration, in nanoseconds
+   * @param labels The labels of the summary, as name and value pairs
+   */
+  public void observe(String name, long nanos, String... labels) {
+    summaries.computeIfAbsent(new MetricKey(name, labels), key -> new Summary()).observe(nanos);
+  }
+
+  public long counter(String name, String... labels) {
+    LongAdder counter = counters.get(new MetricKey(name, labels));
+    return counter == null ? 0 : counter.sum();
+  }
+
+  public Summary summary(String name, String... labels) {
+    return summaries.get(new MetricKey(name, labels));
+  }
+
+  /** @return the counters, ordered by name and labels */
+  public Map<MetricKey, Long> counters() {
+    Map<MetricKey, Long> values = new TreeMap<>();
+    counters.forEach((key, counter) -> values.put(key, counter.sum()));
+    return values;
+  }
+
+  /** @return the summaries, ordered by name and labels */
+  public Map<MetricKey, Summary> summaries() {
+    return new TreeMap<>(summaries);
+  }
+}
@@ -0,0 +1,91 @@
+package com.purbon.kafka.topology.metrics;
+
+import com.purbon.kafka.topology.metrics.MetricsRegistry.MetricKey;
+import com.purbon.kafka.topology.metrics.MetricsRegistry.Summary;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a metrics registry in the Prometheus text exposition format, to be scraped by the textfile
+ * collector of the node exporter. The file is written aside and moved in place, so the collector
+ * never reads a partial file.
+ */
+public class PrometheusTextFile {
+
+  private static final Map<String, String> HELP = new HashMap<>();
+
+  static {
+    HELP.put(Metrics.CALLS, "Remote calls, per client API and operation");
+    HELP.put(Metrics.CALL_ERRORS, "Failed remote calls, per client API and operation");
+    HELP.put(Metrics.CALL_SECONDS, "Duration of the remote calls, per client API and operation");
+    HELP.put(Metrics.STATE_BYTES_READ, "Bytes of state read, per backend");
+    HELP.put(Metrics.STATE_BYTES_WRITTEN, "Bytes of state written, per backend");
+    HELP.put(Metrics.RESOURCES, "Resources created, updated or deleted, per resource type");
+  }
+
+  private final MetricsRegistry registry;
+
+  public PrometheusTextFile(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void write(Path path) throws IOException {
+    Path parent = path.toAbsolutePath().getParent();
+    Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+      write(writer);
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public void write(Writer writer) throws IOException {
+    Set<String> described = new HashSet<>();
+    for (Map.Entry<MetricKey, Long> counter : registry.counters().entrySet()) {
+      describe(writer, described, counter.getKey().getName(), "counter");
+      writeSample(writer, counter.getKey().getName(), counter.getKey(), counter.getValue());
+    }
+    for (Map.Entry<MetricKey, Summary> summary : registry.summaries().entrySet()) {
+      MetricKey key = summary.getKey();
+      describe(writer, described, key.getName(), "summary");
+      writeSample(writer, key.getName() + "_count", key, summary.getValue().getCount());
+      writeSample(writer, key.getName() + "_sum", key, summary.getValue().getSumSeconds());
+    }
+  }
+
+  private void describe(Writer writer, Set<String> described, String name, String type)
+      throws IOException {
+    if (described.add(name)) {
+      writer.write("# HELP " + name + " " + HELP.getOrDefault(name, name) + "\n");
+      writer.write("# TYPE " + name + " " + type + "\n");
+    }
+  }
+
+  private void writeSample(Writer writer, String name, MetricKey key, Number value)
+      throws IOException {
+    StringBuilder sample = new StringBuilder(name);
+    if (!key.getLabels().isEmpty()) {
+      sample.append('{');
+      String separator = "";
+      for (Map.Entry<String, String> label : key.getLabels().entrySet()) {
+        sample.append(separator).append(label.getKey()).append("=\"");
+        sample.append(escape(label.getValue())).append('"');
+        separator = ",";
+      }
+      sample.append('}');
+    }
+    sample.append(' ').append(value).append('\n');
+    writer.write(sample.toString());
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
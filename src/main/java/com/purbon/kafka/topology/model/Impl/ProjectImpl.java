@@ -33,6 +33,8 @@ public class ProjectImpl implements Project, Cloneable {
 
   @JsonIgnore private List<String> order;
   @JsonIgnore private Map<String, Object> prefixContext;
+  // the name prefix, resolved once for the current context and order
+  @JsonIgnore private volatile String namePrefix;
 
   public ProjectImpl() {
     this("default");
@@ -160,8 +162,13 @@ public class ProjectImpl implements Project, Cloneable {
   }
 
   public String namePrefix() {
-    if (config.getProjectPrefixFormat().equals("default")) return namePrefix(buildNamePrefix());
-    else return patternBasedProjectPrefix();
+    String prefix = namePrefix;
+    if (prefix == null) {
+      if (config.getProjectPrefixFormat().equals("default")) prefix = namePrefix(buildNamePrefix());
+      else prefix = patternBasedProjectPrefix();
+      namePrefix = prefix;
+    }
+    return prefix;
   }
 
   private String patternBasedProjectPrefix() {
@@ -197,6 +204,7 @@ public class ProjectImpl implements Project, Cloneable {
     this.prefixContext = prefixContext;
     this.prefixContext.put("project", getName());
     this.order = order;
+    this.namePrefix = null;
   }
 
   @Override
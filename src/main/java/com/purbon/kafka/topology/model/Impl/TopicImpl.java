@@ -45,6 +45,8 @@ public class TopicImpl implements Topic, Cloneable {
   private short replicationFactor;
 
   @JsonIgnore private String projectPrefix;
+  // the full topic name, resolved once for the current prefix and context
+  @JsonIgnore private volatile String fullName;
   private static String DEFAULT_PARTITION_COUNT = "3";
   private static String DEFAULT_REPLICATION_FACTOR = "2";
 
@@ -144,9 +146,11 @@ public class TopicImpl implements Topic, Cloneable {
   }
 
   private String patternBasedTopicNameStructureString() {
-    context.put("topic", name);
-    dataType.ifPresent(s -> context.put("dataType", s));
-    return JinjaUtils.serialise(appConfig.getTopicPrefixFormat(), context);
+    // the context is shared by the topics of a project, so it is never modified
+    Map<String, Object> topicContext = new HashMap<>(context);
+    topicContext.put("topic", name);
+    dataType.ifPresent(s -> topicContext.put("dataType", s));
+    return JinjaUtils.serialise(appConfig.getTopicPrefixFormat(), topicContext);
   }
 
   private String defaultTopicStructureString(String projectPrefix) {
@@ -162,7 +166,12 @@ public class TopicImpl implements Topic, Cloneable {
 
   @Override
   public String toString() {
-    return toString(projectPrefix);
+    String name = fullName;
+    if (name == null) {
+      name = toString(projectPrefix);
+      fullName = name;
+    }
+    return name;
   }
 
   @Override
@@ -185,11 +194,13 @@ public class TopicImpl implements Topic, Cloneable {
 
   public void setDefaultProjectPrefix(String projectPrefix) {
     this.projectPrefix = projectPrefix;
+    this.fullName = null;
   }
 
   @Override
   public void setPrefixContext(Map<String, Object> properties) {
     this.context = properties;
+    this.fullName = null;
   }
 
   @Override
@@ -230,6 +241,7 @@ public class TopicImpl implements Topic, Cloneable {
 
   public void addAppConfig(TopologyBuilderConfig appConfig) {
     this.appConfig = appConfig;
+    this.fullName = null;
   }
 
   public Map<String, String> getMetadata() {
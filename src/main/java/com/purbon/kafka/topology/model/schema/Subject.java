@@ -52,6 +52,10 @@ public class Subject {
     return schemaFile.isPresent();
   }
 
+  public Optional<String> getRecordType() {
+    return recordType;
+  }
+
   private String recordTypeAsString() throws IOException {
     return recordType.orElseThrow(() -> new IOException("Missing record type for " + schemaFile));
   }
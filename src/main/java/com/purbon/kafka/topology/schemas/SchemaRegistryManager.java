@@ -1,20 +1,49 @@
 package com.purbon.kafka.topology.schemas;
 
+import com.purbon.kafka.topology.metrics.Metrics;
+import com.purbon.kafka.topology.timing.Timings;
+import com.purbon.kafka.topology.utils.HashUtils;
+import io.confluent.kafka.schemaregistry.CompatibilityChecker;
+import io.confluent.kafka.schemaregistry.CompatibilityLevel;
 import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+/**
+ * Registers the schemas of the topics, and sets the compatibility of their subjects.
+ *
+ * <p>The fingerprint of the canonical form of each registered schema, and the compatibility set for
+ * each subject, can be kept with the state. A schema, or a compatibility, that matches the one
+ * applied by a previous run is not sent to the Schema Registry again.
+ *
+ * <p>Schema files are read once, and schemas are parsed once per type and content, so a schema
+ * shared by many topics is only read and parsed once per run.
+ */
 public class SchemaRegistryManager {
 
   private static final Logger LOGGER = LogManager.getLogger(SchemaRegistryManager.class);
 
+  static final String SCHEMA_KEY_PREFIX = "schema.fingerprint.";
+  static final String COMPATIBILITY_KEY_PREFIX = "schema.compatibility.";
+
+  private static final int NOT_FOUND = 404;
+
   static class SchemaRegistryManagerException extends RuntimeException {
     public SchemaRegistryManagerException(String message) {
       super(message);
@@ -27,6 +56,13 @@ public class SchemaRegistryManager {
 
   private final SchemaRegistryClient schemaRegistryClient;
   private final String rootPath;
+  // subject -> the id and the fingerprint of the last registered schema, as "id:fingerprint"
+  private final ConcurrentMap<String, String> schemas;
+  private final ConcurrentMap<String, String> compatibilities;
+  private final ConcurrentMap<Path, String> schemaFiles;
+  // schema type and the hash of the schema content -> the parsed schema
+  private final ConcurrentMap<String, CachedSchema> parsedSchemas;
+  private volatile String globalCompatibility;
 
   public SchemaRegistryManager(
       SchemaRegistryClient schemaRegistryClient, String topologyFileOrDir) {
@@ -35,6 +71,45 @@ public class SchemaRegistryManager {
         Files.isDirectory(Paths.get(topologyFileOrDir))
             ? topologyFileOrDir
             : new File(topologyFileOrDir).getParent();
+    this.schemas = new ConcurrentHashMap<>();
+    this.compatibilities = new ConcurrentHashMap<>();
+    this.schemaFiles = new ConcurrentHashMap<>();
+    this.parsedSchemas = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Forget the schema files read and the global compatibility level fetched so far, so they are
+   * read again by the next run of a long running process. Parsed schemas are kept, as they are
+   * cached by their content.
+   */
+  public void refresh() {
+    schemaFiles.clear();
+    globalCompatibility = null;
+  }
+
+  /**
+   * Load the schemas and compatibilities applied by previous runs.
+   *
+   * @param metadata the metadata stored with the state
+   */
+  public void loadState(Map<String, String> metadata) {
+    metadata.forEach(
+        (key, value) -> {
+          if (key.startsWith(SCHEMA_KEY_PREFIX)) {
+            schemas.put(key.substring(SCHEMA_KEY_PREFIX.length()), value);
+          } else if (key.startsWith(COMPATIBILITY_KEY_PREFIX)) {
+            compatibilities.put(key.substring(COMPATIBILITY_KEY_PREFIX.length()), value);
+          }
+        });
+  }
+
+  /** @return the schemas and compatibilities applied so far, as stored with the state */
+  public Map<String, String> stateMetadata() {
+    Map<String, String> metadata = new HashMap<>();
+    schemas.forEach((subject, value) -> metadata.put(SCHEMA_KEY_PREFIX + subject, value));
+    compatibilities.forEach(
+        (subject, value) -> metadata.put(COMPATIBILITY_KEY_PREFIX + subject, value));
+    return metadata;
   }
 
   public int register(String subjectName, String schemaFile, String format) {
@@ -49,18 +124,136 @@ public class SchemaRegistryManager {
     LOGGER.debug(
         String.format("Registering subject %s with source %s", subjectName, schemaFilePath));
     try {
-      final String schema = new String(Files.readAllBytes(schemaFilePath));
-      return save(subjectName, format, schema);
+      return save(subjectName, format, readSchemaFile(schemaFilePath));
     } catch (Exception e) {
       throw new SchemaRegistryManagerException(
           "Failed to parse the schema file " + schemaFilePath, e);
     }
   }
 
-  public String setCompatibility(String subject, String compatibility) {
+  /**
+   * Check a schema against the latest version of its subject, locally, with the compatibility level
+   * the Schema Registry will apply when it is registered. Schemas already registered by a previous
+   * run, and subjects without any version yet, are not checked.
+   *
+   * @param subjectName the subject the schema is registered under
+   * @param schemaFile the schema file, relative to the topology
+   * @param format the schema type
+   * @throws SchemaRegistryManagerException if the schema is not compatible, or can not be checked
+   */
+  public void checkCompatibility(String subjectName, String schemaFile, String format) {
+    CachedSchema schema;
+    try {
+      schema = parse(subjectName, format, readSchemaFile(schemaFilePath(schemaFile)));
+    } catch (UncheckedIOException e) {
+      throw new SchemaRegistryManagerException("Failed to parse the schema file " + schemaFile, e);
+    }
+    String registered = schemas.get(subjectName);
+    if (registered != null && registered.endsWith(":" + schema.fingerprint)) {
+      return;
+    }
+
+    Optional<SchemaMetadata> latest =
+        fetch("getLatestSchemaMetadata", subjectName, () -> latestSchemaMetadata(subjectName));
+    if (!latest.isPresent()) {
+      LOGGER.debug(String.format("Subject %s has no version yet", subjectName));
+      return;
+    }
+    String level = compatibility(subjectName);
+    CompatibilityLevel compatibilityLevel = CompatibilityLevel.forName(level);
+    if (compatibilityLevel == null) {
+      throw new SchemaRegistryManagerException(
+          String.format("Unknown compatibility level '%s' of subject '%s'", level, subjectName));
+    }
+    if (compatibilityLevel == CompatibilityLevel.NONE) {
+      return;
+    }
+
+    SchemaMetadata metadata = latest.get();
+    String latestType =
+        metadata.getSchemaType() == null ? AvroSchema.TYPE : metadata.getSchemaType();
+    ParsedSchema latestSchema =
+        schemaRegistryClient
+            .parseSchema(latestType, metadata.getSchema(), metadata.getReferences())
+            .orElseThrow(
+                () ->
+                    new SchemaRegistryManagerException(
+                        String.format(
+                            "Failed to parse the version %s of subject '%s'",
+                            metadata.getVersion(), subjectName)));
+    if (!CompatibilityChecker.checker(compatibilityLevel)
+        .isCompatible(schema.parsedSchema, Collections.singletonList(latestSchema))) {
+      throw new SchemaRegistryManagerException(
+          String.format(
+              "The schema %s of subject '%s' is not %s compatible with its version %s",
+              schemaFile, subjectName, level, metadata.getVersion()));
+    }
+  }
+
+  private Optional<SchemaMetadata> latestSchemaMetadata(String subjectName)
+      throws IOException, RestClientException {
     try {
-      return schemaRegistryClient.updateCompatibility(subject, compatibility);
+      return Optional.of(schemaRegistryClient.getLatestSchemaMetadata(subjectName));
+    } catch (RestClientException e) {
+      if (e.getStatus() == NOT_FOUND) {
+        return Optional.empty();
+      }
+      throw e;
+    }
+  }
+
+  /** The compatibility level of the subject, or the global one if the subject has none. */
+  private String compatibility(String subjectName) {
+    String level =
+        fetch(
+            "getCompatibility",
+            subjectName,
+            () -> {
+              try {
+                return schemaRegistryClient.getCompatibility(subjectName);
+              } catch (RestClientException e) {
+                if (e.getStatus() == NOT_FOUND) {
+                  return null;
+                }
+                throw e;
+              }
+            });
+    if (level != null) {
+      return level;
+    }
+    if (globalCompatibility == null) {
+      globalCompatibility =
+          fetch("getCompatibility", "", () -> schemaRegistryClient.getCompatibility(null));
+    }
+    return globalCompatibility;
+  }
+
+  private interface SchemaRegistryCall<T> {
+    T call() throws IOException, RestClientException;
+  }
+
+  private static <T> T fetch(String operation, String subjectName, SchemaRegistryCall<T> call) {
+    try (Timings.Timer timer = Timings.call("schema-registry", operation)) {
+      return call.call();
+    } catch (IOException | RestClientException e) {
+      Metrics.callError("schema-registry", operation);
+      throw new SchemaRegistryManagerException(
+          String.format("Failed to call %s for subject '%s'", operation, subjectName), e);
+    }
+  }
+
+  public String setCompatibility(String subject, String compatibility) {
+    if (compatibility.equalsIgnoreCase(compatibilities.get(subject))) {
+      LOGGER.debug(
+          String.format("Compatibility of subject %s is already %s", subject, compatibility));
+      return compatibility;
+    }
+    try (Timings.Timer timer = Timings.call("schema-registry", "updateCompatibility")) {
+      String result = schemaRegistryClient.updateCompatibility(subject, compatibility);
+      compatibilities.put(subject, compatibility);
+      return result;
     } catch (Exception e) {
+      Metrics.callError("schema-registry", "updateCompatibility");
       final String msg =
           String.format(
               "Failed to register the schema compatibility mode '%s' for subject '%s'",
@@ -69,7 +262,23 @@ public class SchemaRegistryManager {
     }
   }
 
-  private Path schemaFilePath(String schemaFile) {
+  /**
+   * Hash the content of a schema file, as read for the registration and hashed for the cache of
+   * parsed schemas.
+   *
+   * @param schemaFile the schema file, relative to the topology
+   * @return the hex encoded SHA-256 hash of the content of the schema file
+   * @throws IOException if the schema file can not be read
+   */
+  public String schemaContentHash(String schemaFile) throws IOException {
+    try {
+      return HashUtils.sha256Hex(readSchemaFile(schemaFilePath(schemaFile)));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  public Path schemaFilePath(String schemaFile) {
     Path mayBeAbsolutePath = Paths.get(schemaFile);
     Path path =
         mayBeAbsolutePath.isAbsolute() ? mayBeAbsolutePath : Paths.get(rootPath, schemaFile);
@@ -77,23 +286,35 @@ public class SchemaRegistryManager {
     return path;
   }
 
+  private String readSchemaFile(Path schemaFilePath) {
+    return schemaFiles.computeIfAbsent(
+        schemaFilePath.toAbsolutePath().normalize(),
+        path -> {
+          try {
+            return new String(Files.readAllBytes(path));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
   protected int save(String subjectName, String schemaType, String schemaString) {
-    final Optional<ParsedSchema> maybeSchema =
-        schemaRegistryClient.parseSchema(schemaType, schemaString, Collections.emptyList());
+    CachedSchema schema = parse(subjectName, schemaType, schemaString);
+    ParsedSchema parsedSchema = schema.parsedSchema;
+    String fingerprint = schema.fingerprint;
 
-    final ParsedSchema parsedSchema =
-        maybeSchema.orElseThrow(
-            () -> {
-              final String msg =
-                  String.format(
-                      "Failed to parse the schema for subject '%s' of type '%s'",
-                      subjectName, schemaType);
-              return new SchemaRegistryManagerException(msg);
-            });
+    String registered = schemas.get(subjectName);
+    if (registered != null && registered.endsWith(":" + fingerprint)) {
+      LOGGER.debug(String.format("Schema of subject %s is already registered", subjectName));
+      return Integer.parseInt(registered.substring(0, registered.indexOf(':')));
+    }
 
-    try {
-      return schemaRegistryClient.register(subjectName, parsedSchema);
+    try (Timings.Timer timer = Timings.call("schema-registry", "register")) {
+      int id = schemaRegistryClient.register(subjectName, parsedSchema);
+      schemas.put(subjectName, id + ":" + fingerprint);
+      return id;
     } catch (Exception e) {
+      Metrics.callError("schema-registry", "register");
       final String msg =
           String.format(
               "Failed to register the schema for subject '%s' of type '%s'",
@@ -101,4 +322,48 @@ public class SchemaRegistryManager {
       throw new SchemaRegistryManagerException(msg, e);
     }
   }
+
+  private CachedSchema parse(String subjectName, String schemaType, String schemaString) {
+    String key;
+    try {
+      key = schemaType + ":" + HashUtils.sha256Hex(schemaString);
+    } catch (IOException e) {
+      throw new SchemaRegistryManagerException("Failed to hash the schema", e);
+    }
+    return parsedSchemas.computeIfAbsent(
+        key,
+        k -> {
+          ParsedSchema parsedSchema =
+              schemaRegistryClient
+                  .parseSchema(schemaType, schemaString, Collections.emptyList())
+                  .orElseThrow(
+                      () -> {
+                        final String msg =
+                            String.format(
+                                "Failed to parse the schema for subject '%s' of type '%s'",
+                                subjectName, schemaType);
+                        return new SchemaRegistryManagerException(msg);
+                      });
+          return new CachedSchema(parsedSchema, fingerprint(parsedSchema));
+        });
+  }
+
+  private static String fingerprint(ParsedSchema schema) {
+    try {
+      // the schemas of a topology are parsed without references
+      return HashUtils.sha256Hex(schema.schemaType() + ":" + schema.canonicalString());
+    } catch (IOException e) {
+      throw new SchemaRegistryManagerException("Failed to fingerprint the schema", e);
+    }
+  }
+
+  private static class CachedSchema {
+    private final ParsedSchema parsedSchema;
+    private final String fingerprint;
+
+    private CachedSchema(ParsedSchema parsedSchema, String fingerprint) {
+      this.parsedSchema = parsedSchema;
+      this.fingerprint = fingerprint;
+    }
+  }
 }
@@ -0,0 +1,363 @@
+package com.purbon.kafka.topology.serdes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.purbon.kafka.topology.AccessControlProvider;
+import com.purbon.kafka.topology.PlanArtifact;
+import com.purbon.kafka.topology.PrincipalProvider;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.actions.BaseAccountsAction;
+import com.purbon.kafka.topology.actions.access.ClearBindings;
+import com.purbon.kafka.topology.actions.access.CreateBindings;
+import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
+import com.purbon.kafka.topology.actions.accounts.CreateAccounts;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
+import com.purbon.kafka.topology.actions.topics.DeleteTopics;
+import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
+import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.api.mds.RequestScope;
+import com.purbon.kafka.topology.model.Impl.TopicImpl;
+import com.purbon.kafka.topology.model.SubjectNameStrategy;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.TopicSchemas;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.model.schema.Subject;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.common.acl.AccessControlEntry;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+
+/**
+ * Serdes for {@link PlanArtifact}. Actions are stored with the inputs they need to run (topic
+ * configs, bindings, accounts and absolute schema file paths), and bound again to the clients of
+ * the applying run when read.
+ */
+public class PlanArtifactSerdes {
+
+  private static final String CREATE_ACCOUNTS = "CreateAccounts";
+  private static final String SYNC_TOPIC = "SyncTopic";
+  private static final String REGISTER_SCHEMA = "RegisterSchema";
+  private static final String CREATE_BINDINGS = "CreateBindings";
+  private static final String DELETE_TOPICS = "DeleteTopics";
+  private static final String CLEAR_BINDINGS = "ClearBindings";
+  private static final String CLEAR_ACCOUNTS = "ClearAccounts";
+
+  private final ObjectMapper mapper;
+  private final TopologyBuilderAdminClient adminClient;
+  private final SchemaRegistryManager schemaRegistryManager;
+  private final AccessControlProvider accessControlProvider;
+  private final PrincipalProvider principalProvider;
+  private final TopologyBuilderConfig topicNameConfig;
+
+  public PlanArtifactSerdes(
+      TopologyBuilderAdminClient adminClient,
+      SchemaRegistryManager schemaRegistryManager,
+      AccessControlProvider accessControlProvider,
+      PrincipalProvider principalProvider) {
+    this.mapper = new ObjectMapper();
+    this.adminClient = adminClient;
+    this.schemaRegistryManager = schemaRegistryManager;
+    this.accessControlProvider = accessControlProvider;
+    this.principalProvider = principalProvider;
+    // topics are stored with their full name, that is used as is
+    Properties props = new Properties();
+    props.put("topology.topic.prefix.format", "name");
+    this.topicNameConfig = new TopologyBuilderConfig(Collections.emptyMap(), props);
+  }
+
+  public String serialise(PlanArtifact artifact) throws IOException {
+    ObjectNode root = mapper.createObjectNode();
+    root.put("version", PlanArtifact.VERSION);
+    root.put("stateFingerprint", artifact.getStateFingerprint());
+    ArrayNode projects = root.putArray("projects");
+    artifact.getProjects().forEach(projects::add);
+    ObjectNode metadata = root.putObject("metadata");
+    artifact.getMetadata().forEach(metadata::put);
+    ArrayNode actions = root.putArray("actions");
+    for (Action action : artifact.getActions()) {
+      actions.add(serialise(action));
+    }
+    return mapper.writeValueAsString(root);
+  }
+
+  private ObjectNode serialise(Action action) throws IOException {
+    ObjectNode node = mapper.createObjectNode();
+    if (action instanceof SyncTopicAction) {
+      SyncTopicAction syncTopicAction = (SyncTopicAction) action;
+      Topic topic = syncTopicAction.getTopicDescriptor();
+      node.put("type", SYNC_TOPIC);
+      node.put("topic", syncTopicAction.getTopic());
+      node.put("update", syncTopicAction.isUpdate());
+      ObjectNode config = node.putObject("config");
+      topic.getConfig().forEach(config::put);
+      node.put("subjectNameStrategy", topic.getSubjectNameStrategy().name());
+      ArrayNode schemas = node.putArray("schemas");
+      for (TopicSchemas topicSchemas : topic.getSchemas()) {
+        ObjectNode schemasNode = schemas.addObject();
+        schemasNode.set("key", serialise(topicSchemas.getKeySubject()));
+        schemasNode.set("value", serialise(topicSchemas.getValueSubject()));
+      }
+    } else if (action instanceof RegisterSchemaAction) {
+      RegisterSchemaAction registerSchemaAction = (RegisterSchemaAction) action;
+      node.put("type", REGISTER_SCHEMA);
+      node.put("topic", registerSchemaAction.getTopic());
+      node.put("subject", registerSchemaAction.getSubject());
+      node.put(
+          "file",
+          schemaRegistryManager
+              .schemaFilePath(registerSchemaAction.getSchemaFile())
+              .toAbsolutePath()
+              .toString());
+      node.put("format", registerSchemaAction.getFormat());
+      registerSchemaAction
+          .getCompatibility()
+          .ifPresent(compatibility -> node.put("compatibility", compatibility));
+    } else if (action instanceof DeleteTopics) {
+      node.put("type", DELETE_TOPICS);
+      ArrayNode topics = node.putArray("topics");
+      ((DeleteTopics) action).getTopicsToBeDeleted().forEach(topics::add);
+    } else if (action instanceof CreateBindings || action instanceof ClearBindings) {
+      node.put("type", action instanceof CreateBindings ? CREATE_BINDINGS : CLEAR_BINDINGS);
+      ArrayNode bindings = node.putArray("bindings");
+      for (TopologyAclBinding binding : action.getBindings()) {
+        bindings.add(serialise(binding));
+      }
+    } else if (action instanceof CreateAccounts || action instanceof ClearAccounts) {
+      node.put("type", action instanceof CreateAccounts ? CREATE_ACCOUNTS : CLEAR_ACCOUNTS);
+      ArrayNode accounts = node.putArray("accounts");
+      for (ServiceAccount account : ((BaseAccountsAction) action).getPrincipals()) {
+        accounts
+            .addObject()
+            .put("id", account.getId())
+            .put("name", account.getName())
+            .put("description", account.getDescription());
+      }
+    } else {
+      throw new IOException(
+          String.format("Action %s can not be stored in a plan artifact", action.getClass()));
+    }
+    return node;
+  }
+
+  private ObjectNode serialise(Subject subject) throws IOException {
+    ObjectNode node = mapper.createObjectNode();
+    if (subject.hasSchemaFile()) {
+      String schemaFile = subject.getSchemaFile();
+      node.put(
+          "file", schemaRegistryManager.schemaFilePath(schemaFile).toAbsolutePath().toString());
+      subject.getRecordType().ifPresent(recordType -> node.put("recordType", recordType));
+      node.put("format", subject.getFormat());
+      subject
+          .getOptionalCompatibility()
+          .ifPresent(compatibility -> node.put("compatibility", compatibility));
+    }
+    return node;
+  }
+
+  private ObjectNode serialise(TopologyAclBinding binding) {
+    ObjectNode node = mapper.createObjectNode();
+    node.put("resourceType", binding.getResourceType().name());
+    node.put("resourceName", binding.getResourceName());
+    node.put("host", binding.getHost());
+    node.put("operation", binding.getOperation());
+    node.put("principal", binding.getPrincipal());
+    node.put("pattern", binding.getPattern());
+    binding
+        .asAclBinding()
+        .ifPresent(
+            aclBinding -> node.put("permission", aclBinding.entry().permissionType().name()));
+    RequestScope scope = binding.getScope();
+    if (scope != null) {
+      ObjectNode scopeNode = node.putObject("scope");
+      scopeNode.set("clusters", mapper.valueToTree(scope.getClusters()));
+      scopeNode.set("resources", mapper.valueToTree(scope.getResources()));
+    }
+    return node;
+  }
+
+  public PlanArtifact deserialise(File file) throws IOException {
+    return deserialise(mapper.readTree(file));
+  }
+
+  public PlanArtifact deserialise(String content) throws IOException {
+    return deserialise(mapper.readTree(content));
+  }
+
+  private PlanArtifact deserialise(JsonNode root) throws IOException {
+    JsonSerdesUtils.validateRequiresKeys(root, "version", "stateFingerprint", "actions");
+    if (root.get("version").asInt() != PlanArtifact.VERSION) {
+      throw new IOException(
+          String.format("Unsupported plan artifact version %s", root.get("version").asInt()));
+    }
+    List<String> projects = new ArrayList<>();
+    root.path("projects").forEach(project -> projects.add(project.asText()));
+    Map<String, String> metadata = new HashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> metadataFields = root.path("metadata").fields();
+    while (metadataFields.hasNext()) {
+      Map.Entry<String, JsonNode> entry = metadataFields.next();
+      metadata.put(entry.getKey(), entry.getValue().asText());
+    }
+    List<Action> actions = new ArrayList<>();
+    for (JsonNode node : root.get("actions")) {
+      actions.add(deserialiseAction(node));
+    }
+    return new PlanArtifact(root.get("stateFingerprint").asText(), projects, metadata, actions);
+  }
+
+  private Action deserialiseAction(JsonNode node) throws IOException {
+    String type = node.path("type").asText();
+    switch (type) {
+      case SYNC_TOPIC:
+        return deserialiseSyncTopic(node);
+      case REGISTER_SCHEMA:
+        return new RegisterSchemaAction(
+            schemaRegistryManager,
+            node.get("topic").asText(),
+            node.get("subject").asText(),
+            node.get("file").asText(),
+            node.get("format").asText(),
+            Optional.ofNullable(node.get("compatibility")).map(JsonNode::asText));
+      case DELETE_TOPICS:
+        List<String> topics = new ArrayList<>();
+        node.get("topics").forEach(topic -> topics.add(topic.asText()));
+        return new DeleteTopics(adminClient, topics);
+      case CREATE_BINDINGS:
+        return new CreateBindings(accessControlProvider, deserialiseBindings(node));
+      case CLEAR_BINDINGS:
+        return new ClearBindings(accessControlProvider, deserialiseBindings(node));
+      case CREATE_ACCOUNTS:
+        return new CreateAccounts(principalProvider, deserialiseAccounts(node));
+      case CLEAR_ACCOUNTS:
+        return new ClearAccounts(principalProvider, deserialiseAccounts(node));
+      default:
+        throw new IOException(String.format("Unknown action type %s in the plan artifact", type));
+    }
+  }
+
+  private SyncTopicAction deserialiseSyncTopic(JsonNode node) {
+    String fullTopicName = node.get("topic").asText();
+    Map<String, String> config = new HashMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = node.path("config").fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> entry = fields.next();
+      config.put(entry.getKey(), entry.getValue().asText());
+    }
+    TopicImpl topic = new TopicImpl(fullTopicName, Optional.empty(), config, topicNameConfig);
+    topic.setSubjectNameStrategy(
+        Optional.of(SubjectNameStrategy.valueOf(node.get("subjectNameStrategy").asText())));
+    List<TopicSchemas> schemas = new ArrayList<>();
+    for (JsonNode schemasNode : node.path("schemas")) {
+      JsonNode key = schemasNode.path("key");
+      JsonNode value = schemasNode.path("value");
+      schemas.add(
+          new TopicSchemas(
+              textNode(key, "file"),
+              textNode(key, "recordType"),
+              textNode(key, "format"),
+              textNode(key, "compatibility"),
+              textNode(value, "file"),
+              textNode(value, "recordType"),
+              textNode(value, "format"),
+              textNode(value, "compatibility")));
+    }
+    topic.setSchemas(schemas);
+    Set<String> listOfTopics =
+        node.get("update").asBoolean()
+            ? Collections.singleton(fullTopicName)
+            : Collections.emptySet();
+    return new SyncTopicAction(adminClient, topic, fullTopicName, listOfTopics);
+  }
+
+  private Optional<JsonNode> textNode(JsonNode node, String field) {
+    return node.hasNonNull(field)
+        ? Optional.of(new TextNode(node.get(field).asText()))
+        : Optional.empty();
+  }
+
+  private Set<TopologyAclBinding> deserialiseBindings(JsonNode node) {
+    Set<TopologyAclBinding> bindings = new LinkedHashSet<>();
+    for (JsonNode bindingNode : node.get("bindings")) {
+      bindings.add(deserialiseBinding(bindingNode));
+    }
+    return bindings;
+  }
+
+  private TopologyAclBinding deserialiseBinding(JsonNode node) {
+    ResourceType resourceType = ResourceType.valueOf(node.get("resourceType").asText());
+    String resourceName = node.get("resourceName").asText();
+    String host = node.get("host").asText();
+    String operation = node.get("operation").asText();
+    String principal = node.get("principal").asText();
+    String pattern = node.get("pattern").asText();
+
+    TopologyAclBinding binding;
+    if (node.hasNonNull("permission")) {
+      AclBinding aclBinding =
+          new AclBinding(
+              new ResourcePattern(resourceType, resourceName, PatternType.valueOf(pattern)),
+              new AccessControlEntry(
+                  principal,
+                  host,
+                  AclOperation.valueOf(operation),
+                  AclPermissionType.valueOf(node.get("permission").asText())));
+      binding = new TopologyAclBinding(aclBinding);
+    } else {
+      binding =
+          new TopologyAclBinding(resourceType, resourceName, host, operation, principal, pattern);
+    }
+
+    JsonNode scopeNode = node.get("scope");
+    if (scopeNode != null) {
+      RequestScope scope = new RequestScope();
+      Map<String, Map<String, String>> clusters = new HashMap<>();
+      Iterator<Map.Entry<String, JsonNode>> clusterFields = scopeNode.path("clusters").fields();
+      while (clusterFields.hasNext()) {
+        Map.Entry<String, JsonNode> entry = clusterFields.next();
+        clusters.put(entry.getKey(), mapper.convertValue(entry.getValue(), Map.class));
+      }
+      scope.setClusters(clusters);
+      for (JsonNode resource : scopeNode.path("resources")) {
+        scope.addResource(
+            resource.get(RequestScope.RESOURCE_TYPE).asText(),
+            resource.get(RequestScope.RESOURCE_NAME).asText(),
+            resource.get(RequestScope.RESOURCE_PATTERN_TYPE).asText());
+      }
+      scope.build();
+      binding.setScope(scope);
+    }
+    return binding;
+  }
+
+  private List<ServiceAccount> deserialiseAccounts(JsonNode node) {
+    List<ServiceAccount> accounts = new ArrayList<>();
+    for (JsonNode accountNode : node.get("accounts")) {
+      accounts.add(
+          new ServiceAccount(
+              accountNode.get("id").asInt(),
+              accountNode.get("name").asText(),
+              accountNode.get("description").asText()));
+    }
+    return accounts;
+  }
+}
@@ -3,6 +3,7 @@ package com.purbon.kafka.topology.serdes;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -27,6 +28,18 @@ public class PlanMapSerdes {
     return mapper.readValue(file, PlanMap.class);
   }
 
+  /**
+   * @param content The content of a plans file
+   * @return the document tree of the plans
+   */
+  public JsonNode readTree(byte[] content) throws IOException {
+    return mapper.readTree(content);
+  }
+
+  public PlanMap deserialise(JsonNode node) throws IOException {
+    return mapper.treeToValue(node, PlanMap.class);
+  }
+
   public PlanMap deserialise(String content) throws IOException {
     return mapper.readValue(content, PlanMap.class);
   }
@@ -0,0 +1,179 @@
+package com.purbon.kafka.topology.serdes;
+
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.CONNECTORS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.CONSUMERS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.CONTEXT_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.NAME_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.PLATFORM_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.PRODUCERS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.PROJECTS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.RBAC_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.SCHEMAS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.STREAMS_KEY;
+import static com.purbon.kafka.topology.serdes.TopologyCustomDeserializer.TOPICS_KEY;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.model.Impl.ProjectImpl;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.users.Connector;
+import com.purbon.kafka.topology.model.users.Consumer;
+import com.purbon.kafka.topology.model.users.KStream;
+import com.purbon.kafka.topology.model.users.Producer;
+import com.purbon.kafka.topology.model.users.Schemas;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Deserializes a topology from the parser tokens, without building the tree of the whole descriptor
+ * first. Projects are handed to a consumer as soon as they are read, so only one project is held in
+ * memory at a time; within a project, every user and topic is read on its own.
+ *
+ * <p>The name of a project depends on the context and the other top level attributes of the
+ * topology, so they have to come before the projects in the descriptor.
+ */
+class StreamingTopologyDeserializer {
+
+  private static final Logger LOGGER = LogManager.getLogger(StreamingTopologyDeserializer.class);
+
+  private final TopologyBuilderConfig config;
+
+  StreamingTopologyDeserializer(TopologyBuilderConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * @param parser A parser positioned before the topology object
+   * @param projectConsumer The consumer of the projects, called in descriptor order
+   * @return the topology, without its projects
+   * @throws IOException if the descriptor is not a valid topology
+   */
+  Topology deserialize(JsonParser parser, java.util.function.Consumer<Project> projectConsumer)
+      throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("A topology should be an object");
+    }
+    Topology topology = new TopologyImpl(config);
+    boolean hasContext = false;
+    boolean hasProjects = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      if (fieldName.equals(PLATFORM_KEY)) {
+        JsonNode platformNode = parser.readValueAsTree();
+        topology.setPlatform(TopologyCustomDeserializer.parsePlatform(parser, platformNode));
+      } else if (fieldName.equals(PROJECTS_KEY)) {
+        if (!hasContext) {
+          throw new IOException(
+              "context is a required field in the topology, and should come before the projects");
+        }
+        parseProjects(parser, topology, projectConsumer);
+        hasProjects = true;
+      } else if (hasProjects) {
+        throw new IOException(
+            String.format("%s should come before the projects in the topology", fieldName));
+      } else if (fieldName.equals(CONTEXT_KEY)) {
+        topology.setContext(parser.getValueAsString());
+        hasContext = true;
+      } else {
+        JsonNode node = parser.readValueAsTree();
+        topology.addOther(fieldName, node.asText());
+      }
+    }
+    if (!hasProjects) {
+      throw new IOException(PROJECTS_KEY + " is a required field in the topology, please specify.");
+    }
+    return topology;
+  }
+
+  private void parseProjects(
+      JsonParser parser, Topology topology, java.util.function.Consumer<Project> projectConsumer)
+      throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      Project project = parseProject(parser, topology);
+      LOGGER.debug(
+          String.format(
+              "Adding project %s to the Topology %s", project.getName(), topology.getContext()));
+      projectConsumer.accept(project);
+    }
+  }
+
+  private Project parseProject(JsonParser parser, Topology topology) throws IOException {
+    String name = null;
+    List<Consumer> consumers = new ArrayList<>();
+    List<Producer> producers = new ArrayList<>();
+    List<KStream> streams = new ArrayList<>();
+    List<Connector> connectors = new ArrayList<>();
+    List<Schemas> schemas = new ArrayList<>();
+    Map<String, List<String>> rbacRoles = new HashMap<>();
+    List<Topic> topics = new ArrayList<>();
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      switch (fieldName) {
+        case NAME_KEY:
+          name = parser.getValueAsString();
+          break;
+        case CONSUMERS_KEY:
+          readList(parser, Consumer.class, consumers);
+          break;
+        case PRODUCERS_KEY:
+          readList(parser, Producer.class, producers);
+          break;
+        case STREAMS_KEY:
+          readList(parser, KStream.class, streams);
+          break;
+        case CONNECTORS_KEY:
+          readList(parser, Connector.class, connectors);
+          break;
+        case SCHEMAS_KEY:
+          readList(parser, Schemas.class, schemas);
+          break;
+        case RBAC_KEY:
+          rbacRoles = TopologyCustomDeserializer.parseOptionalRbacRoles(parser.readValueAsTree());
+          break;
+        case TOPICS_KEY:
+          readList(parser, Topic.class, topics);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    if (name == null) {
+      throw new IOException(NAME_KEY + " is a required field in the project, please specify.");
+    }
+
+    ProjectImpl project =
+        new ProjectImpl(
+            name, consumers, producers, streams, connectors, schemas, rbacRoles, config);
+    project.setPrefixContextAndOrder(topology.asFullContext(), topology.getOrder());
+    topics.forEach(project::addTopic);
+    return project;
+  }
+
+  private static <T> void readList(JsonParser parser, Class<T> clazz, List<T> list)
+      throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      list.add(parser.readValueAs(clazz));
+    }
+  }
+}
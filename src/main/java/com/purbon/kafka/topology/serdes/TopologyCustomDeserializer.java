@@ -48,23 +48,23 @@ public class TopologyCustomDeserializer extends StdDeserializer<Topology> {
 
   private static final Logger LOGGER = LogManager.getLogger(TopologyCustomDeserializer.class);
 
-  private static final String PROJECTS_KEY = "projects";
-  private static final String CONTEXT_KEY = "context";
+  static final String PROJECTS_KEY = "projects";
+  static final String CONTEXT_KEY = "context";
 
-  private static final String PLATFORM_KEY = "platform";
+  static final String PLATFORM_KEY = "platform";
   private static final String KAFKA_KEY = "kafka";
   private static final String KAFKA_CONNECT_KEY = "kafka_connect";
   private static final String SCHEMA_REGISTRY_KEY = "schema_registry";
   private static final String CONTROL_CENTER_KEY = "control_center";
 
-  private static final String NAME_KEY = "name";
-  private static final String CONSUMERS_KEY = "consumers";
-  private static final String PRODUCERS_KEY = "producers";
-  private static final String CONNECTORS_KEY = "connectors";
-  private static final String STREAMS_KEY = "streams";
-  private static final String SCHEMAS_KEY = "schemas";
-  private static final String RBAC_KEY = "rbac";
-  private static final String TOPICS_KEY = "topics";
+  static final String NAME_KEY = "name";
+  static final String CONSUMERS_KEY = "consumers";
+  static final String PRODUCERS_KEY = "producers";
+  static final String CONNECTORS_KEY = "connectors";
+  static final String STREAMS_KEY = "streams";
+  static final String SCHEMAS_KEY = "schemas";
+  static final String RBAC_KEY = "rbac";
+  static final String TOPICS_KEY = "topics";
   private static final String PRINCIPAL_KEY = "principal";
 
   private final TopologyBuilderConfig config;
@@ -97,7 +97,15 @@ public class TopologyCustomDeserializer extends StdDeserializer<Topology> {
     }
     topology.setContext(rootNode.get(CONTEXT_KEY).asText());
 
-    JsonNode platformNode = rootNode.get(PLATFORM_KEY);
+    topology.setPlatform(parsePlatform(parser, rootNode.get(PLATFORM_KEY)));
+    parseProjects(parser, rootNode.get(PROJECTS_KEY), topology, config)
+        .forEach(topology::addProject);
+
+    return topology;
+  }
+
+  static Platform parsePlatform(JsonParser parser, JsonNode platformNode)
+      throws JsonProcessingException {
     Platform platform = new Platform();
     if (platformNode != null && platformNode.size() > 0) {
       parse(platformNode, KAFKA_KEY, parser, Kafka.class)
@@ -111,15 +119,10 @@ public class TopologyCustomDeserializer extends StdDeserializer<Topology> {
     } else {
       LOGGER.debug("No platform components defined in the topology.");
     }
-
-    topology.setPlatform(platform);
-    parseProjects(parser, rootNode.get(PROJECTS_KEY), topology, config)
-        .forEach(topology::addProject);
-
-    return topology;
+    return platform;
   }
 
-  private Optional<Object> parse(JsonNode node, String key, JsonParser parser, Class klass)
+  private static Optional<Object> parse(JsonNode node, String key, JsonParser parser, Class klass)
       throws JsonProcessingException {
     JsonNode pNode = node.get(key);
     if (pNode == null) {
@@ -209,7 +212,7 @@ public class TopologyCustomDeserializer extends StdDeserializer<Topology> {
     return project;
   }
 
-  private Map<String, List<String>> parseOptionalRbacRoles(JsonNode rbacRootNode) {
+  static Map<String, List<String>> parseOptionalRbacRoles(JsonNode rbacRootNode) {
     if (rbacRootNode == null) return new HashMap<>();
     return StreamSupport.stream(rbacRootNode.spliterator(), true)
         .map(
@@ -1,6 +1,8 @@
 package com.purbon.kafka.topology.serdes;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -9,13 +11,16 @@ import com.purbon.kafka.topology.TopologyBuilderConfig;
 import com.purbon.kafka.topology.exceptions.TopologyParsingException;
 import com.purbon.kafka.topology.model.Impl.TopicImpl;
 import com.purbon.kafka.topology.model.PlanMap;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topology;
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Consumer;
 
 public class TopologySerdes {
 
   private ObjectMapper mapper;
+  private StreamingTopologyDeserializer streamingDeserializer;
 
   public enum FileType {
     JSON,
@@ -35,11 +40,12 @@ public class TopologySerdes {
   }
 
   public TopologySerdes(TopologyBuilderConfig config, FileType type) {
-    mapper = ObjectMapperFactory.build(type, config, new PlanMap());
+    this(config, type, new PlanMap());
   }
 
   public TopologySerdes(TopologyBuilderConfig config, FileType type, PlanMap plans) {
     mapper = ObjectMapperFactory.build(type, config, plans);
+    streamingDeserializer = new StreamingTopologyDeserializer(config);
   }
 
   public Topology deserialise(File file) {
@@ -51,6 +57,43 @@ public class TopologySerdes {
     }
   }
 
+  /**
+   * Deserialize a topology from the tokens of the file, handing every project to a consumer as soon
+   * as it is read, so large descriptors never need to be held in memory as a whole.
+   *
+   * @param file The topology descriptor
+   * @param projectConsumer The consumer of the projects, called in descriptor order
+   * @return the topology, without its projects
+   */
+  public Topology deserialise(File file, Consumer<Project> projectConsumer) {
+    try (JsonParser parser = mapper.getFactory().createParser(file)) {
+      return streamingDeserializer.deserialize(parser, projectConsumer);
+    } catch (IOException e) {
+      throw new TopologyParsingException(
+          "Failed to deserialize topology from " + file.getPath(), e);
+    }
+  }
+
+  /**
+   * @param content The content of a topology file
+   * @return the document tree of the topology, before any deserializer runs
+   */
+  public JsonNode readTree(byte[] content) {
+    try {
+      return mapper.readTree(content);
+    } catch (IOException e) {
+      throw new TopologyParsingException("Failed to read the topology document", e);
+    }
+  }
+
+  public Topology deserialise(JsonNode node) {
+    try {
+      return mapper.treeToValue(node, Topology.class);
+    } catch (IOException e) {
+      throw new TopologyParsingException("Failed to deserialize topology from " + node, e);
+    }
+  }
+
   public Topology deserialise(String content) {
     try {
       return mapper.readValue(content, Topology.class);
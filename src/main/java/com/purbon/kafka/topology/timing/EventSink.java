@@ -0,0 +1,12 @@
+package com.purbon.kafka.topology.timing;
+
+/** Receives the timed work of a run, like the JDK Flight Recorder does. */
+interface EventSink {
+
+  /**
+   * @param kind The kind of work timed
+   * @param name The name of the work timed
+   * @return the callback to run once the work is done
+   */
+  Runnable begin(Timings.Kind kind, String name);
+}
@@ -0,0 +1,43 @@
+package com.purbon.kafka.topology.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emits the timed work as JDK Flight Recorder events. Events are only recorded while a recording is
+ * running, for example one started with -XX:StartFlightRecording.
+ */
+class JfrEventSink implements EventSink {
+
+  @Name("com.purbon.kafka.topology.Timing")
+  @Label("Topology Builder Timing")
+  @Description("A phase, an action or a remote call of a Kafka Topology Builder run")
+  @Category("Kafka Topology Builder")
+  static class TimingEvent extends Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Name")
+    String name;
+  }
+
+  JfrEventSink() {
+    if (!FlightRecorder.isAvailable()) {
+      throw new IllegalStateException("The Flight Recorder is not available");
+    }
+  }
+
+  @Override
+  public Runnable begin(Timings.Kind kind, String name) {
+    TimingEvent event = new TimingEvent();
+    event.kind = kind.name();
+    event.name = name;
+    event.begin();
+    return event::commit;
+  }
+}
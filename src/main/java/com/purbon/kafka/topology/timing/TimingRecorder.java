@@ -0,0 +1,106 @@
+package com.purbon.kafka.topology.timing;
+
+import com.purbon.kafka.topology.timing.Timings.Kind;
+import com.purbon.kafka.topology.timing.Timings.Timer;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Aggregates the timings of a run, per kind and name of the timed work. */
+class TimingRecorder {
+
+  private final EventSink sink;
+  private final Map<Kind, ConcurrentMap<String, Samples>> samples;
+
+  TimingRecorder(EventSink sink) {
+    this.sink = sink;
+    this.samples = new EnumMap<>(Kind.class);
+    for (Kind kind : Kind.values()) {
+      samples.put(kind, new ConcurrentHashMap<>());
+    }
+  }
+
+  Timer start(Kind kind, String name) {
+    Runnable event = sink == null ? null : sink.begin(kind, name);
+    long start = System.nanoTime();
+    return () -> {
+      long elapsed = System.nanoTime() - start;
+      if (event != null) {
+        event.run();
+      }
+      samples.get(kind).computeIfAbsent(name, key -> new Samples()).add(elapsed);
+    };
+  }
+
+  Samples samples(Kind kind, String name) {
+    return samples.get(kind).get(name);
+  }
+
+  void printTable(PrintStream out) {
+    out.println("Timings (ms):");
+    out.println(
+        String.format(
+            "%-7s %-48s %8s %10s %9s %9s %9s",
+            "Kind", "Name", "Count", "Total", "p50", "p99", "Max"));
+    for (Map.Entry<Kind, ConcurrentMap<String, Samples>> kind : samples.entrySet()) {
+      for (Map.Entry<String, Samples> entry : new TreeMap<>(kind.getValue()).entrySet()) {
+        Samples samples = entry.getValue();
+        out.println(
+            String.format(
+                "%-7s %-48s %8d %10.1f %9.1f %9.1f %9.1f",
+                kind.getKey().name().toLowerCase(),
+                entry.getKey(),
+                samples.count(),
+                millis(samples.total()),
+                millis(samples.percentile(50)),
+                millis(samples.percentile(99)),
+                millis(samples.percentile(100))));
+      }
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /** The durations recorded for a kind of work, in nanoseconds. */
+  static class Samples {
+
+    private long[] values = new long[16];
+    private int count = 0;
+
+    synchronized void add(long value) {
+      if (count == values.length) {
+        values = Arrays.copyOf(values, count * 2);
+      }
+      values[count++] = value;
+    }
+
+    synchronized int count() {
+      return count;
+    }
+
+    synchronized long total() {
+      long total = 0;
+      for (int i = 0; i < count; i++) {
+        total += values[i];
+      }
+      return total;
+    }
+
+    /** @return the nearest-rank percentile of the recorded durations */
+    synchronized long percentile(int percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long[] sorted = Arrays.copyOf(values, count);
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile / 100.0 * count);
+      return sorted[Math.max(rank, 1) - 1];
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.purbon.kafka.topology.timing;
+
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.metrics.Metrics;
+import java.io.PrintStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Timing instrumentation of a run: its phases (parse, validate, state load, cluster fetch, diff,
+ * state flush), every action of the plan and every remote call to the Kafka, MDS and Schema
+ * Registry APIs.
+ *
+ * <p>The instrumentation is off by default, every timer is then the same no-op instance and nothing
+ * is recorded. Once enabled, the timings are aggregated into a table printed at the end of the run,
+ * and emitted as JDK Flight Recorder events when the JVM supports them.
+ */
+public final class Timings {
+
+  private static final Logger LOGGER = LogManager.getLogger(Timings.class);
+
+  static final String JFR_EVENT_SINK_CLASS = "com.purbon.kafka.topology.timing.JfrEventSink";
+
+  public enum Kind {
+    PHASE,
+    ACTION,
+    CALL
+  }
+
+  /** A running timer, that records the elapsed time once closed. */
+  public interface Timer extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final Timer NOOP = () -> {};
+
+  private static volatile TimingRecorder recorder = null;
+
+  private Timings() {}
+
+  /** Start recording the timings of a new run, discarding the ones of a previous run. */
+  public static void enable() {
+    recorder = new TimingRecorder(loadEventSink());
+  }
+
+  public static void disable() {
+    recorder = null;
+  }
+
+  public static boolean isEnabled() {
+    return recorder != null;
+  }
+
+  public static Timer phase(String name) {
+    return start(Kind.PHASE, name);
+  }
+
+  public static Timer action(Action action) {
+    TimingRecorder current = recorder;
+    return current == null ? NOOP : current.start(Kind.ACTION, action.getClass().getSimpleName());
+  }
+
+  /**
+   * @param client The remote API called, like admin, mds or schema-registry
+   * @param operation The operation called
+   * @return a timer for the call, that also counts it in the metrics when they are enabled
+   */
+  public static Timer call(String client, String operation) {
+    TimingRecorder current = recorder;
+    Timer timer = current == null ? NOOP : current.start(Kind.CALL, client + "." + operation);
+    if (!Metrics.isEnabled()) {
+      return timer;
+    }
+    long start = System.nanoTime();
+    return () -> {
+      timer.close();
+      Metrics.call(client, operation, System.nanoTime() - start);
+    };
+  }
+
+  private static Timer start(Kind kind, String name) {
+    TimingRecorder current = recorder;
+    return current == null ? NOOP : current.start(kind, name);
+  }
+
+  /** Print the timings recorded so far, if the instrumentation is enabled. */
+  public static void printTable(PrintStream out) {
+    TimingRecorder current = recorder;
+    if (current != null) {
+      current.printTable(out);
+    }
+  }
+
+  /**
+   * The Flight Recorder classes are only loaded here, so the instrumentation still works on JVMs
+   * without them.
+   */
+  private static EventSink loadEventSink() {
+    try {
+      return (EventSink) Class.forName(JFR_EVENT_SINK_CLASS).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError | IllegalStateException e) {
+      LOGGER.info("JDK Flight Recorder is not available, timings are only printed: " + e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.purbon.kafka.topology.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class HashUtils {
+
+  /**
+   * @param value the value to hash
+   * @return the hex encoded SHA-256 hash of the value
+   * @throws IOException if the hash algorithm is not available
+   */
+  public static String sha256Hex(String value) throws IOException {
+    return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param value the bytes to hash
+   * @return the hex encoded SHA-256 hash of the bytes
+   * @throws IOException if the hash algorithm is not available
+   */
+  public static String sha256Hex(byte[] value) throws IOException {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(value);
+      StringBuilder sb = new StringBuilder();
+      for (byte b : hash) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+}
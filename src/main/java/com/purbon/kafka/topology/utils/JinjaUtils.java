@@ -1,13 +1,54 @@
 package com.purbon.kafka.topology.utils;
 
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.FatalTemplateErrorsException;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 public class JinjaUtils {
 
   private static Jinjava jinjava = new Jinjava();
 
+  /** The parsed templates, by format, as a run only uses a couple of them. */
+  private static final ConcurrentMap<String, Node> templates = new ConcurrentHashMap<>();
+
   public static String serialise(String format, Map<String, Object> context) {
-    return jinjava.render(format, context);
+    Node template = templates.computeIfAbsent(format, JinjaUtils::parse);
+    if (template == null) {
+      // templates with syntax errors are rendered as is, to report their errors
+      return jinjava.render(format, context);
+    }
+    Context renderContext =
+        new Context(jinjava.getGlobalContext(), context, jinjava.getGlobalConfig().getDisabled());
+    JinjavaInterpreter interpreter =
+        new JinjavaInterpreter(jinjava, renderContext, jinjava.getGlobalConfig());
+    JinjavaInterpreter.pushCurrent(interpreter);
+    try {
+      String result = interpreter.render(template);
+      List<TemplateError> fatalErrors =
+          interpreter.getErrorsCopy().stream()
+              .filter(error -> error.getSeverity() == ErrorType.FATAL)
+              .collect(Collectors.toList());
+      if (!fatalErrors.isEmpty()) {
+        throw new FatalTemplateErrorsException(format, fatalErrors);
+      }
+      return result;
+    } finally {
+      JinjavaInterpreter.popCurrent();
+    }
+  }
+
+  private static Node parse(String format) {
+    JinjavaInterpreter interpreter = jinjava.newInterpreter();
+    Node template = interpreter.parse(format);
+    return interpreter.getErrorsCopy().isEmpty() ? template : null;
   }
 }
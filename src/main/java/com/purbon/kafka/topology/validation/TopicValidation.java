@@ -3,6 +3,10 @@ package com.purbon.kafka.topology.validation;
 import com.purbon.kafka.topology.exceptions.ValidationException;
 import com.purbon.kafka.topology.model.Topic;
 
+/**
+ * A validation run against each topic of a topology. Topics of large topologies are validated in
+ * parallel, so implementations must be thread safe.
+ */
 public interface TopicValidation extends Validation {
 
   void valid(Topic topic) throws ValidationException;
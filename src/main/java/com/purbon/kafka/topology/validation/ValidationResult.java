@@ -0,0 +1,52 @@
+package com.purbon.kafka.topology.validation;
+
+import java.util.Optional;
+
+/** A failed validation, with the project and topic it was reported for, if any. */
+public class ValidationResult {
+
+  private final String validator;
+  private final String message;
+  private final Optional<String> project;
+  private final Optional<String> topic;
+
+  public ValidationResult(String validator, String message) {
+    this(validator, message, Optional.empty(), Optional.empty());
+  }
+
+  public ValidationResult(String validator, String message, String project, String topic) {
+    this(validator, message, Optional.ofNullable(project), Optional.ofNullable(topic));
+  }
+
+  private ValidationResult(
+      String validator, String message, Optional<String> project, Optional<String> topic) {
+    this.validator = validator;
+    this.message = message;
+    this.project = project;
+    this.topic = topic;
+  }
+
+  /** @return the class name of the validation that failed */
+  public String getValidator() {
+    return validator;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  /** @return the name of the project of the topic, empty for topology validations */
+  public Optional<String> getProject() {
+    return project;
+  }
+
+  /** @return the full name of the topic, empty for topology validations */
+  public Optional<String> getTopic() {
+    return topic;
+  }
+
+  @Override
+  public String toString() {
+    return message;
+  }
+}
@@ -71,6 +71,7 @@ public class AccessControlManagerTest {
     accessControlManager = new AccessControlManager(aclsProvider, aclsBuilder);
     doNothing().when(backendController).addBindings(Matchers.anyList());
     doNothing().when(backendController).flushAndClose();
+    doReturn(SyncScope.all()).when(config).getSyncScope();
   }
 
   @Test
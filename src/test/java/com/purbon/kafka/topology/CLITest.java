@@ -4,10 +4,14 @@ import static com.purbon.kafka.topology.BuilderCLI.ADMIN_CLIENT_CONFIG_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.ALLOW_DELETE_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.BROKERS_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.DRY_RUN_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.PLAN_IN_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.QUIET_OPTION;
+import static com.purbon.kafka.topology.BuilderCLI.RESUME_OPTION;
 import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -75,4 +79,99 @@ public class CLITest {
 
     verify(cli, times(1)).processTopology(eq("descriptor.yaml"), eq("default"), eq(config));
   }
+
+  @Test
+  public void testResume() throws Exception {
+    String[] args =
+        new String[] {
+          "--brokers", "localhost:9092",
+          "--topology", "descriptor.yaml",
+          "--clientConfig", "topology-builder-sasl-plain.properties",
+          "--resume"
+        };
+
+    doNothing().when(cli).processTopology(eq("descriptor.yaml"), eq("default"), anyMap());
+
+    Map<String, String> config = new HashMap<>();
+    config.put(BROKERS_OPTION, "localhost:9092");
+    config.put(ALLOW_DELETE_OPTION, "false");
+    config.put(DRY_RUN_OPTION, "false");
+    config.put(RESUME_OPTION, "true");
+    config.put(QUIET_OPTION, "false");
+    config.put(ADMIN_CLIENT_CONFIG_OPTION, "topology-builder-sasl-plain.properties");
+    cli.run(args);
+
+    verify(cli, times(1)).processTopology(eq("descriptor.yaml"), eq("default"), eq(config));
+  }
+
+  @Test
+  public void testPlanIn() throws Exception {
+    String[] args =
+        new String[] {
+          "--brokers", "localhost:9092",
+          "--clientConfig", "topology-builder-sasl-plain.properties",
+          "--planIn", "plan.json"
+        };
+
+    doNothing().when(cli).processTopology(eq(""), eq("default"), anyMap());
+
+    Map<String, String> config = new HashMap<>();
+    config.put(BROKERS_OPTION, "localhost:9092");
+    config.put(ALLOW_DELETE_OPTION, "false");
+    config.put(DRY_RUN_OPTION, "false");
+    config.put(PLAN_IN_OPTION, "plan.json");
+    config.put(QUIET_OPTION, "false");
+    config.put(ADMIN_CLIENT_CONFIG_OPTION, "topology-builder-sasl-plain.properties");
+    cli.run(args);
+
+    verify(cli, times(1)).processTopology(eq(""), eq("default"), eq(config));
+  }
+
+  @Test
+  public void testDaemon() throws Exception {
+    String[] args =
+        new String[] {
+          "--brokers", "localhost:9092",
+          "--topology", "descriptor.yaml",
+          "--clientConfig", "topology-builder-sasl-plain.properties",
+          "--daemon"
+        };
+
+    doNothing().when(cli).runDaemon(eq("descriptor.yaml"), eq("default"), anyMap());
+
+    Map<String, String> config = new HashMap<>();
+    config.put(BROKERS_OPTION, "localhost:9092");
+    config.put(ALLOW_DELETE_OPTION, "false");
+    config.put(DRY_RUN_OPTION, "false");
+    config.put(QUIET_OPTION, "false");
+    config.put(ADMIN_CLIENT_CONFIG_OPTION, "topology-builder-sasl-plain.properties");
+    cli.run(args);
+
+    verify(cli, times(1)).runDaemon(eq("descriptor.yaml"), eq("default"), eq(config));
+    verify(cli, never()).processTopology(anyString(), anyString(), anyMap());
+  }
+
+  @Test
+  public void testServer() throws Exception {
+    String[] args =
+        new String[] {
+          "--brokers", "localhost:9092",
+          "--topology", "descriptor.yaml",
+          "--clientConfig", "topology-builder-sasl-plain.properties",
+          "--server"
+        };
+
+    doNothing().when(cli).runServer(eq("descriptor.yaml"), eq("default"), anyMap());
+
+    Map<String, String> config = new HashMap<>();
+    config.put(BROKERS_OPTION, "localhost:9092");
+    config.put(ALLOW_DELETE_OPTION, "false");
+    config.put(DRY_RUN_OPTION, "false");
+    config.put(QUIET_OPTION, "false");
+    config.put(ADMIN_CLIENT_CONFIG_OPTION, "topology-builder-sasl-plain.properties");
+    cli.run(args);
+
+    verify(cli, times(1)).runServer(eq("descriptor.yaml"), eq("default"), eq(config));
+    verify(cli, never()).processTopology(anyString(), anyString(), anyMap());
+  }
 }
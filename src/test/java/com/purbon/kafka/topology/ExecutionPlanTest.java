@@ -1,12 +1,31 @@
 package com.purbon.kafka.topology;
 
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.purbon.kafka.topology.actions.access.ClearBindings;
 import com.purbon.kafka.topology.actions.access.CreateBindings;
+import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
+import com.purbon.kafka.topology.actions.accounts.CreateAccounts;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
 import com.purbon.kafka.topology.actions.topics.DeleteTopics;
 import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
@@ -16,19 +35,33 @@ import com.purbon.kafka.topology.model.Impl.TopologyImpl;
 import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
 import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.SimpleAclsProvider;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
 import com.purbon.kafka.topology.utils.TestUtils;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
 import org.apache.kafka.common.resource.ResourceType;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -44,10 +77,14 @@ public class ExecutionPlanTest {
 
   @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Mock TopologyBuilderAdminClient adminClient;
 
   @Mock SchemaRegistryManager schemaRegistryManager;
 
+  @Mock PrincipalProvider principalProvider;
+
   @Before
   public void before() throws IOException {
     TestUtils.deleteStateFile();
@@ -114,12 +151,10 @@ public class ExecutionPlanTest {
     Set<String> listOfTopics = new HashSet<>();
 
     SyncTopicAction addTopicAction1 =
-        new SyncTopicAction(
-            adminClient, schemaRegistryManager, topicFoo, topicFoo.toString(), listOfTopics);
+        new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), listOfTopics);
 
     SyncTopicAction addTopicAction2 =
-        new SyncTopicAction(
-            adminClient, schemaRegistryManager, topicBar, topicBar.toString(), listOfTopics);
+        new SyncTopicAction(adminClient, topicBar, topicBar.toString(), listOfTopics);
 
     plan.add(addTopicAction1);
     plan.add(addTopicAction2);
@@ -139,12 +174,10 @@ public class ExecutionPlanTest {
     Set<String> listOfTopics = new HashSet<>();
 
     SyncTopicAction addTopicAction1 =
-        new SyncTopicAction(
-            adminClient, schemaRegistryManager, topicFoo, topicFoo.toString(), listOfTopics);
+        new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), listOfTopics);
 
     SyncTopicAction addTopicAction2 =
-        new SyncTopicAction(
-            adminClient, schemaRegistryManager, topicBar, topicBar.toString(), listOfTopics);
+        new SyncTopicAction(adminClient, topicBar, topicBar.toString(), listOfTopics);
 
     plan.add(addTopicAction1);
     plan.add(addTopicAction2);
@@ -168,6 +201,351 @@ public class ExecutionPlanTest {
     assertEquals(1, backendController.size());
   }
 
+  @Test
+  public void deleteMoreTopicsThanKnownTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    Topic topicBar = topology.getProjects().get(0).getTopics().get(1);
+
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    plan.add(new SyncTopicAction(adminClient, topicBar, topicBar.toString(), new HashSet<>()));
+
+    List<String> topicsToBeDeleted = new ArrayList<>();
+    topicsToBeDeleted.add(topicFoo.toString());
+    for (int i = 0; i < 1000; i++) {
+      topicsToBeDeleted.add("unknown-topic-" + i);
+    }
+    plan.add(new DeleteTopics(adminClient, topicsToBeDeleted));
+
+    plan.run();
+
+    assertEquals(singleton(topicBar.toString()), plan.getTopics());
+    assertEquals(1, backendController.size());
+  }
+
+  @Test
+  public void actionsRunInStageOrderTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    ServiceAccount account = new ServiceAccount(1, "User:foo", "description");
+    TopologyAclBinding binding =
+        new TopologyAclBinding(ResourceType.ANY, "topicA", "*", "ALL", "User:foo", "LITERAL");
+
+    plan.add(new ClearAccounts(principalProvider, singletonList(account)));
+    plan.add(new DeleteTopics(adminClient, singletonList("topicB")));
+    plan.add(new CreateBindings(aclsProvider, singleton(binding)));
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    plan.add(new CreateAccounts(principalProvider, singletonList(account)));
+
+    plan.run();
+
+    InOrder inOrder = inOrder(principalProvider, adminClient, aclsProvider);
+    inOrder.verify(principalProvider).createServiceAccount("User:foo", "description");
+    inOrder.verify(adminClient).createTopic(topicFoo, topicFoo.toString());
+    inOrder.verify(aclsProvider).createBindings(singleton(binding));
+    inOrder.verify(adminClient).deleteTopics(singletonList("topicB"));
+    inOrder.verify(principalProvider).deleteServiceAccount("User:foo");
+  }
+
+  @Test
+  public void actionsOfAStageRunInParallelTest() throws IOException {
+    plan = ExecutionPlan.init(backendController, mockPrintStream, 4, false);
+
+    Set<String> topics = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      Topic topic = new TopicImpl("topic" + i);
+      plan.add(new SyncTopicAction(adminClient, topic, topic.toString(), new HashSet<>()));
+      topics.add(topic.toString());
+    }
+
+    plan.run();
+
+    verify(adminClient, times(50)).createTopic(any(Topic.class), anyString());
+    assertEquals(topics, plan.getTopics());
+    assertEquals(50, backendController.size());
+  }
+
+  @Test(expected = IOException.class)
+  public void failedActionStopsTheNextStagesTest() throws IOException {
+    plan = ExecutionPlan.init(backendController, mockPrintStream, 4, false);
+    Topic topic = new TopicImpl("foo");
+    doThrow(new IOException("error")).when(adminClient).createTopic(topic, topic.toString());
+
+    plan.add(new SyncTopicAction(adminClient, topic, topic.toString(), new HashSet<>()));
+    plan.add(new DeleteTopics(adminClient, singletonList("topicB")));
+
+    try {
+      plan.run();
+    } finally {
+      verify(adminClient, never()).deleteTopics(anyList());
+    }
+  }
+
+  @Test
+  public void schemasAreRegisteredAfterTheTopicsWithAggregatedErrorsTest() throws IOException {
+    plan = ExecutionPlan.init(backendController, mockPrintStream, 4, false);
+    Topic topic = new TopicImpl("foo");
+    doThrow(new RuntimeException("bar"))
+        .when(schemaRegistryManager)
+        .register("foo-bar-value", "bar.avsc", "AVRO");
+    doThrow(new RuntimeException("zet"))
+        .when(schemaRegistryManager)
+        .register("foo-zet-value", "zet.avsc", "AVRO");
+
+    for (String name : Arrays.asList("foo", "bar", "zet")) {
+      plan.add(
+          new RegisterSchemaAction(
+              schemaRegistryManager,
+              topic.toString(),
+              "foo-" + name + "-value",
+              name + ".avsc",
+              "AVRO",
+              Optional.of("BACKWARD")));
+    }
+    plan.add(new SyncTopicAction(adminClient, topic, topic.toString(), new HashSet<>()));
+
+    try {
+      plan.run();
+      fail("the failed registrations should fail the run");
+    } catch (RuntimeException e) {
+      assertEquals(1, e.getSuppressed().length);
+    }
+
+    InOrder inOrder = inOrder(adminClient, schemaRegistryManager);
+    inOrder.verify(adminClient).createTopic(topic, topic.toString());
+    inOrder.verify(schemaRegistryManager).register("foo-foo-value", "foo.avsc", "AVRO");
+    verify(schemaRegistryManager).setCompatibility("foo-foo-value", "BACKWARD");
+    verify(schemaRegistryManager, never()).setCompatibility("foo-bar-value", "BACKWARD");
+    verify(schemaRegistryManager, never()).setCompatibility("foo-zet-value", "BACKWARD");
+  }
+
+  @Test
+  public void incompatibleSchemasFailTheRunBeforeAnyChangeTest() throws IOException {
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.EXECUTION_PARALLELISM_CONFIG, "4");
+    props.put(TopologyBuilderConfig.SCHEMAS_COMPATIBILITY_CHECK_CONFIG, "true");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(new HashMap<>(), props);
+    plan = ExecutionPlan.init(backendController, mockPrintStream, config);
+    Topic topic = new TopicImpl("foo");
+    doThrow(new RuntimeException("bar"))
+        .when(schemaRegistryManager)
+        .checkCompatibility("foo-bar-value", "bar.avsc", "AVRO");
+    doThrow(new RuntimeException("zet"))
+        .when(schemaRegistryManager)
+        .checkCompatibility("foo-zet-value", "zet.avsc", "AVRO");
+
+    plan.add(new SyncTopicAction(adminClient, topic, topic.toString(), new HashSet<>()));
+    for (String name : Arrays.asList("foo", "bar", "zet")) {
+      plan.add(
+          new RegisterSchemaAction(
+              schemaRegistryManager,
+              topic.toString(),
+              "foo-" + name + "-value",
+              name + ".avsc",
+              "AVRO",
+              Optional.empty()));
+    }
+
+    try {
+      plan.run();
+      fail("the incompatible schemas should fail the run");
+    } catch (RuntimeException e) {
+      assertEquals(1, e.getSuppressed().length);
+    }
+
+    verify(schemaRegistryManager).checkCompatibility("foo-foo-value", "foo.avsc", "AVRO");
+    verify(adminClient, never()).createTopic(any(Topic.class), anyString());
+    verify(schemaRegistryManager, never()).register(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void failedRunStoresTheAppliedStateTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    Topic topicBar = topology.getProjects().get(0).getTopics().get(1);
+    doThrow(new IOException("error")).when(adminClient).createTopic(topicBar, topicBar.toString());
+
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    plan.add(new SyncTopicAction(adminClient, topicBar, topicBar.toString(), new HashSet<>()));
+
+    try {
+      plan.run();
+      fail("The run should fail");
+    } catch (IOException e) {
+      // expected
+    }
+
+    BackendController backendController = new BackendController();
+    backendController.load();
+    assertEquals(singleton(topicFoo.toString()), backendController.getTopics());
+    assertEquals(2, backendController.getMetadata().size());
+  }
+
+  @Test
+  public void completedActionsAreStoredWhileTheRunGoesOnTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    Topic topicBar = topology.getProjects().get(0).getTopics().get(1);
+    List<Set<String>> storedTopics = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              BackendController stored = new BackendController();
+              stored.load();
+              storedTopics.add(stored.getTopics());
+              assertEquals(1, new ActionJournal(stored.getMetadata()).size());
+              return null;
+            })
+        .when(adminClient)
+        .createTopic(topicBar, topicBar.toString());
+
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.STATE_CHECKPOINT_ACTIONS_CONFIG, "1");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(new HashMap<>(), props);
+    ExecutionPlan plan = ExecutionPlan.init(backendController, mockPrintStream, config);
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    plan.add(new SyncTopicAction(adminClient, topicBar, topicBar.toString(), new HashSet<>()));
+    plan.run();
+
+    assertEquals(singletonList(singleton(topicFoo.toString())), storedTopics);
+    BackendController stored = new BackendController();
+    stored.load();
+    assertEquals(2, stored.getTopics().size());
+    assertTrue(stored.getMetadata().isEmpty());
+  }
+
+  @Test
+  public void resumedRunSkipsTheCompletedActionsTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    Topic topicBar = topology.getProjects().get(0).getTopics().get(1);
+    doThrow(new IOException("error"))
+        .doNothing()
+        .when(adminClient)
+        .createTopic(topicBar, topicBar.toString());
+
+    for (boolean resume : Arrays.asList(false, true)) {
+      BackendController backendController = new BackendController();
+      ExecutionPlan plan = ExecutionPlan.init(backendController, mockPrintStream, 1, resume);
+      plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+      plan.add(new SyncTopicAction(adminClient, topicBar, topicBar.toString(), new HashSet<>()));
+      try {
+        plan.run();
+      } catch (IOException e) {
+        assertFalse(resume);
+      }
+    }
+
+    verify(adminClient, times(1)).createTopic(topicFoo, topicFoo.toString());
+    verify(adminClient, times(2)).createTopic(topicBar, topicBar.toString());
+
+    BackendController backendController = new BackendController();
+    backendController.load();
+    assertEquals(2, backendController.getTopics().size());
+    assertTrue(backendController.getMetadata().isEmpty());
+  }
+
+  @Test
+  public void resumedRunRegistersTheSchemasEditedSinceTheFailedRunTest() throws IOException {
+    Path schemas = folder.newFolder().toPath();
+    for (String name : Arrays.asList("foo", "zet", "bar")) {
+      Files.write(schemas.resolve(name + ".avsc"), "\"string\"".getBytes(StandardCharsets.UTF_8));
+    }
+
+    List<SchemaRegistryManager> managers = new ArrayList<>();
+    for (boolean resume : Arrays.asList(false, true)) {
+      SchemaRegistryManager manager =
+          spy(new SchemaRegistryManager(mock(SchemaRegistryClient.class), schemas.toString()));
+      doReturn(1).when(manager).register(anyString(), anyString(), anyString());
+      if (!resume) {
+        doThrow(new RuntimeException("bar"))
+            .when(manager)
+            .register("foo-bar-value", "bar.avsc", "AVRO");
+      }
+      managers.add(manager);
+
+      ExecutionPlan plan = ExecutionPlan.init(new BackendController(), mockPrintStream, 1, resume);
+      for (String name : Arrays.asList("foo", "zet", "bar")) {
+        plan.add(
+            new RegisterSchemaAction(
+                manager,
+                "foo",
+                "foo-" + name + "-value",
+                name + ".avsc",
+                "AVRO",
+                Optional.empty()));
+      }
+      try {
+        plan.run();
+      } catch (RuntimeException e) {
+        assertFalse(resume);
+        Files.write(schemas.resolve("foo.avsc"), "\"int\"".getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    SchemaRegistryManager resumed = managers.get(1);
+    verify(resumed).register("foo-foo-value", "foo.avsc", "AVRO");
+    verify(resumed).register("foo-bar-value", "bar.avsc", "AVRO");
+    verify(resumed, never()).register("foo-zet-value", "zet.avsc", "AVRO");
+  }
+
+  @Test
+  public void metadataSourcesAreStoredWithTheStateTest() throws IOException {
+    plan.addMetadataSource(() -> Collections.singletonMap("schema.fingerprint.foo", "1:abc"));
+    plan.run();
+
+    BackendController backendController = new BackendController();
+    backendController.load();
+    assertEquals("1:abc", backendController.getMetadata().get("schema.fingerprint.foo"));
+  }
+
+  @Test
+  public void stagedMetadataIsStoredByAMultiStageRunTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    Topic topicBar = topology.getProjects().get(0).getTopics().get(1);
+    TopologyAclBinding binding =
+        new TopologyAclBinding(ResourceType.ANY, "topicA", "*", "ALL", "User:foo", "LITERAL");
+
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.STATE_CHECKPOINT_ACTIONS_CONFIG, "1");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(new HashMap<>(), props);
+    ExecutionPlan plan = ExecutionPlan.init(backendController, mockPrintStream, config);
+    backendController.setMetadata(Collections.singletonMap("staged", "1"));
+    plan.addCompletionMetadata(metadata -> metadata.put("completed", "2"));
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    plan.add(new SyncTopicAction(adminClient, topicBar, topicBar.toString(), new HashSet<>()));
+    plan.add(new CreateBindings(aclsProvider, singleton(binding)));
+    plan.run();
+
+    BackendController stored = new BackendController();
+    stored.load();
+    assertEquals(2, stored.getTopics().size());
+    assertEquals(singleton(binding), stored.getBindings());
+    assertEquals("1", stored.getMetadata().get("staged"));
+    assertEquals("2", stored.getMetadata().get("completed"));
+    assertEquals(0, new ActionJournal(stored.getMetadata()).size());
+  }
+
+  @Test
+  public void completionMetadataIsNotStoredByAFailedRunTest() throws IOException {
+    Topology topology = buildTopologyForTest();
+    Topic topicFoo = topology.getProjects().get(0).getTopics().get(0);
+    doThrow(new IOException("error")).when(adminClient).createTopic(topicFoo, topicFoo.toString());
+
+    plan.addCompletionMetadata(metadata -> metadata.put("completed", "2"));
+    plan.add(new SyncTopicAction(adminClient, topicFoo, topicFoo.toString(), new HashSet<>()));
+    try {
+      plan.run();
+      fail("The run should fail");
+    } catch (IOException e) {
+      // expected
+    }
+
+    BackendController stored = new BackendController();
+    stored.load();
+    assertFalse(stored.getMetadata().containsKey("completed"));
+  }
+
   private Topology buildTopologyForTest() {
     Topology topology = new TopologyImpl();
     topology.setContext("context");
@@ -179,4 +557,42 @@ public class ExecutionPlanTest {
     project.setTopics(Arrays.asList(topic, topicBar));
     return topology;
   }
+
+  @Test
+  public void dryRunWritesOneRecordPerChangeAsNdjsonTest() throws IOException {
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.DRY_RUN_FORMAT_CONFIG, NdjsonPlanWriter.FORMAT);
+    TopologyBuilderConfig config = new TopologyBuilderConfig(new HashMap<>(), props);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExecutionPlan plan =
+        ExecutionPlan.init(new BackendController(), new PrintStream(out, true), config);
+
+    TopologyAclBinding binding1 =
+        new TopologyAclBinding(ResourceType.ANY, "topicA", "*", "ALL", "User:foo", "LITERAL");
+    TopologyAclBinding binding2 =
+        new TopologyAclBinding(ResourceType.ANY, "topicB", "*", "ALL", "User:foo", "LITERAL");
+    plan.add(new CreateBindings(aclsProvider, new HashSet<>(Arrays.asList(binding1, binding2))));
+    plan.add(new DeleteTopics(adminClient, Arrays.asList("topicC", "topicD")));
+
+    plan.run(true);
+
+    String[] lines = out.toString("UTF-8").split("\n");
+    assertEquals(5, lines.length);
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode binding = mapper.readTree(lines[0]);
+    assertEquals("binding", binding.get("resource").asText());
+    assertEquals("create", binding.get("op").asText());
+    assertEquals("User:foo", binding.get("principal").asText());
+    JsonNode topic = mapper.readTree(lines[2]);
+    assertEquals("topic", topic.get("resource").asText());
+    assertEquals("delete", topic.get("op").asText());
+    assertEquals("topicC", topic.get("name").asText());
+
+    JsonNode summary = mapper.readTree(lines[4]).get("summary");
+    assertEquals(2, summary.get("actions").asInt());
+    assertEquals(4, summary.get("records").asInt());
+    assertEquals(2, summary.get("changes").get("binding").get("create").asInt());
+    assertEquals(2, summary.get("changes").get("topic").get("delete").asInt());
+    verify(aclsProvider, never()).createBindings(any());
+  }
 }
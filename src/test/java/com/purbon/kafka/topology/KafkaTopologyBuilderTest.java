@@ -2,22 +2,36 @@ package com.purbon.kafka.topology;
 
 import static com.purbon.kafka.topology.BuilderCLI.*;
 import static com.purbon.kafka.topology.TopologyBuilderConfig.CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.*;
 
 import com.purbon.kafka.topology.BackendController.Mode;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.backend.FileBackend;
 import com.purbon.kafka.topology.backend.RedisBackend;
 import com.purbon.kafka.topology.exceptions.TopologyParsingException;
 import com.purbon.kafka.topology.utils.TestUtils;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -36,6 +50,8 @@ public class KafkaTopologyBuilderTest {
 
   @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   private Map<String, String> cliOps;
   private Properties props;
 
@@ -51,6 +67,12 @@ public class KafkaTopologyBuilderTest {
     props.put(AdminClientConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
   }
 
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME));
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME + ".metadata"));
+  }
+
   @Test
   public void closeAdminClientTest() throws Exception {
     String fileOrDirPath = TestUtils.getResourceFilename("/descriptor.yaml");
@@ -211,4 +233,170 @@ public class KafkaTopologyBuilderTest {
     verify(topicManager, times(1)).apply(anyObject(), anyObject());
     verify(accessControlManager, times(1)).apply(anyObject(), anyObject());
   }
+
+  @Test
+  public void secondRunOfAnAppliedTopologyIsSkipped() throws Exception {
+    String fileOrDirPath = TestUtils.getResourceFilename("/descriptor-only-topics.yaml");
+    String clientConfigFile =
+        TestUtils.getResourceFilename("/client-config-fingerprint.properties");
+
+    Map<String, String> config = new HashMap<>();
+    config.put(BROKERS_OPTION, "localhost:9092");
+    config.put(ALLOW_DELETE_OPTION, "false");
+    config.put(DRY_RUN_OPTION, "false");
+    config.put(QUIET_OPTION, "true");
+    config.put(ADMIN_CLIENT_CONFIG_OPTION, clientConfigFile);
+
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(
+            fileOrDirPath,
+            TopologyBuilderConfig.build(config),
+            topologyAdminClient,
+            accessControlProvider,
+            bindingsBuilderProvider);
+    assertFalse(builder.isUpToDate());
+    builder.run();
+    builder.close();
+    verify(topologyAdminClient, times(3)).createTopic(anyObject(), anyString());
+
+    // the admin client is never built, so no broker is needed
+    builder = KafkaTopologyBuilder.build(fileOrDirPath, config);
+    assertTrue(builder.isUpToDate());
+    builder.run();
+    builder.close();
+    verify(topologyAdminClient, times(3)).createTopic(anyObject(), anyString());
+  }
+
+  @Test
+  public void incrementalRunOnlySyncsTheProjectsChangedSinceTheLastApply() throws Exception {
+    Path topologyFile = folder.getRoot().toPath().resolve("descriptor.yaml");
+    Files.copy(
+        Paths.get(TestUtils.getResourceFilename("/descriptor-only-topics.yaml")), topologyFile);
+    props.put("topology.builder.state.processor.class", FileBackend.class.getName());
+    props.put(TopologyBuilderConfig.INCREMENTAL_SYNC_CONFIG, "true");
+    // the state is stored after every action, as on a large topology
+    props.put(TopologyBuilderConfig.STATE_CHECKPOINT_ACTIONS_CONFIG, "1");
+    TopologyBuilderConfig builderConfig = new TopologyBuilderConfig(cliOps, props);
+
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(
+            topologyFile.toString(),
+            builderConfig,
+            topologyAdminClient,
+            accessControlProvider,
+            bindingsBuilderProvider);
+    builder.run();
+    builder.close();
+    when(topologyAdminClient.listApplicationTopics())
+        .thenReturn(
+            new HashSet<>(
+                Arrays.asList(
+                    "contextOrg.source.foo.foo",
+                    "contextOrg.source.foo.bar.avro",
+                    "contextOrg.source.bar.bar.avro")));
+
+    String newTopic =
+        "      - name: \"baz\"\n"
+            + "        config:\n"
+            + "          replication.factor: \"1\"\n"
+            + "          num.partitions: \"1\"\n";
+    Files.write(topologyFile, newTopic.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    builder =
+        KafkaTopologyBuilder.build(
+            topologyFile.toString(),
+            builderConfig,
+            topologyAdminClient,
+            accessControlProvider,
+            bindingsBuilderProvider);
+    builder.run();
+    builder.close();
+
+    assertEquals(Collections.singletonList("contextOrg.source.bar"), builder.getChangedProjects());
+    verify(topologyAdminClient, times(1)).createTopic(anyObject(), eq("contextOrg.source.bar.baz"));
+    verify(topologyAdminClient, times(1))
+        .updateTopicConfig(anyObject(), eq("contextOrg.source.bar.bar.avro"));
+    verify(topologyAdminClient, never())
+        .updateTopicConfig(anyObject(), eq("contextOrg.source.foo.foo"));
+    verify(topologyAdminClient, never())
+        .updateTopicConfig(anyObject(), eq("contextOrg.source.foo.bar.avro"));
+  }
+
+  private KafkaTopologyBuilder buildWithPlanOption(String option, String planFile)
+      throws Exception {
+    String fileOrDirPath = TestUtils.getResourceFilename("/descriptor-only-topics.yaml");
+    Map<String, String> ops = new HashMap<>(cliOps);
+    ops.put(option, planFile);
+    // other tests may leave a config.file around, the plan is kept in the file state
+    props.put("topology.builder.state.processor.class", FileBackend.class.getName());
+    TopologyBuilderConfig builderConfig = new TopologyBuilderConfig(ops, props);
+    return KafkaTopologyBuilder.build(
+        fileOrDirPath,
+        builderConfig,
+        topologyAdminClient,
+        accessControlProvider,
+        bindingsBuilderProvider);
+  }
+
+  @Test
+  public void planArtifactIsWrittenAndAppliedLater() throws Exception {
+    String planFile = folder.getRoot().toPath().resolve("plan.json").toString();
+
+    KafkaTopologyBuilder builder = buildWithPlanOption(PLAN_OUT_OPTION, planFile);
+    builder.run();
+    builder.close();
+
+    assertTrue(Files.exists(Paths.get(planFile)));
+    verify(topologyAdminClient, never()).createTopic(anyObject(), anyString());
+
+    builder = buildWithPlanOption(PLAN_IN_OPTION, planFile);
+    builder.run();
+    builder.close();
+
+    verify(topologyAdminClient, times(1)).createTopic(anyObject(), eq("contextOrg.source.foo.foo"));
+    verify(topologyAdminClient, times(1))
+        .createTopic(anyObject(), eq("contextOrg.source.foo.bar.avro"));
+    verify(topologyAdminClient, times(1))
+        .createTopic(anyObject(), eq("contextOrg.source.bar.bar.avro"));
+  }
+
+  @Test
+  public void appliedPlanArtifactStoresTheFingerprintOfItsTopology() throws Exception {
+    String planFile = folder.getRoot().toPath().resolve("plan.json").toString();
+    props.put(TopologyBuilderConfig.FINGERPRINT_ENABLED_CONFIG, "true");
+    props.put(TopologyBuilderConfig.STATE_CHECKPOINT_ACTIONS_CONFIG, "1");
+
+    KafkaTopologyBuilder builder = buildWithPlanOption(PLAN_OUT_OPTION, planFile);
+    builder.run();
+    builder.close();
+    builder = buildWithPlanOption(PLAN_IN_OPTION, planFile);
+    builder.run();
+    builder.close();
+
+    String fileOrDirPath = TestUtils.getResourceFilename("/descriptor-only-topics.yaml");
+    TopologyBuilderConfig builderConfig = new TopologyBuilderConfig(cliOps, props);
+    TopologyFingerprint fingerprint =
+        TopologyFingerprint.build(
+            TopologyObjectBuilder.build(fileOrDirPath, builderConfig),
+            builderConfig,
+            fileOrDirPath);
+    BackendController state = new BackendController();
+    state.load();
+    assertTrue(fingerprint.matches(state.getMetadata()));
+    assertTrue(fingerprint.changedProjects(state.getMetadata()).isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void planArtifactIsRefusedWhenTheStateChanged() throws Exception {
+    String planFile = folder.getRoot().toPath().resolve("plan.json").toString();
+
+    KafkaTopologyBuilder builder = buildWithPlanOption(PLAN_OUT_OPTION, planFile);
+    builder.run();
+    builder.close();
+
+    when(topologyAdminClient.listApplicationTopics())
+        .thenReturn(new HashSet<>(Arrays.asList("contextOrg.source.foo.other")));
+
+    builder = buildWithPlanOption(PLAN_IN_OPTION, planFile);
+    builder.run();
+  }
 }
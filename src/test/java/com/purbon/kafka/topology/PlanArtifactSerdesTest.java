@@ -0,0 +1,211 @@
+package com.purbon.kafka.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.actions.BaseAccountsAction;
+import com.purbon.kafka.topology.actions.access.ClearBindings;
+import com.purbon.kafka.topology.actions.access.CreateBindings;
+import com.purbon.kafka.topology.actions.accounts.ClearAccounts;
+import com.purbon.kafka.topology.actions.accounts.CreateAccounts;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
+import com.purbon.kafka.topology.actions.topics.DeleteTopics;
+import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
+import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.api.mds.RequestScope;
+import com.purbon.kafka.topology.model.Impl.TopicImpl;
+import com.purbon.kafka.topology.model.TopicSchemas;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
+import com.purbon.kafka.topology.serdes.PlanArtifactSerdes;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.common.acl.AccessControlEntry;
+import org.apache.kafka.common.acl.AclBinding;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.acl.AclPermissionType;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class PlanArtifactSerdesTest {
+
+  @Mock TopologyBuilderAdminClient adminClient;
+  @Mock SchemaRegistryClient schemaRegistryClient;
+  @Mock AccessControlProvider accessControlProvider;
+  @Mock PrincipalProvider principalProvider;
+
+  @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  private SchemaRegistryManager schemaRegistryManager;
+  private PlanArtifactSerdes serdes;
+
+  @Before
+  public void before() {
+    schemaRegistryManager =
+        new SchemaRegistryManager(schemaRegistryClient, "/descriptors/descriptor.yaml");
+    serdes =
+        new PlanArtifactSerdes(
+            adminClient, schemaRegistryManager, accessControlProvider, principalProvider);
+  }
+
+  private PlanArtifact roundTrip(Action... actions) throws IOException {
+    Map<String, String> metadata = new HashMap<>();
+    metadata.put(TopologyFingerprint.FINGERPRINT_KEY, "abc");
+    PlanArtifact artifact =
+        new PlanArtifact(
+            "state", Collections.singletonList("context.foo"), metadata, Arrays.asList(actions));
+    return serdes.deserialise(serdes.serialise(artifact));
+  }
+
+  @Test
+  public void testArtifactFieldsRoundTrip() throws IOException {
+    PlanArtifact artifact = roundTrip();
+
+    assertThat(artifact.getStateFingerprint()).isEqualTo("state");
+    assertThat(artifact.getProjects()).containsExactly("context.foo");
+    assertThat(artifact.getMetadata()).containsEntry(TopologyFingerprint.FINGERPRINT_KEY, "abc");
+    assertThat(artifact.getActions()).isEmpty();
+  }
+
+  @Test
+  public void testSyncTopicRoundTripKeepsTheActionId() throws IOException {
+    HashMap<String, String> config = new HashMap<>();
+    config.put("num.partitions", "3");
+    TopicImpl topic = new TopicImpl("foo", config);
+    topic.setSchemas(
+        Collections.singletonList(
+            new TopicSchemas(
+                Optional.of(new TextNode("key.avsc")),
+                Optional.empty(),
+                Optional.of(new TextNode("AVRO")),
+                Optional.empty(),
+                Optional.of(new TextNode("value.avsc")),
+                Optional.empty(),
+                Optional.of(new TextNode("AVRO")),
+                Optional.of(new TextNode("BACKWARD")))));
+    SyncTopicAction action =
+        new SyncTopicAction(
+            adminClient, topic, "context.foo.foo", Collections.singleton("context.foo.foo"));
+
+    PlanArtifact artifact = roundTrip(action);
+
+    assertThat(artifact.getActions()).hasSize(1);
+    SyncTopicAction other = (SyncTopicAction) artifact.getActions().get(0);
+    assertThat(other.getTopic()).isEqualTo("context.foo.foo");
+    assertThat(other.isUpdate()).isTrue();
+    assertThat(other.getTopicDescriptor().getConfig()).containsEntry("num.partitions", "3");
+    assertThat(other.getTopicDescriptor().getSchemas().get(0).getValueSubject().getSchemaFile())
+        .isEqualTo("/descriptors/value.avsc");
+    // relative schema files are stored resolved, so only the path differs
+    assertThat(other.getId())
+        .isEqualTo(action.getId().replaceAll("(key|value)\\.avsc", "/descriptors/$1.avsc"));
+  }
+
+  @Test
+  public void testRegisterSchemaRoundTrip() throws IOException {
+    RegisterSchemaAction action =
+        new RegisterSchemaAction(
+            schemaRegistryManager,
+            "context.foo.foo",
+            "context.foo.foo-value",
+            "value.avsc",
+            "AVRO",
+            Optional.of("BACKWARD"));
+
+    PlanArtifact artifact = roundTrip(action);
+
+    RegisterSchemaAction other = (RegisterSchemaAction) artifact.getActions().get(0);
+    assertThat(other.getTopic()).isEqualTo("context.foo.foo");
+    assertThat(other.getSubject()).isEqualTo("context.foo.foo-value");
+    assertThat(other.getSchemaFile()).isEqualTo("/descriptors/value.avsc");
+    assertThat(other.getFormat()).isEqualTo("AVRO");
+    assertThat(other.getCompatibility()).contains("BACKWARD");
+  }
+
+  @Test
+  public void testDeleteTopicsRoundTrip() throws IOException {
+    PlanArtifact artifact =
+        roundTrip(new DeleteTopics(adminClient, Arrays.asList("topicA", "topicB")));
+
+    DeleteTopics action = (DeleteTopics) artifact.getActions().get(0);
+    assertThat(action.getTopicsToBeDeleted()).containsExactly("topicA", "topicB");
+  }
+
+  @Test
+  public void testBindingsRoundTrip() throws IOException {
+    TopologyAclBinding aclBinding =
+        new TopologyAclBinding(
+            new AclBinding(
+                new ResourcePattern(ResourceType.TOPIC, "foo", PatternType.LITERAL),
+                new AccessControlEntry(
+                    "User:app", "*", AclOperation.READ, AclPermissionType.ALLOW)));
+    TopologyAclBinding rbacBinding =
+        new TopologyAclBinding(
+            ResourceType.TOPIC, "bar", "*", "DeveloperRead", "User:app", "PREFIXED");
+    RequestScope scope = new RequestScope();
+    Map<String, Map<String, String>> clusters = new HashMap<>();
+    clusters.put("clusters", Collections.singletonMap("kafka-cluster", "cluster"));
+    scope.setClusters(clusters);
+    scope.addResource("Topic", "bar", "PREFIXED");
+    scope.build();
+    rbacBinding.setScope(scope);
+
+    PlanArtifact artifact =
+        roundTrip(
+            new CreateBindings(
+                accessControlProvider, new HashSet<>(Arrays.asList(aclBinding, rbacBinding))),
+            new ClearBindings(accessControlProvider, Collections.singletonList(aclBinding)));
+
+    assertThat(artifact.getActions().get(0)).isInstanceOf(CreateBindings.class);
+    assertThat(artifact.getActions().get(1)).isInstanceOf(ClearBindings.class);
+    List<TopologyAclBinding> bindings = artifact.getActions().get(0).getBindings();
+    assertThat(bindings).containsExactlyInAnyOrder(aclBinding, rbacBinding);
+    for (TopologyAclBinding binding : bindings) {
+      if (binding.equals(aclBinding)) {
+        assertThat(binding.asAclBinding()).isEqualTo(aclBinding.asAclBinding());
+      } else {
+        assertThat(binding.getScope().asJson()).isEqualTo(scope.asJson());
+      }
+    }
+  }
+
+  @Test
+  public void testAccountsRoundTrip() throws IOException {
+    List<ServiceAccount> accounts = new ArrayList<>();
+    accounts.add(new ServiceAccount(1, "User:app", "Managed by KTB"));
+
+    PlanArtifact artifact =
+        roundTrip(
+            new CreateAccounts(principalProvider, accounts),
+            new ClearAccounts(principalProvider, accounts));
+
+    assertThat(artifact.getActions().get(0)).isInstanceOf(CreateAccounts.class);
+    assertThat(artifact.getActions().get(1)).isInstanceOf(ClearAccounts.class);
+    ServiceAccount account =
+        ((BaseAccountsAction) artifact.getActions().get(0)).getPrincipals().iterator().next();
+    assertThat(account.getId()).isEqualTo(1);
+    assertThat(account.getName()).isEqualTo("User:app");
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnsupportedVersionIsRejected() throws IOException {
+    serdes.deserialise("{\"version\": 0, \"stateFingerprint\": \"state\", \"actions\": []}");
+  }
+}
@@ -228,4 +228,77 @@ public class PrincipalManagerTest {
 
     assertThat(plan.getServiceAccounts()).hasSize(1);
   }
+
+  @Test
+  public void testPrincipalInventoryIsLoadedOncePerRun() throws IOException {
+    props.put(TOPOLOGY_STATE_FROM_CLUSTER, "true");
+    config = new TopologyBuilderConfig(cliOps, props);
+    principalManager = new PrincipalManager(provider, config);
+    // as the builder does, the cluster listing follows the actions applied by the run
+    ClusterSnapshot clusterSnapshot = new ClusterSnapshot();
+    principalManager.setClusterSnapshot(clusterSnapshot);
+    plan.addActionListener(clusterSnapshot::apply);
+
+    Topology topology = new TopologyImpl();
+    topology.setContext("context");
+    Project foo = new ProjectImpl("foo");
+    foo.setConsumers(Collections.singletonList(new Consumer("consumer")));
+    topology.addProject(foo);
+    Project bar = new ProjectImpl("bar");
+    bar.setConsumers(Collections.singletonList(new Consumer("consumer")));
+    bar.setProducers(Collections.singletonList(new Producer("producer")));
+    topology.addProject(bar);
+
+    doNothing().when(provider).configure();
+    doReturn(Collections.singleton(new ServiceAccount(123, "producer", "Managed by KTB")))
+        .when(provider)
+        .listServiceAccounts();
+    doReturn(new ServiceAccount(124, "consumer", "Managed by KTB"))
+        .when(provider)
+        .createServiceAccount(eq("consumer"), eq("Managed by KTB"));
+
+    principalManager.applyCreate(topology, plan);
+    principalManager.applyDelete(topology, plan);
+
+    assertThat(plan.getActions()).hasSize(1);
+    assertThat(plan.getActions())
+        .containsAnyOf(
+            new CreateAccounts(
+                provider,
+                Collections.singletonList(new ServiceAccount(-1, "consumer", "Managed by KTB"))));
+
+    assertThat(principalManager.currentAccounts(plan))
+        .extracting(ServiceAccount::getName)
+        .containsExactlyInAnyOrder("producer");
+
+    plan.run();
+
+    assertThat(principalManager.currentAccounts(plan))
+        .extracting(ServiceAccount::getName)
+        .containsExactlyInAnyOrder("consumer", "producer");
+    verify(provider, times(1)).listServiceAccounts();
+  }
+
+  @Test
+  public void testCreatedAccountsAreReadFromTheStateByTheNextRead() throws IOException {
+    Topology topology = new TopologyImpl();
+    topology.setContext("context");
+    Project foo = new ProjectImpl("foo");
+    foo.setConsumers(Collections.singletonList(new Consumer("consumer")));
+    topology.addProject(foo);
+
+    doNothing().when(provider).configure();
+    doReturn(new ServiceAccount(124, "consumer", "Managed by KTB"))
+        .when(provider)
+        .createServiceAccount(eq("consumer"), eq("Managed by KTB"));
+
+    principalManager.applyCreate(topology, plan);
+    assertThat(principalManager.currentAccounts(plan)).isEmpty();
+
+    plan.run();
+
+    assertThat(principalManager.currentAccounts(plan))
+        .extracting(ServiceAccount::getName)
+        .containsExactly("consumer");
+  }
 }
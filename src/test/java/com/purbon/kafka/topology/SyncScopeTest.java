@@ -0,0 +1,117 @@
+package com.purbon.kafka.topology;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.purbon.kafka.topology.model.Impl.ProjectImpl;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncScopeTest {
+
+  private Topology topology;
+  private Project foo;
+  private Project fooBar;
+
+  @Before
+  public void before() {
+    topology = new TopologyImpl();
+    topology.setContext("context");
+    foo = new ProjectImpl("foo");
+    fooBar = new ProjectImpl("foo.bar");
+    topology.setProjects(Arrays.asList(foo, fooBar));
+  }
+
+  private static TopologyAclBinding binding(ResourceType type, String resource, String principal) {
+    return new TopologyAclBinding(type, resource, "*", "READ", principal, "LITERAL");
+  }
+
+  @Test
+  public void testUnscopedRunsIncludeEverything() {
+    SyncScope.Filter filter = SyncScope.all().filter(topology, ".");
+
+    assertThat(SyncScope.all().isAll()).isTrue();
+    assertThat(filter.includesTopic("any.topic")).isTrue();
+    assertThat(filter.includes(binding(ResourceType.CLUSTER, "kafka-cluster", "User:a"))).isTrue();
+    assertThat(filter.includesAccount("User:a")).isTrue();
+  }
+
+  @Test
+  public void testTopicsAreAttributedToTheLongestProjectPrefix() {
+    SyncScope scope =
+        new SyncScope(
+            Collections.singletonList("foo"), Collections.emptyList(), Collections.emptyList());
+    SyncScope.Filter filter = scope.filter(topology, ".");
+
+    assertThat(filter.includes(foo)).isTrue();
+    assertThat(filter.includes(fooBar)).isFalse();
+    assertThat(filter.includesTopic("context.foo.topic")).isTrue();
+    assertThat(filter.includesTopic("context.foo.bar.topic")).isFalse();
+    assertThat(filter.includesTopic("context.other.topic")).isFalse();
+
+    assertThat(filter.includes(binding(ResourceType.TOPIC, "context.foo", "User:a"))).isTrue();
+    assertThat(filter.includes(binding(ResourceType.GROUP, "context.foo.app", "User:a"))).isTrue();
+    assertThat(filter.includes(binding(ResourceType.GROUP, "*", "User:a"))).isFalse();
+    assertThat(filter.includes(binding(ResourceType.CLUSTER, "kafka-cluster", "User:a"))).isFalse();
+    // accounts can not be attributed to a project, so they are never deleted by a project scope
+    assertThat(filter.includesAccount("User:a")).isFalse();
+  }
+
+  @Test
+  public void testPrincipalScopesLeaveTheTopicsUntouched() {
+    SyncScope scope =
+        new SyncScope(
+            Collections.emptyList(), Collections.emptyList(), Collections.singletonList("User:a"));
+    SyncScope.Filter filter = scope.filter(topology, ".");
+
+    assertThat(filter.includes(foo)).isFalse();
+    assertThat(filter.includesTopic("context.foo.topic")).isFalse();
+    assertThat(filter.includes(binding(ResourceType.CLUSTER, "kafka-cluster", "User:a"))).isTrue();
+    assertThat(filter.includes(binding(ResourceType.TOPIC, "context.foo.t", "User:b"))).isFalse();
+    assertThat(filter.includesAccount("User:a")).isTrue();
+    assertThat(filter.includesAccount("User:b")).isFalse();
+  }
+
+  @Test
+  public void testExcludedProjectsAreLeftUntouched() {
+    SyncScope scope = SyncScope.all().excluding(Collections.singletonList("context.foo"));
+    SyncScope.Filter filter = scope.filter(topology, ".");
+
+    assertThat(scope.isAll()).isFalse();
+    assertThat(filter.includes(foo)).isFalse();
+    assertThat(filter.includes(fooBar)).isTrue();
+    assertThat(filter.includesTopic("context.foo.topic")).isFalse();
+    assertThat(filter.includesTopic("context.foo.bar.topic")).isTrue();
+    assertThat(filter.includesTopic("context.removed.topic")).isTrue();
+    assertThat(filter.includes(binding(ResourceType.TRANSACTIONAL_ID, "context.foo.tx", "User:a")))
+        .isFalse();
+    assertThat(filter.includes(binding(ResourceType.CLUSTER, "kafka-cluster", "User:a"))).isTrue();
+    // the service accounts, and the users they are created for, stay in scope
+    assertThat(filter.includesUsers(foo, null)).isTrue();
+    assertThat(filter.includesAccount("User:a")).isTrue();
+    assertThat(filter.includesState("context.foo")).isFalse();
+    assertThat(filter.includesState("context.foo.bar")).isTrue();
+  }
+
+  @Test
+  public void testScopeIsReadFromTheCliOptions() {
+    Map<String, String> cliOps = new HashMap<>();
+    cliOps.put(BuilderCLI.BROKERS_OPTION, "");
+    cliOps.put(BuilderCLI.TOPICS_OPTION, "context.foo.a, context.foo.b,");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(cliOps, new Properties());
+    SyncScope.Filter filter = config.getSyncScope().filter(topology, ".");
+
+    assertThat(config.getSyncScope().isAll()).isFalse();
+    assertThat(filter.includesTopic(foo, "context.foo.b")).isTrue();
+    assertThat(filter.includesTopic(foo, "context.foo.c")).isFalse();
+  }
+}
@@ -4,16 +4,22 @@ import static com.purbon.kafka.topology.BuilderCLI.ALLOW_DELETE_OPTION;
 import static com.purbon.kafka.topology.BuilderCLI.BROKERS_OPTION;
 import static com.purbon.kafka.topology.TopicManager.NUM_PARTITIONS;
 import static com.purbon.kafka.topology.TopologyBuilderConfig.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.purbon.kafka.topology.actions.Action;
+import com.purbon.kafka.topology.actions.schemas.RegisterSchemaAction;
+import com.purbon.kafka.topology.actions.topics.DeleteTopics;
+import com.purbon.kafka.topology.actions.topics.SyncTopicAction;
 import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
 import com.purbon.kafka.topology.model.Impl.ProjectImpl;
 import com.purbon.kafka.topology.model.Impl.TopicImpl;
 import com.purbon.kafka.topology.model.Impl.TopologyImpl;
 import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.TopicSchemas;
 import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.schemas.SchemaRegistryManager;
 import java.io.IOException;
@@ -365,4 +371,93 @@ public class TopicManagerTest {
     verify(adminClient, times(1)).createTopic(topicA, topicA.toString());
     verify(adminClient, times(0)).createTopic(topicB, topicB.toString());
   }
+
+  @Test
+  public void incrementalApplyOnlySyncsChangedProjectsAndMissingTopics() throws IOException {
+
+    Topology topology = new TopologyImpl();
+    Project foo = new ProjectImpl("foo");
+    topology.addProject(foo);
+    Project bar = new ProjectImpl("bar");
+    topology.addProject(bar);
+
+    Topic fooTopic = new TopicImpl("topicA");
+    foo.addTopic(fooTopic);
+    Topic barTopic = new TopicImpl("topicB");
+    bar.addTopic(barTopic);
+    Topic newBarTopic = new TopicImpl("topicC");
+    bar.addTopic(newBarTopic);
+
+    plan.getTopics().add(fooTopic.toString());
+    plan.getTopics().add(barTopic.toString());
+
+    topicManager.applyIncremental(topology, plan, Collections.singletonList(foo.namePrefix()));
+
+    List<String> syncedTopics =
+        plan.getActions().stream()
+            .map(action -> ((SyncTopicAction) action).getTopic())
+            .collect(Collectors.toList());
+    assertThat(syncedTopics).containsExactly(fooTopic.toString(), newBarTopic.toString());
+  }
+
+  @Test
+  public void scopedApplyNeverDeletesTopicsOutOfScope() throws IOException {
+
+    Topology topology = new TopologyImpl();
+    Project foo = new ProjectImpl("foo");
+    topology.addProject(foo);
+    Project bar = new ProjectImpl("bar");
+    topology.addProject(bar);
+
+    Topic fooTopic = new TopicImpl("topicA");
+    foo.addTopic(fooTopic);
+    Topic barTopic = new TopicImpl("topicB");
+    bar.addTopic(barTopic);
+
+    plan.getTopics().add("default.foo.removed");
+    plan.getTopics().add("default.bar.removed");
+
+    cliOps.put(ALLOW_DELETE_OPTION, "true");
+    cliOps.put(BuilderCLI.PROJECTS_OPTION, "foo");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(cliOps, props);
+    TopicManager topicManager = new TopicManager(adminClient, schemaRegistryManager, config);
+
+    topicManager.apply(topology, plan);
+
+    assertThat(plan.getActions()).hasSize(2);
+    assertThat(((SyncTopicAction) plan.getActions().get(0)).getTopic())
+        .isEqualTo(fooTopic.toString());
+    assertThat(((DeleteTopics) plan.getActions().get(1)).getTopicsToBeDeleted())
+        .containsExactly("default.foo.removed");
+  }
+
+  @Test
+  public void schemasAreRegisteredByTheirOwnActions() throws IOException {
+
+    Project project = new ProjectImpl("project");
+    Topic topicA = new TopicImpl("topicA");
+    topicA.setSchemas(
+        Collections.singletonList(
+            new TopicSchemas(
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(new TextNode("value.avsc")),
+                Optional.empty(),
+                Optional.of(new TextNode("AVRO")),
+                Optional.of(new TextNode("BACKWARD")))));
+    project.addTopic(topicA);
+    Topology topology = new TopologyImpl();
+    topology.addProject(project);
+
+    topicManager.apply(topology, plan);
+
+    assertThat(plan.getActions()).hasSize(2);
+    RegisterSchemaAction action = (RegisterSchemaAction) plan.getActions().get(1);
+    assertThat(action.getTopic()).isEqualTo(topicA.toString());
+    assertThat(action.getSubject()).isEqualTo(topicA.toString() + "-value");
+    assertThat(action.getCompatibility()).contains("BACKWARD");
+    verify(schemaRegistryManager, never()).register(anyString(), anyString(), anyString());
+  }
 }
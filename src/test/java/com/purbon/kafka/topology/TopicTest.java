@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import org.junit.Assert;
 import org.junit.Before;
@@ -122,4 +123,36 @@ public class TopicTest {
     String fulllName = topic.toString();
     Assert.assertEquals("other.team.project.topic", fulllName);
   }
+
+  @Test
+  public void topicNameIsResolvedAgainWhenThePrefixChanges() {
+    Topic topic = new TopicImpl("topic");
+    topic.setDefaultProjectPrefix(project.namePrefix());
+    Assert.assertEquals("team.project.topic", topic.toString());
+
+    topology.setContext("other");
+    topology.setProjects(Collections.singletonList(project));
+    topic.setDefaultProjectPrefix(project.namePrefix());
+    Assert.assertEquals("other.project.topic", topic.toString());
+  }
+
+  @Test
+  public void customPatternDoesNotShareTheDataTypeBetweenTopics() {
+    Properties props = new Properties();
+    props.put(TOPIC_PREFIX_FORMAT_CONFIG, "{{context}}.{{project}}.{{topic}}{{dataType}}");
+    TopologyBuilderConfig config = new TopologyBuilderConfig(new HashMap<>(), props);
+
+    Topology topology = new TopologyImpl(config);
+    topology.setContext("team");
+    Project project = new ProjectImpl("project", config);
+    topology.setProjects(Collections.singletonList(project));
+
+    Topic typedTopic = new TopicImpl("typed", Optional.of(".avro"), new HashMap<>(), config);
+    Topic topic = new TopicImpl("topic", config);
+    project.addTopic(typedTopic);
+    project.addTopic(topic);
+
+    Assert.assertEquals("team.project.typed.avro", typedTopic.toString());
+    Assert.assertEquals("team.project.topic", topic.toString());
+  }
 }
@@ -0,0 +1,212 @@
+package com.purbon.kafka.topology;
+
+import static com.purbon.kafka.topology.BuilderCLI.*;
+import static com.purbon.kafka.topology.TopologyBuilderConfig.CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG;
+import static com.purbon.kafka.topology.TopologyBuilderConfig.TOPOLOGY_TOPIC_STATE_FROM_CLUSTER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.*;
+
+import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.backend.FileBackend;
+import com.purbon.kafka.topology.timing.Timings;
+import com.purbon.kafka.topology.utils.TestUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class TopologyDaemonTest {
+
+  @Mock TopologyBuilderAdminClient topologyAdminClient;
+
+  @Mock AccessControlProvider accessControlProvider;
+
+  @Mock BindingsBuilderProvider bindingsBuilderProvider;
+
+  @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path topologyFile;
+  private TopologyDaemon daemon;
+  private Map<String, String> cliOps;
+
+  @Before
+  public void before() throws Exception {
+    topologyFile = folder.getRoot().toPath().resolve("descriptor.yaml");
+    Files.copy(
+        Paths.get(TestUtils.getResourceFilename("/descriptor-only-topics.yaml")), topologyFile);
+
+    cliOps = new HashMap<>();
+    cliOps.put(BROKERS_OPTION, "");
+    cliOps.put(ADMIN_CLIENT_CONFIG_OPTION, "/fooBar");
+    cliOps.put(QUIET_OPTION, "true");
+
+    daemon = buildDaemon(new Properties());
+  }
+
+  private TopologyDaemon buildDaemon(Properties props) throws Exception {
+    props.put(CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG, "http://foo:8082");
+    props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "");
+    props.put("topology.builder.state.processor.class", FileBackend.class.getName());
+
+    TopologyBuilderConfig config = new TopologyBuilderConfig(cliOps, props);
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(
+            topologyFile.toString(),
+            config,
+            topologyAdminClient,
+            accessControlProvider,
+            bindingsBuilderProvider);
+    return new TopologyDaemon(topologyFile.toString(), "default", config, builder);
+  }
+
+  @After
+  public void after() throws IOException {
+    daemon.close();
+    Timings.disable();
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME));
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME + ".metadata"));
+  }
+
+  @Test
+  public void unchangedTopologyIsOnlyAppliedByTheDriftCheck() throws IOException {
+    assertTrue(daemon.reconcile(true));
+    assertFalse(daemon.reconcile(false));
+    assertTrue(daemon.reconcile(true));
+
+    verify(topologyAdminClient, times(2)).createTopic(anyObject(), eq("contextOrg.source.foo.foo"));
+  }
+
+  @Test
+  public void onlyTheChangedProjectsAreSynced() throws IOException {
+    assertTrue(daemon.reconcile(true));
+    when(topologyAdminClient.listApplicationTopics())
+        .thenReturn(
+            new HashSet<>(
+                Arrays.asList(
+                    "contextOrg.source.foo.foo",
+                    "contextOrg.source.foo.bar.avro",
+                    "contextOrg.source.bar.bar.avro")));
+
+    appendTopic("baz");
+
+    assertTrue(daemon.reconcile(false));
+
+    verify(topologyAdminClient, times(1)).createTopic(anyObject(), eq("contextOrg.source.bar.baz"));
+    verify(topologyAdminClient, times(1))
+        .updateTopicConfig(anyObject(), eq("contextOrg.source.bar.bar.avro"));
+    verify(topologyAdminClient, never())
+        .updateTopicConfig(anyObject(), eq("contextOrg.source.foo.foo"));
+  }
+
+  @Test
+  public void theClusterIsOnlyListedAgainByTheDriftCheck() throws Exception {
+    daemon.close();
+    Properties props = new Properties();
+    props.put(TOPOLOGY_TOPIC_STATE_FROM_CLUSTER, "true");
+    daemon = buildDaemon(props);
+
+    assertTrue(daemon.reconcile(true));
+    verify(topologyAdminClient, times(1)).listApplicationTopics();
+
+    appendTopic("baz");
+    assertTrue(daemon.reconcile(false));
+    verify(topologyAdminClient, times(1)).listApplicationTopics();
+    verify(topologyAdminClient, times(1)).createTopic(anyObject(), eq("contextOrg.source.bar.baz"));
+
+    assertTrue(daemon.reconcile(true));
+    verify(topologyAdminClient, times(2)).listApplicationTopics();
+  }
+
+  @Test
+  public void timingsCoverTheLastRunOnly() {
+    Timings.enable();
+    assertTrue(daemon.reconcile(true));
+    assertTrue(daemon.reconcile(true));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Timings.printTable(new PrintStream(out));
+    assertThat(out.toString()).containsPattern("phase +parse +1 ");
+  }
+
+  @Test
+  public void closeWaitsForTheRunInProgress() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return null;
+            })
+        .when(topologyAdminClient)
+        .createTopic(anyObject(), eq("contextOrg.source.foo.foo"));
+
+    Thread run = new Thread(() -> daemon.reconcile(true));
+    run.start();
+    started.await();
+    Thread close =
+        new Thread(
+            () -> {
+              try {
+                daemon.close();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+    close.start();
+
+    close.join(200);
+    verify(topologyAdminClient, never()).close();
+    release.countDown();
+    run.join();
+    close.join();
+    verify(topologyAdminClient, times(1)).close();
+    assertFalse(daemon.reconcile(true));
+  }
+
+  @Test
+  public void invalidTopologyIsNotApplied() throws IOException {
+    assertTrue(daemon.reconcile(true));
+    Files.write(topologyFile, "projects: [".getBytes(StandardCharsets.UTF_8));
+
+    assertFalse(daemon.reconcile(false));
+    verify(topologyAdminClient, times(3)).createTopic(anyObject(), anyString());
+  }
+
+  /** Add a topic to the last project of the topology file. */
+  private void appendTopic(String name) throws IOException {
+    String newTopic =
+        "      - name: \""
+            + name
+            + "\"\n"
+            + "        config:\n"
+            + "          replication.factor: \"1\"\n"
+            + "          num.partitions: \"1\"\n";
+    Files.write(topologyFile, newTopic.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+}
@@ -0,0 +1,143 @@
+package com.purbon.kafka.topology;
+
+import static com.purbon.kafka.topology.BuilderCLI.BROKERS_OPTION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.purbon.kafka.topology.model.Impl.ProjectImpl;
+import com.purbon.kafka.topology.model.Impl.TopicImpl;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.TopicSchemas;
+import com.purbon.kafka.topology.model.Topology;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TopologyFingerprintTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Map<String, String> cliOps;
+  private TopologyBuilderConfig config;
+  private String topologyFile;
+
+  @Before
+  public void setup() throws IOException {
+    cliOps = new HashMap<>();
+    cliOps.put(BROKERS_OPTION, "");
+    config = new TopologyBuilderConfig(cliOps, new Properties());
+    topologyFile = folder.newFile("descriptor.yaml").getAbsolutePath();
+  }
+
+  private Topology buildTopology(String fooTopicPartitions) {
+    Topology topology = new TopologyImpl(config);
+    topology.setContext("context");
+    Project foo = new ProjectImpl("foo", config);
+    Project bar = new ProjectImpl("bar", config);
+    topology.setProjects(Arrays.asList(foo, bar));
+
+    HashMap<String, String> topicConfig = new HashMap<>();
+    topicConfig.put("num.partitions", fooTopicPartitions);
+    foo.addTopic(new TopicImpl("topic", topicConfig));
+    bar.addTopic(new TopicImpl("topic"));
+    return topology;
+  }
+
+  @Test
+  public void testSameTopologyHasTheSameFingerprint() throws IOException {
+    TopologyFingerprint fingerprint =
+        TopologyFingerprint.build(buildTopology("3"), config, topologyFile);
+    TopologyFingerprint other = TopologyFingerprint.build(buildTopology("3"), config, topologyFile);
+
+    assertThat(other.getFingerprint()).isEqualTo(fingerprint.getFingerprint());
+    assertThat(other.matches(fingerprint.asMetadata())).isTrue();
+    assertThat(other.changedProjects(fingerprint.asMetadata())).isEmpty();
+  }
+
+  @Test
+  public void testChangedProjectsAreReported() throws IOException {
+    TopologyFingerprint fingerprint =
+        TopologyFingerprint.build(buildTopology("3"), config, topologyFile);
+    TopologyFingerprint other = TopologyFingerprint.build(buildTopology("6"), config, topologyFile);
+
+    assertThat(other.matches(fingerprint.asMetadata())).isFalse();
+    assertThat(other.matchesConfig(fingerprint.asMetadata())).isTrue();
+    assertThat(other.changedProjects(fingerprint.asMetadata())).containsExactly("context.foo");
+    assertThat(other.changedProjects(Collections.emptyMap()))
+        .containsExactlyInAnyOrder("context.foo", "context.bar");
+  }
+
+  @Test
+  public void testConfigAndEpochChangesTheFingerprint() throws IOException {
+    TopologyFingerprint fingerprint =
+        TopologyFingerprint.build(buildTopology("3"), config, topologyFile);
+
+    Properties props = new Properties();
+    props.put("topology.topic.prefix.separator", "_");
+    TopologyBuilderConfig otherConfig = new TopologyBuilderConfig(cliOps, props);
+    TopologyFingerprint other =
+        TopologyFingerprint.build(buildTopology("3"), otherConfig, topologyFile);
+    assertThat(other.matches(fingerprint.asMetadata())).isFalse();
+    assertThat(other.matchesConfig(fingerprint.asMetadata())).isFalse();
+
+    props = new Properties();
+    props.put("topology.builder.fingerprint.cluster.epoch", "1");
+    otherConfig = new TopologyBuilderConfig(cliOps, props);
+    other = TopologyFingerprint.build(buildTopology("3"), otherConfig, topologyFile);
+    assertThat(other.getFingerprint()).isEqualTo(fingerprint.getFingerprint());
+    assertThat(other.matches(fingerprint.asMetadata())).isFalse();
+    assertThat(other.matchesConfig(fingerprint.asMetadata())).isFalse();
+  }
+
+  @Test
+  public void testOperationalConfigDoesNotChangeTheFingerprint() throws IOException {
+    TopologyFingerprint fingerprint =
+        TopologyFingerprint.build(buildTopology("3"), config, topologyFile);
+
+    Properties props = new Properties();
+    props.put("topology.builder.execution.parallelism", "8");
+    props.put("topology.builder.metrics.textfile", "/tmp/ktb.prom");
+    props.put("topology.builder.timing.enabled", "true");
+    props.put("topology.builder.parse.cache.dir", "/tmp/ktb-cache");
+    props.put("topology.builder.server.port", "9090");
+    props.put("sasl.jaas.config", "secret");
+    TopologyBuilderConfig otherConfig = new TopologyBuilderConfig(cliOps, props);
+    TopologyFingerprint other =
+        TopologyFingerprint.build(buildTopology("3"), otherConfig, topologyFile);
+
+    assertThat(other.matches(fingerprint.asMetadata())).isTrue();
+    assertThat(other.matchesConfig(fingerprint.asMetadata())).isTrue();
+
+    props = new Properties();
+    props.put("allow.delete.topics", "true");
+    otherConfig = new TopologyBuilderConfig(cliOps, props);
+    other = TopologyFingerprint.build(buildTopology("3"), otherConfig, topologyFile);
+    assertThat(other.matchesConfig(fingerprint.asMetadata())).isFalse();
+  }
+
+  @Test
+  public void testSchemaFileContentIsPartOfTheFingerprint() throws IOException {
+    Path schemaFile = folder.newFile("value.avsc").toPath();
+    Files.write(schemaFile, "{\"type\": \"string\"}".getBytes());
+
+    Topology topology = buildTopology("3");
+    Topic topic = topology.getProjects().get(0).getTopics().get(0);
+    topic.setSchemas(Collections.singletonList(new TopicSchemas(null, "value.avsc")));
+    TopologyFingerprint fingerprint = TopologyFingerprint.build(topology, config, topologyFile);
+
+    Files.write(schemaFile, "{\"type\": \"long\"}".getBytes());
+    TopologyFingerprint other = TopologyFingerprint.build(topology, config, topologyFile);
+
+    assertThat(other.changedProjects(fingerprint.asMetadata())).containsExactly("context.foo");
+  }
+}
@@ -2,20 +2,30 @@ package com.purbon.kafka.topology;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import com.purbon.kafka.topology.exceptions.TopologyParsingException;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topic;
 import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.utils.TestUtils;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.stream.Collectors;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class TopologyObjectBuilderTest {
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void buildTopicNameTest() throws IOException {
     String fileOrDirPath = TestUtils.getResourceFilename("/dir");
@@ -72,4 +82,59 @@ public class TopologyObjectBuilderTest {
     String dirPath = TestUtils.getResourceFilename("/errors_dir");
     TopologyObjectBuilder.build(dirPath);
   }
+
+  @Test
+  public void testDirectoryIsMergedInFileOrderWhateverTheParallelism() throws IOException {
+    String dirPath = TestUtils.getResourceFilename("/dir");
+
+    List<String> sequential = projectNames(TopologyObjectBuilder.build(dirPath, "", config(1)));
+    List<String> concurrent = projectNames(TopologyObjectBuilder.build(dirPath, "", config(4)));
+
+    assertThat(concurrent).hasSize(4).isEqualTo(sequential);
+  }
+
+  @Test
+  public void testParsingErrorsOfAllTheFilesAreReported() throws IOException {
+    File dir = folder.newFolder("topologies");
+    String invalid = TestUtils.getResourceFilename("/errors_dir/descriptor-with-errors.yaml");
+    Files.copy(Paths.get(invalid), dir.toPath().resolve("a.yaml"));
+    Files.copy(Paths.get(invalid), dir.toPath().resolve("c.yaml"));
+    Files.copy(
+        Paths.get(TestUtils.getResourceFilename("/dir/descriptor.yaml")),
+        dir.toPath().resolve("b.yaml"));
+
+    try {
+      TopologyObjectBuilder.build(dir.getAbsolutePath(), "", config(2));
+      fail("the topology should not be parsed");
+    } catch (TopologyParsingException e) {
+      assertThat(e.getMessage())
+          .startsWith("Failed to parse 2 topology files")
+          .containsSubsequence("a.yaml", "c.yaml")
+          .doesNotContain("b.yaml");
+      assertThat(e.getSuppressed()).hasSize(1);
+    }
+  }
+
+  @Test
+  public void testStreamingParseBuildsTheSameTopology() throws IOException {
+    String dirPath = TestUtils.getResourceFilename("/dir");
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.PARSE_STREAMING_CONFIG, "true");
+
+    Topology topology =
+        TopologyObjectBuilder.build(dirPath, "", new TopologyBuilderConfig(new HashMap<>(), props));
+
+    assertThat(projectNames(topology))
+        .isEqualTo(projectNames(TopologyObjectBuilder.build(dirPath)));
+  }
+
+  private static TopologyBuilderConfig config(int parseParallelism) {
+    Properties props = new Properties();
+    props.put(TopologyBuilderConfig.PARSE_PARALLELISM_CONFIG, String.valueOf(parseParallelism));
+    return new TopologyBuilderConfig(new HashMap<>(), props);
+  }
+
+  private static List<String> projectNames(Topology topology) {
+    return topology.getProjects().stream().map(Project::namePrefix).collect(Collectors.toList());
+  }
 }
@@ -0,0 +1,120 @@
+package com.purbon.kafka.topology;
+
+import static com.purbon.kafka.topology.TopologyBuilderConfig.PARSE_CACHE_DIR_CONFIG;
+import static com.purbon.kafka.topology.TopologyBuilderConfig.TOPIC_PREFIX_FORMAT_CONFIG;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.utils.TestUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TopologyParseCacheTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private File cacheDir;
+  private String descriptorFile;
+  private String plansFile;
+
+  @Before
+  public void before() throws IOException {
+    cacheDir = folder.newFolder("cache");
+    descriptorFile = TestUtils.getResourceFilename("/descriptor-with-plans.yaml");
+    plansFile = TestUtils.getResourceFilename("/plans.yaml");
+  }
+
+  private TopologyBuilderConfig config(Properties props) {
+    props.put(PARSE_CACHE_DIR_CONFIG, cacheDir.getAbsolutePath());
+    return new TopologyBuilderConfig(new HashMap<>(), props);
+  }
+
+  private static List<String> topics(Topology topology) {
+    return topology.getProjects().stream()
+        .flatMap(project -> project.getTopics().stream())
+        .map(topic -> topic.toString() + topic.getConfig())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testCachedParseBuildsTheSameTopology() throws IOException {
+    Topology parsed = TopologyObjectBuilder.build(descriptorFile, plansFile);
+
+    Topology first =
+        TopologyObjectBuilder.build(descriptorFile, plansFile, config(new Properties()));
+    assertThat(cacheDir.list()).hasSize(2);
+    Topology cached =
+        TopologyObjectBuilder.build(descriptorFile, plansFile, config(new Properties()));
+    assertThat(cacheDir.list()).hasSize(2);
+
+    assertThat(topics(first)).isEqualTo(topics(parsed));
+    assertThat(topics(cached)).isEqualTo(topics(parsed));
+    assertThat(cached.getContext()).isEqualTo(parsed.getContext());
+  }
+
+  @Test
+  public void testChangedNamingConfigIsNotServedFromTheCache() throws IOException {
+    TopologyObjectBuilder.build(descriptorFile, plansFile, config(new Properties()));
+
+    Properties props = new Properties();
+    props.put(TOPIC_PREFIX_FORMAT_CONFIG, "{{source}}.{{context}}.{{project}}.{{topic}}");
+    Topology topology = TopologyObjectBuilder.build(descriptorFile, plansFile, config(props));
+
+    assertThat(cacheDir.list()).hasSize(4);
+    Topic topic = topology.getProjects().get(0).getTopics().get(0);
+    assertThat(topic.toString()).isEqualTo("source.contextOrg.foo." + topic.getName());
+  }
+
+  @Test
+  public void testEntriesNotUsedForLongerThanTheMaxAgeAreRemoved() throws IOException {
+    TopologyObjectBuilder.build(descriptorFile, plansFile, config(new Properties()));
+    File[] used = cacheDir.listFiles();
+    File unused = new File(cacheDir, "unused.bin");
+    Files.write(unused.toPath(), new byte[] {0});
+
+    FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(8)));
+    for (File entry : used) {
+      Files.setLastModifiedTime(entry.toPath(), old);
+    }
+    Files.setLastModifiedTime(unused.toPath(), old);
+    TopologyObjectBuilder.build(descriptorFile, plansFile, config(new Properties()));
+
+    assertThat(cacheDir.listFiles()).containsExactlyInAnyOrder(used);
+  }
+
+  @Test
+  public void testBinaryEncodingRoundTrip() throws IOException {
+    JsonNode tree =
+        new ObjectMapper()
+            .readTree(
+                "{\"a\": [1, 3000000000, 1.5, 12345678901234567890123, true, false, null],"
+                    + " \"b\": {\"c\": \"ünïcode\", \"d\": []}, \"e\": \"\"}");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TopologyParseCache.encode(tree, new DataOutputStream(bytes));
+    JsonNode decoded =
+        TopologyParseCache.decode(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertThat(decoded).isEqualTo(tree);
+  }
+}
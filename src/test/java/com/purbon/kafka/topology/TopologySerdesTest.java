@@ -27,7 +27,10 @@ import com.purbon.kafka.topology.model.users.platform.SchemaRegistryInstance;
 import com.purbon.kafka.topology.serdes.TopologySerdes;
 import com.purbon.kafka.topology.serdes.TopologySerdes.FileType;
 import com.purbon.kafka.topology.utils.TestUtils;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.junit.Before;
@@ -391,6 +394,53 @@ public class TopologySerdesTest {
     assertEquals(2, topology.getProjects().get(0).getTopics().size());
   }
 
+  @Test
+  public void testStreamingDeserialiseBuildsTheSameProjects() {
+    for (String descriptor :
+        Arrays.asList(
+            "/descriptor.yaml", "/descriptor-with-rbac.yaml", "/descriptor-with-others.yml")) {
+      Topology topology = parser.deserialise(TestUtils.getResourceFile(descriptor));
+
+      List<Project> projects = new ArrayList<>();
+      Topology streamed = parser.deserialise(TestUtils.getResourceFile(descriptor), projects::add);
+
+      assertThat(streamed.getContext()).isEqualTo(topology.getContext());
+      assertThat(streamed.getProjects()).isEmpty();
+      assertThat(projects).hasSameSizeAs(topology.getProjects());
+      for (int i = 0; i < projects.size(); i++) {
+        Project expected = topology.getProjects().get(i);
+        Project project = projects.get(i);
+        assertThat(project.namePrefix()).isEqualTo(expected.namePrefix());
+        assertThat(principals(project.getConsumers()))
+            .isEqualTo(principals(expected.getConsumers()));
+        assertThat(principals(project.getProducers()))
+            .isEqualTo(principals(expected.getProducers()));
+        assertThat(principals(project.getStreams())).isEqualTo(principals(expected.getStreams()));
+        assertThat(principals(project.getConnectors()))
+            .isEqualTo(principals(expected.getConnectors()));
+        assertThat(project.getRbacRawRoles()).isEqualTo(expected.getRbacRawRoles());
+        assertThat(project.getTopics().stream().map(Topic::toString))
+            .containsExactlyElementsOf(
+                expected.getTopics().stream().map(Topic::toString).collect(Collectors.toList()));
+      }
+    }
+  }
+
+  @Test(expected = TopologyParsingException.class)
+  public void testStreamingDeserialiseRequiresTheContextBeforeTheProjects() throws IOException {
+    File descriptor = File.createTempFile("descriptor", ".yaml");
+    descriptor.deleteOnExit();
+    Files.write(
+        descriptor.toPath(),
+        "projects:\n  - name: foo\ncontext: contextOrg\n".getBytes(StandardCharsets.UTF_8));
+
+    parser.deserialise(descriptor, project -> {});
+  }
+
+  private static List<String> principals(List<? extends User> users) {
+    return users.stream().map(User::getPrincipal).collect(Collectors.toList());
+  }
+
   private List<Project> buildProjects() {
     Project project = new ProjectImpl("project");
     project.setConsumers(buildConsumers());
@@ -0,0 +1,172 @@
+package com.purbon.kafka.topology;
+
+import static com.purbon.kafka.topology.BuilderCLI.*;
+import static com.purbon.kafka.topology.TopologyBuilderConfig.CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.*;
+
+import com.purbon.kafka.topology.api.adminclient.TopologyBuilderAdminClient;
+import com.purbon.kafka.topology.backend.FileBackend;
+import com.purbon.kafka.topology.utils.JSON;
+import com.purbon.kafka.topology.utils.TestUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class TopologyServerTest {
+
+  @Mock TopologyBuilderAdminClient topologyAdminClient;
+
+  @Mock AccessControlProvider accessControlProvider;
+
+  @Mock BindingsBuilderProvider bindingsBuilderProvider;
+
+  @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  private TopologyServer server;
+
+  @Before
+  public void before() throws Exception {
+    String fileOrDirPath = TestUtils.getResourceFilename("/descriptor-only-topics.yaml");
+
+    Map<String, String> cliOps = new HashMap<>();
+    cliOps.put(BROKERS_OPTION, "");
+    cliOps.put(ADMIN_CLIENT_CONFIG_OPTION, "/fooBar");
+    cliOps.put(QUIET_OPTION, "true");
+
+    Properties props = new Properties();
+    props.put(CONFLUENT_SCHEMA_REGISTRY_URL_CONFIG, "http://foo:8082");
+    props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, "");
+    props.put("topology.builder.state.processor.class", FileBackend.class.getName());
+
+    TopologyBuilderConfig config = new TopologyBuilderConfig(cliOps, props);
+    KafkaTopologyBuilder builder =
+        KafkaTopologyBuilder.build(
+            fileOrDirPath,
+            config,
+            topologyAdminClient,
+            accessControlProvider,
+            bindingsBuilderProvider);
+    server =
+        new TopologyServer(
+            fileOrDirPath, "default", config, builder, new InetSocketAddress("localhost", 0));
+    server.start();
+  }
+
+  @After
+  public void after() throws IOException {
+    server.close();
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME));
+    Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME + ".metadata"));
+  }
+
+  @Test
+  public void planDoesNotAlterTheCluster() throws IOException {
+    HttpURLConnection connection = request("POST", "/plan");
+
+    assertEquals(200, connection.getResponseCode());
+    assertTrue(body(connection.getInputStream()).contains("contextOrg.source.foo.foo"));
+    verify(topologyAdminClient, never()).createTopic(anyObject(), anyString());
+  }
+
+  @Test
+  public void applyIsReportedByTheStatusAndTheState() throws IOException {
+    HttpURLConnection connection = request("POST", "/apply");
+
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("succeeded", JSON.toMap(body(connection.getInputStream())).get("result"));
+    verify(topologyAdminClient, times(1)).createTopic(anyObject(), eq("contextOrg.source.foo.foo"));
+
+    connection = request("GET", "/status");
+    Map<String, Object> status = JSON.toMap(body(connection.getInputStream()));
+    assertEquals(null, status.get("running"));
+    assertEquals("apply", ((Map) status.get("lastRun")).get("operation"));
+
+    connection = request("GET", "/state");
+    List<String> topics =
+        (List<String>) JSON.toMap(body(connection.getInputStream())).get("topics");
+    assertTrue(topics.contains("contextOrg.source.foo.foo"));
+  }
+
+  @Test
+  public void stateIsServedFromMemory() throws IOException {
+    assertEquals(200, request("POST", "/apply").getResponseCode());
+    Files.delete(Paths.get(FileBackend.STATE_FILE_NAME));
+
+    HttpURLConnection connection = request("GET", "/state");
+    List<String> topics =
+        (List<String>) JSON.toMap(body(connection.getInputStream())).get("topics");
+    assertTrue(topics.contains("contextOrg.source.foo.foo"));
+  }
+
+  @Test
+  public void runIsRefusedWhileAnotherOneRuns() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              started.countDown();
+              release.await();
+              return null;
+            })
+        .when(topologyAdminClient)
+        .createTopic(anyObject(), eq("contextOrg.source.foo.foo"));
+
+    ExecutorService client = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> apply = client.submit(() -> request("POST", "/apply").getResponseCode());
+      started.await();
+
+      assertEquals(409, request("POST", "/plan").getResponseCode());
+      assertEquals(200, request("GET", "/status").getResponseCode());
+      release.countDown();
+      assertEquals(200, (int) apply.get());
+    } finally {
+      release.countDown();
+      client.shutdown();
+    }
+  }
+
+  @Test
+  public void wrongMethodIsRefused() throws IOException {
+    assertEquals(405, request("GET", "/apply").getResponseCode());
+    verify(topologyAdminClient, never()).createTopic(anyObject(), anyString());
+  }
+
+  private HttpURLConnection request(String method, String path) throws IOException {
+    URL url = new URL("http://localhost:" + server.getPort() + path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    return connection;
+  }
+
+  private static String body(InputStream stream) {
+    try (Scanner scanner = new Scanner(stream, StandardCharsets.UTF_8.name())) {
+      return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+    }
+  }
+}
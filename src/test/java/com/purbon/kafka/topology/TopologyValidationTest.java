@@ -5,9 +5,15 @@ import static com.purbon.kafka.topology.BuilderCLI.BROKERS_OPTION;
 import static com.purbon.kafka.topology.TopologyBuilderConfig.TOPOLOGY_VALIDATIONS_CONFIG;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.purbon.kafka.topology.model.Impl.ProjectImpl;
+import com.purbon.kafka.topology.model.Impl.TopicImpl;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
 import com.purbon.kafka.topology.model.Topology;
 import com.purbon.kafka.topology.serdes.TopologySerdes;
 import com.purbon.kafka.topology.utils.TestUtils;
+import com.purbon.kafka.topology.validation.ValidationResult;
+import com.purbon.kafka.topology.validation.topic.PartitionNumberValidation;
 import java.io.IOException;
 import java.util.*;
 import org.junit.Before;
@@ -90,4 +96,71 @@ public class TopologyValidationTest {
     assertThat(results.get(4))
         .isEqualTo("Topic contextOrg.source.baz.topicF has an invalid number of partitions: 1");
   }
+
+  @Test
+  public void testStructuredResults() throws IOException {
+
+    Topology topology = parser.deserialise(TestUtils.getResourceFile("/descriptor.yaml"));
+
+    TopologyValidator validator =
+        new TopologyValidator(
+            config("topology.CamelCaseNameFormatValidation", "topic.PartitionNumberValidation"));
+    List<ValidationResult> results = validator.results(topology);
+    assertThat(results).hasSize(5);
+
+    assertThat(results.get(0).getValidator())
+        .isEqualTo("com.purbon.kafka.topology.validation.topology.CamelCaseNameFormatValidation");
+    assertThat(results.get(0).getProject()).isEmpty();
+    assertThat(results.get(0).getTopic()).isEmpty();
+
+    assertThat(results.get(1).getValidator()).isEqualTo(PartitionNumberValidation.class.getName());
+    assertThat(results.get(1).getProject()).hasValue("foo");
+    assertThat(results.get(1).getTopic()).hasValue("contextOrg.source.foo.foo");
+    assertThat(results.get(1).getMessage())
+        .isEqualTo("Topic contextOrg.source.foo.foo has an invalid number of partitions: 1");
+  }
+
+  @Test
+  public void testFullyQualifiedAndUnknownValidations() throws IOException {
+
+    Topology topology = parser.deserialise(TestUtils.getResourceFile("/descriptor.yaml"));
+
+    TopologyValidator validator =
+        new TopologyValidator(
+            config(PartitionNumberValidation.class.getName(), "topic.DoesNotExistValidation"));
+    assertThat(validator.validate(topology)).hasSize(4);
+  }
+
+  @Test
+  public void testLargeTopologiesKeepTheTopicOrder() throws IOException {
+
+    int size = TopologyValidator.PARALLEL_THRESHOLD * 4;
+    TopologyBuilderConfig config = config("topic.PartitionNumberValidation");
+    Topology topology = new TopologyImpl(config);
+    topology.setContext("context");
+    Project project = new ProjectImpl("project", config);
+    topology.addProject(project);
+    for (int i = 0; i < size; i++) {
+      HashMap<String, String> topicConfig = new HashMap<>();
+      topicConfig.put("num.partitions", i % 2 == 0 ? "1" : "3");
+      project.addTopic(new TopicImpl("topic" + i, Optional.empty(), topicConfig, config));
+    }
+
+    List<ValidationResult> results = new TopologyValidator(config).results(topology);
+
+    assertThat(results).hasSize(size / 2);
+    for (int i = 0; i < results.size(); i++) {
+      assertThat(results.get(i).getTopic()).hasValue("context.project.topic" + (i * 2));
+    }
+  }
+
+  private TopologyBuilderConfig config(String... validations) {
+    Map<String, String> cliOps = new HashMap<>();
+    cliOps.put(BROKERS_OPTION, "");
+    cliOps.put(ADMIN_CLIENT_CONFIG_OPTION, "/fooBar");
+
+    Properties props = new Properties();
+    props.put(TOPOLOGY_VALIDATIONS_CONFIG, Arrays.asList(validations));
+    return new TopologyBuilderConfig(cliOps, props);
+  }
 }
@@ -8,6 +8,8 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.metrics.Metrics;
+import com.purbon.kafka.topology.metrics.MetricsRegistry;
 import com.purbon.kafka.topology.model.Impl.ProjectImpl;
 import com.purbon.kafka.topology.model.Impl.TopicImpl;
 import com.purbon.kafka.topology.model.Impl.TopologyImpl;
@@ -38,6 +40,7 @@ public class FileBackendTest {
 
   @After
   public void after() throws IOException {
+    Metrics.disable();
     Files.deleteIfExists(Paths.get(STATE_FILE_NAME));
   }
 
@@ -76,4 +79,26 @@ public class FileBackendTest {
     assertThat(topics).contains(topic.toString());
     assertThat(topics).contains(topicBar.toString());
   }
+
+  @Test
+  public void testStateBytesAreCountedInUtf8() throws IOException {
+    Metrics.enable(false);
+    String topic = "context.caf\u00e9.topic";
+
+    backend.createOrOpen(Mode.TRUNCATE);
+    backend.saveType(TOPICS_TAG);
+    backend.saveTopics(Collections.singleton(topic));
+    backend.close();
+
+    backend = new FileBackend();
+    backend.createOrOpen();
+    assertThat(backend.loadTopics()).containsExactly(topic);
+    backend.close();
+
+    long size = Files.size(Paths.get(STATE_FILE_NAME));
+    MetricsRegistry registry = Metrics.registry();
+    assertThat(registry.counter("ktb_state_written_bytes_total", "backend", "file"))
+        .isEqualTo(size);
+    assertThat(registry.counter("ktb_state_read_bytes_total", "backend", "file")).isEqualTo(size);
+  }
 }
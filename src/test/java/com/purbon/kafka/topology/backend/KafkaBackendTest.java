@@ -0,0 +1,192 @@
+package com.purbon.kafka.topology.backend;
+
+import static com.purbon.kafka.topology.backend.KafkaBackend.ACL_KEY_PREFIX;
+import static com.purbon.kafka.topology.backend.KafkaBackend.SERVICE_ACCOUNT_KEY_PREFIX;
+import static com.purbon.kafka.topology.backend.KafkaBackend.TOPIC_KEY_PREFIX;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KafkaBackendTest {
+
+  private static final String STATE_TOPIC = "state";
+  private static final TopicPartition PARTITION = new TopicPartition(STATE_TOPIC, 0);
+
+  private MockProducer<String, String> producer;
+  private MockConsumer<String, String> consumer;
+  private KafkaBackend backend;
+
+  @Before
+  public void before() {
+    producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.updatePartitions(
+        STATE_TOPIC,
+        Collections.singletonList(new PartitionInfo(STATE_TOPIC, 0, null, null, null)));
+    consumer.updateBeginningOffsets(Collections.singletonMap(PARTITION, 0L));
+    backend = new KafkaBackend(STATE_TOPIC, producer, consumer);
+  }
+
+  private void givenStateRecords(String... keyValues) {
+    consumer.updateEndOffsets(Collections.singletonMap(PARTITION, (long) keyValues.length / 2));
+    consumer.schedulePollTask(
+        () -> {
+          for (int i = 0; i < keyValues.length; i += 2) {
+            consumer.addRecord(
+                new ConsumerRecord<>(STATE_TOPIC, 0, i / 2, keyValues[i], keyValues[i + 1]));
+          }
+        });
+  }
+
+  @Test
+  public void testDataLoading() throws IOException {
+    String bindingA = "'TOPIC', 'topicA', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    String bindingB = "'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    givenStateRecords(
+        ACL_KEY_PREFIX + bindingA,
+        bindingA,
+        ACL_KEY_PREFIX + bindingB,
+        bindingB,
+        TOPIC_KEY_PREFIX + "topicA",
+        "topicA",
+        TOPIC_KEY_PREFIX + "topicB",
+        "topicB",
+        SERVICE_ACCOUNT_KEY_PREFIX + "name",
+        "{\"id\":1,\"name\":\"name\",\"description\":\"description\"}",
+        TOPIC_KEY_PREFIX + "topicB",
+        null);
+
+    Set<TopologyAclBinding> bindings = backend.loadBindings();
+    Set<String> topics = backend.loadTopics();
+    Set<ServiceAccount> accounts = backend.loadServiceAccounts();
+
+    assertEquals(2, bindings.size());
+    assertEquals(Collections.singleton("topicA"), topics);
+    assertEquals(1, accounts.size());
+  }
+
+  @Test
+  public void testSaveOnlyTheDelta() throws IOException {
+    String kept = "'TOPIC', 'topicA', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    String removed = "'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    givenStateRecords(
+        ACL_KEY_PREFIX + kept, kept,
+        ACL_KEY_PREFIX + removed, removed,
+        TOPIC_KEY_PREFIX + "topicA", "topicA");
+
+    Set<TopologyAclBinding> bindings = backend.loadBindings();
+    bindings.removeIf(binding -> binding.getResourceName().equals("topicB"));
+
+    backend.saveBindings(bindings);
+    backend.saveTopics(new HashSet<>(Arrays.asList("topicA", "topicC")));
+    backend.close();
+
+    Map<String, String> produced = new HashMap<>();
+    List<ProducerRecord<String, String>> history = producer.history();
+    history.forEach(record -> produced.put(record.key(), record.value()));
+
+    assertEquals(2, history.size());
+    assertTrue(produced.containsKey(ACL_KEY_PREFIX + removed));
+    assertNull(produced.get(ACL_KEY_PREFIX + removed));
+    assertEquals("topicC", produced.get(TOPIC_KEY_PREFIX + "topicC"));
+  }
+
+  @Test
+  public void testShardsShareOneReadOfTheTopic() throws IOException {
+    givenStateRecords(
+        TOPIC_KEY_PREFIX + "topicA", "topicA", "context.foo/" + TOPIC_KEY_PREFIX + "foo", "foo");
+    KafkaBackend globalShard = new KafkaBackend(backend, null);
+    KafkaBackend fooShard = new KafkaBackend(backend, "context.foo");
+
+    assertEquals(Collections.singleton("topicA"), globalShard.loadTopics());
+    assertEquals(Collections.singleton("foo"), fooShard.loadTopics());
+
+    fooShard.saveTopics(new HashSet<>(Arrays.asList("foo", "bar")));
+    fooShard.close();
+    globalShard.close();
+
+    assertEquals(1, producer.history().size());
+    assertEquals("context.foo/" + TOPIC_KEY_PREFIX + "bar", producer.history().get(0).key());
+    assertFalse(producer.closed());
+    backend.close();
+    assertTrue(producer.closed());
+  }
+
+  @Test
+  public void testSaveOnAnEmptyTopic() {
+    givenStateRecords();
+
+    TopologyAclBinding binding =
+        TopologyAclBinding.build("TOPIC", "topicA", "*", "READ", "User:Connect1", "LITERAL");
+    backend.saveBindings(Collections.singleton(binding));
+    backend.close();
+
+    assertEquals(1, producer.history().size());
+    assertEquals(binding.toString(), producer.history().get(0).value());
+    assertTrue(producer.closed());
+  }
+
+  @Test
+  public void testFailedSaveIsReported() {
+    givenStateRecords();
+    Producer<String, String> failingProducer = mock(Producer.class);
+    CompletableFuture<RecordMetadata> failure = new CompletableFuture<>();
+    failure.completeExceptionally(new TimeoutException("not acknowledged"));
+    when(failingProducer.send(any())).thenReturn(failure);
+    backend = new KafkaBackend(STATE_TOPIC, failingProducer, consumer);
+
+    backend.saveTopics(Collections.singleton("topicA"));
+    try {
+      backend.close();
+      fail("The state was not stored, closing the backend should fail");
+    } catch (UncheckedIOException e) {
+      verify(failingProducer).close();
+    }
+  }
+
+  @Test
+  public void testLoadingTimesOut() throws IOException {
+    consumer.updateEndOffsets(Collections.singletonMap(PARTITION, 1L));
+    backend = new KafkaBackend(STATE_TOPIC, producer, consumer, Duration.ofMillis(10));
+
+    try {
+      backend.loadTopics();
+      fail("The state topic can not be read up to its end, loading should time out");
+    } catch (UncheckedIOException e) {
+      assertTrue(e.getMessage().contains(STATE_TOPIC));
+    }
+  }
+}
@@ -1,17 +1,22 @@
 package com.purbon.kafka.topology.backend;
 
 import static com.purbon.kafka.topology.backend.RedisBackend.KAFKA_TOPOLOGY_BUILDER_BINDINGS;
-import static com.purbon.kafka.topology.backend.RedisBackend.KAFKA_TOPOLOGY_BUILDER_TYPE;
+import static com.purbon.kafka.topology.backend.RedisBackend.KAFKA_TOPOLOGY_BUILDER_SERVICE_ACCOUNTS;
+import static com.purbon.kafka.topology.backend.RedisBackend.KAFKA_TOPOLOGY_BUILDER_TOPICS;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import org.apache.kafka.common.resource.ResourceType;
@@ -22,10 +27,19 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
 
 public class RedisBackendTest {
 
   @Mock Jedis jedis;
+  @Mock Pipeline pipeline;
+  @Mock Transaction transaction;
+
+  @Mock Response<Set<String>> bindingsResponse;
+  @Mock Response<Set<String>> topicsResponse;
+  @Mock Response<Set<String>> accountsResponse;
 
   @Rule public MockitoRule mockitoRule = MockitoJUnit.rule();
 
@@ -34,6 +48,15 @@ public class RedisBackendTest {
   @Before
   public void before() {
     stateProcessor = new RedisBackend(jedis);
+    when(jedis.isConnected()).thenReturn(true);
+    when(jedis.pipelined()).thenReturn(pipeline);
+    when(jedis.multi()).thenReturn(transaction);
+    when(pipeline.smembers(KAFKA_TOPOLOGY_BUILDER_BINDINGS)).thenReturn(bindingsResponse);
+    when(pipeline.smembers(KAFKA_TOPOLOGY_BUILDER_TOPICS)).thenReturn(topicsResponse);
+    when(pipeline.smembers(KAFKA_TOPOLOGY_BUILDER_SERVICE_ACCOUNTS)).thenReturn(accountsResponse);
+    when(bindingsResponse.get()).thenReturn(Collections.emptySet());
+    when(topicsResponse.get()).thenReturn(Collections.emptySet());
+    when(accountsResponse.get()).thenReturn(Collections.emptySet());
   }
 
   @Test
@@ -43,24 +66,57 @@ public class RedisBackendTest {
         TopologyAclBinding.build(
             ResourceType.CLUSTER.name(), "Topic", "host", "op", "principal", "LITERAL");
 
-    when(jedis.sadd(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS), any())).thenReturn(1l);
-
     stateProcessor.saveBindings(new HashSet<>(Arrays.asList(binding)));
+    stateProcessor.close();
+
+    verify(transaction, times(1)).sadd(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS), any());
+    verify(transaction, never()).srem(anyString(), any());
+    verify(transaction, times(1)).exec();
+  }
+
+  @Test
+  public void testSaveOnlyTheDelta() throws IOException {
+    String kept = "'TOPIC', 'topicA', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    String removed = "'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'";
+    when(bindingsResponse.get()).thenReturn(new HashSet<>(Arrays.asList(kept, removed)));
+    when(topicsResponse.get()).thenReturn(Collections.singleton("topicA"));
+
+    Set<TopologyAclBinding> bindings = stateProcessor.loadBindings();
+    bindings.removeIf(binding -> binding.getResourceName().equals("topicB"));
+
+    stateProcessor.saveBindings(bindings);
+    stateProcessor.saveTopics(new HashSet<>(Arrays.asList("topicA", "topicC")));
+    stateProcessor.close();
 
-    verify(jedis, times(1)).sadd(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS), any());
+    verify(transaction, never()).sadd(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS), any());
+    verify(transaction, times(1)).srem(KAFKA_TOPOLOGY_BUILDER_BINDINGS, removed);
+    verify(transaction, times(1)).sadd(KAFKA_TOPOLOGY_BUILDER_TOPICS, "topicC");
+    verify(transaction, never()).srem(eq(KAFKA_TOPOLOGY_BUILDER_TOPICS), any());
   }
 
   @Test
   public void testDataLoading() throws IOException {
 
-    when(jedis.get(eq(KAFKA_TOPOLOGY_BUILDER_TYPE))).thenReturn("acls");
-    when(jedis.scard(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS))).thenReturn(10l);
-    when(jedis.spop(eq(KAFKA_TOPOLOGY_BUILDER_BINDINGS)))
-        .thenReturn("'TOPIC', 'topicA', '*', 'READ', 'User:Connect1', 'LITERAL'")
-        .thenReturn("'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'");
+    when(bindingsResponse.get())
+        .thenReturn(
+            new HashSet<>(
+                Arrays.asList(
+                    "'TOPIC', 'topicA', '*', 'READ', 'User:Connect1', 'LITERAL'",
+                    "'TOPIC', 'topicB', '*', 'READ', 'User:Connect1', 'LITERAL'")));
+    when(topicsResponse.get()).thenReturn(Collections.singleton("topicA"));
+    when(accountsResponse.get())
+        .thenReturn(
+            Collections.singleton("{\"id\":1,\"name\":\"name\",\"description\":\"description\"}"));
 
     Set<TopologyAclBinding> bindings = stateProcessor.loadBindings();
+    Set<String> topics = stateProcessor.loadTopics();
+    Set<ServiceAccount> accounts = stateProcessor.loadServiceAccounts();
 
     assertEquals(2, bindings.size());
+    assertEquals(1, topics.size());
+    assertEquals(1, accounts.size());
+    verify(jedis, times(1)).pipelined();
+    verify(pipeline, times(1)).sync();
+    verify(jedis, never()).spop(anyString());
   }
 }
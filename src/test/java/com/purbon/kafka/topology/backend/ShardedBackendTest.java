@@ -0,0 +1,184 @@
+package com.purbon.kafka.topology.backend;
+
+import static com.purbon.kafka.topology.backend.FileBackend.STATE_FILE_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.model.Impl.ProjectImpl;
+import com.purbon.kafka.topology.model.Impl.TopicImpl;
+import com.purbon.kafka.topology.model.Impl.TopologyImpl;
+import com.purbon.kafka.topology.model.Project;
+import com.purbon.kafka.topology.model.Topic;
+import com.purbon.kafka.topology.model.Topology;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedBackendTest {
+
+  private TopologyBuilderConfig config;
+  private Topology topology;
+  private Topic fooTopic;
+  private Topic barTopic;
+  private List<String> writtenShards;
+  private BackendFactory factory;
+
+  @Before
+  public void setup() {
+    config = new TopologyBuilderConfig();
+    topology = new TopologyImpl();
+    topology.setContext("context");
+    Project foo = new ProjectImpl("foo");
+    Project bar = new ProjectImpl("bar");
+    topology.setProjects(Arrays.asList(foo, bar));
+    fooTopic = new TopicImpl("topic");
+    foo.addTopic(fooTopic);
+    barTopic = new TopicImpl("topic");
+    bar.addTopic(barTopic);
+
+    writtenShards = new ArrayList<>();
+    factory =
+        new FileBackendFactory() {
+          @Override
+          public Backend build(TopologyBuilderConfig config, String shard) {
+            String fileName = shard == null ? STATE_FILE_NAME : STATE_FILE_NAME + "." + shard;
+            return new FileBackend(fileName) {
+              @Override
+              public void createOrOpen(Mode mode) {
+                if (mode == Mode.TRUNCATE) {
+                  writtenShards.add(String.valueOf(shard));
+                }
+                super.createOrOpen(mode);
+              }
+            };
+          }
+        };
+  }
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(Paths.get(STATE_FILE_NAME));
+    for (Project project : topology.getProjects()) {
+      String shard = ShardedBackend.shardName(project.namePrefix());
+      Files.deleteIfExists(Paths.get(STATE_FILE_NAME + "." + shard));
+    }
+  }
+
+  @Test
+  public void testStateIsSplitPerProject() throws IOException {
+    TopologyAclBinding binding =
+        TopologyAclBinding.build(
+            ResourceType.TOPIC.name(), fooTopic.toString(), "*", "READ", "User:foo", "LITERAL");
+    ServiceAccount account = new ServiceAccount(1, "User:foo", "description");
+
+    ShardedBackend backend = new ShardedBackend(factory, config, topology);
+    backend.saveBindings(Collections.singleton(binding));
+    backend.saveAccounts(Collections.singleton(account));
+    backend.saveTopics(
+        new HashSet<>(Arrays.asList(fooTopic.toString(), barTopic.toString(), "external")));
+    backend.close();
+
+    assertThat(writtenShards).containsExactlyInAnyOrder("null", "context.foo", "context.bar");
+
+    FileBackend fooShard = new FileBackend(STATE_FILE_NAME + ".context.foo");
+    fooShard.createOrOpen();
+    assertThat(fooShard.loadTopics()).containsExactly(fooTopic.toString());
+    assertThat(fooShard.loadBindings()).containsExactly(binding);
+    fooShard.close();
+
+    FileBackend globalShard = new FileBackend();
+    globalShard.createOrOpen();
+    assertThat(globalShard.loadTopics()).containsExactly("external");
+    assertThat(globalShard.loadServiceAccounts()).containsExactly(account);
+    globalShard.close();
+
+    backend = new ShardedBackend(factory, config, topology);
+    assertThat(backend.loadTopics())
+        .containsExactlyInAnyOrder(fooTopic.toString(), barTopic.toString(), "external");
+    assertThat(backend.loadBindings()).containsExactly(binding);
+  }
+
+  @Test
+  public void testOnlyChangedShardsAreRewritten() throws IOException {
+    ShardedBackend backend = new ShardedBackend(factory, config, topology);
+    backend.saveTopics(new HashSet<>(Arrays.asList(fooTopic.toString(), barTopic.toString())));
+    backend.close();
+    writtenShards.clear();
+
+    backend = new ShardedBackend(factory, config, topology);
+    Set<String> topics = backend.loadTopics();
+    topics.remove(barTopic.toString());
+    backend.saveBindings(Collections.emptySet());
+    backend.saveAccounts(Collections.emptySet());
+    backend.saveTopics(topics);
+    backend.close();
+
+    assertThat(writtenShards).containsExactly("context.bar");
+  }
+
+  @Test
+  public void testOnlyTheSelectedShardsAreLoaded() throws IOException {
+    ShardedBackend backend = new ShardedBackend(factory, config, topology);
+    backend.saveTopics(new HashSet<>(Arrays.asList(fooTopic.toString(), barTopic.toString())));
+    backend.close();
+    writtenShards.clear();
+
+    backend =
+        new ShardedBackend(
+            factory,
+            config,
+            Arrays.asList("context.foo", "context.bar"),
+            metadata -> Collections.singletonList("context.foo"));
+    Set<String> topics = backend.loadTopics();
+    assertThat(topics).containsExactly(fooTopic.toString());
+    topics.add("context.foo.other");
+    backend.saveBindings(Collections.emptySet());
+    backend.saveAccounts(Collections.emptySet());
+    backend.saveTopics(topics);
+    backend.close();
+
+    assertThat(writtenShards).containsExactly("context.foo");
+    backend = new ShardedBackend(factory, config, topology);
+    assertThat(backend.loadTopics())
+        .containsExactlyInAnyOrder(fooTopic.toString(), "context.foo.other", barTopic.toString());
+  }
+
+  @Test
+  public void testTheShardsOfRemovedProjectsAreLoaded() throws IOException {
+    ShardedBackend backend = new ShardedBackend(factory, config, topology);
+    backend.saveTopics(new HashSet<>(Arrays.asList(fooTopic.toString(), barTopic.toString())));
+    backend.close();
+
+    Topology fooOnly = new TopologyImpl();
+    fooOnly.setContext("context");
+    fooOnly.setProjects(Collections.singletonList(new ProjectImpl("foo")));
+
+    backend = new ShardedBackend(factory, config, fooOnly);
+    assertThat(backend.loadMetadata()).doesNotContainKey(ShardedBackend.SHARD_INDEX_KEY);
+    assertThat(backend.loadTopics())
+        .containsExactlyInAnyOrder(fooTopic.toString(), barTopic.toString());
+    backend.saveBindings(Collections.emptySet());
+    backend.saveAccounts(Collections.emptySet());
+    backend.saveTopics(Collections.singleton(fooTopic.toString()));
+    backend.close();
+
+    FileBackend globalShard = new FileBackend();
+    globalShard.createOrOpen();
+    assertThat(globalShard.loadMetadata())
+        .containsEntry(ShardedBackend.SHARD_INDEX_KEY, "context.foo");
+    globalShard.close();
+  }
+}
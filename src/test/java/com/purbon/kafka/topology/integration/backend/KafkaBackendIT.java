@@ -0,0 +1,104 @@
+package com.purbon.kafka.topology.integration.backend;
+
+import static com.purbon.kafka.topology.BuilderCLI.BROKERS_OPTION;
+
+import com.purbon.kafka.topology.BackendController.Mode;
+import com.purbon.kafka.topology.TopologyBuilderConfig;
+import com.purbon.kafka.topology.backend.KafkaBackend;
+import com.purbon.kafka.topology.integration.containerutils.ContainerFactory;
+import com.purbon.kafka.topology.integration.containerutils.SaslPlaintextKafkaContainer;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
+import com.purbon.kafka.topology.roles.TopologyAclBinding;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.common.resource.ResourceType;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KafkaBackendIT {
+
+  private static SaslPlaintextKafkaContainer container;
+  private TopologyBuilderConfig config;
+
+  @BeforeClass
+  public static void setup() {
+    container = ContainerFactory.fetchSaslKafkaContainer(System.getProperty("cp.version"));
+    container.start();
+  }
+
+  @AfterClass
+  public static void teardown() {
+    container.stop();
+  }
+
+  @Before
+  public void before() {
+    Map<String, String> cliOps = new HashMap<>();
+    cliOps.put(BROKERS_OPTION, container.getBootstrapServers());
+
+    Properties props = new Properties();
+    props.put(AdminClientConfig.SECURITY_PROTOCOL_CONFIG, "SASL_PLAINTEXT");
+    props.put("sasl.mechanism", "PLAIN");
+    props.put(
+        "sasl.jaas.config",
+        "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"kafka\" password=\"kafka\";");
+    props.put("topology.builder.kafka.state.topic", "state-" + System.nanoTime());
+    props.put("topology.builder.kafka.state.replication.factor", "1");
+
+    config = new TopologyBuilderConfig(cliOps, props);
+  }
+
+  @Test
+  public void testStoreAndFetch() throws IOException {
+    KafkaBackend backend = new KafkaBackend(config);
+    backend.createOrOpen();
+
+    TopologyAclBinding binding =
+        TopologyAclBinding.build(
+            ResourceType.TOPIC.name(), "foo", "*", "Write", "User:foo", "LITERAL");
+    backend.saveBindings(new HashSet<>(Arrays.asList(binding)));
+    ServiceAccount account = new ServiceAccount(1, "User:foo", "description");
+    backend.saveAccounts(Collections.singleton(account));
+    backend.saveTopics(new HashSet<>(Arrays.asList("foo", "bar")));
+    backend.close();
+
+    backend = new KafkaBackend(config);
+    backend.createOrOpen();
+
+    Set<TopologyAclBinding> bindings = backend.loadBindings();
+
+    Assert.assertEquals(1, bindings.size());
+    Assert.assertEquals(binding.getPrincipal(), bindings.iterator().next().getPrincipal());
+    Assert.assertEquals(Collections.singleton(account), backend.loadServiceAccounts());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("foo", "bar")), backend.loadTopics());
+    backend.close();
+  }
+
+  @Test
+  public void testRemovedElementsAreNotLoaded() throws IOException {
+    KafkaBackend backend = new KafkaBackend(config);
+    backend.createOrOpen();
+    backend.saveTopics(new HashSet<>(Arrays.asList("foo", "bar")));
+    backend.close();
+
+    backend = new KafkaBackend(config);
+    backend.createOrOpen(Mode.TRUNCATE);
+    backend.saveTopics(new HashSet<>(Arrays.asList("foo", "zet")));
+    backend.close();
+
+    backend = new KafkaBackend(config);
+    backend.createOrOpen();
+    Assert.assertEquals(new HashSet<>(Arrays.asList("foo", "zet")), backend.loadTopics());
+    backend.close();
+  }
+}
@@ -1,9 +1,12 @@
 package com.purbon.kafka.topology.integration.backend;
 
+import com.purbon.kafka.topology.BackendController.Mode;
 import com.purbon.kafka.topology.backend.RedisBackend;
+import com.purbon.kafka.topology.model.cluster.ServiceAccount;
 import com.purbon.kafka.topology.roles.TopologyAclBinding;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import org.apache.kafka.common.resource.ResourceType;
@@ -32,10 +35,46 @@ public class RedisBackendIT {
         TopologyAclBinding.build(
             ResourceType.TOPIC.name(), "foo", "*", "Write", "User:foo", "LITERAL");
     rsp.saveBindings(new HashSet<>(Arrays.asList(binding)));
+    ServiceAccount account = new ServiceAccount(1, "User:foo", "description");
+    rsp.saveAccounts(Collections.singleton(account));
+    rsp.saveTopics(new HashSet<>(Arrays.asList("foo", "bar")));
+    rsp.close();
+
+    rsp = new RedisBackend(host, port);
+    rsp.createOrOpen();
 
     Set<TopologyAclBinding> bindings = rsp.loadBindings();
 
     Assert.assertEquals(1, bindings.size());
     Assert.assertEquals(binding.getPrincipal(), bindings.iterator().next().getPrincipal());
+    Assert.assertEquals(Collections.singleton(account), rsp.loadServiceAccounts());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("foo", "bar")), rsp.loadTopics());
+
+    // loading the state should never consume it
+    rsp.close();
+    rsp = new RedisBackend(host, port);
+    rsp.createOrOpen();
+    Assert.assertEquals(1, rsp.loadBindings().size());
+    rsp.close();
+  }
+
+  @Test
+  public void testOnlyTheDeltaIsWritten() throws IOException {
+    String host = redis.getContainerIpAddress();
+    int port = redis.getFirstMappedPort();
+    RedisBackend rsp = new RedisBackend(host, port);
+    rsp.createOrOpen();
+    rsp.saveTopics(new HashSet<>(Arrays.asList("foo", "bar")));
+    rsp.close();
+
+    rsp = new RedisBackend(host, port);
+    rsp.createOrOpen(Mode.TRUNCATE);
+    rsp.saveTopics(new HashSet<>(Arrays.asList("foo", "zet")));
+    rsp.close();
+
+    rsp = new RedisBackend(host, port);
+    rsp.createOrOpen();
+    Assert.assertEquals(new HashSet<>(Arrays.asList("foo", "zet")), rsp.loadTopics());
+    rsp.close();
   }
 }
@@ -0,0 +1,100 @@
+package com.purbon.kafka.topology.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.purbon.kafka.topology.timing.Timings;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetricsTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void after() {
+    Metrics.disable();
+  }
+
+  @Test
+  public void testNothingIsRecordedWhenDisabled() throws IOException {
+    Metrics.disable();
+    Metrics.callError("admin", "createTopic");
+    Metrics.resourcesChanged("topic", "create", 1);
+
+    Path textFile = folder.getRoot().toPath().resolve("ktb.prom");
+    Metrics.writeTextFile(textFile);
+
+    assertThat(Metrics.isEnabled()).isFalse();
+    assertThat(Files.exists(textFile)).isFalse();
+  }
+
+  @Test
+  public void testRemoteCallsAreCountedThroughTheirTimer() {
+    Metrics.enable(false);
+    for (int i = 0; i < 2; i++) {
+      try (Timings.Timer timer = Timings.call("admin", "createTopic")) {
+        // timed call
+      }
+    }
+    Metrics.callError("admin", "createTopic");
+
+    MetricsRegistry registry = Metrics.registry();
+    assertThat(registry.counter(Metrics.CALLS, "client", "admin", "operation", "createTopic"))
+        .isEqualTo(2);
+    assertThat(registry.counter(Metrics.CALL_ERRORS, "operation", "createTopic", "client", "admin"))
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .summary(Metrics.CALL_SECONDS, "client", "admin", "operation", "createTopic")
+                .getCount())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testTextFileIsWrittenInThePrometheusFormat() throws IOException {
+    Metrics.enable(false);
+    Metrics.stateBytesRead("file", 10);
+    Metrics.stateBytesRead("file", 5);
+    Metrics.resourcesChanged("topic", "create", 3);
+    Metrics.resourcesChanged("binding", "delete", 0);
+    Metrics.callError("mds", "post \"x\"");
+
+    Path textFile = folder.getRoot().toPath().resolve("ktb.prom");
+    Metrics.writeTextFile(textFile);
+
+    List<String> lines = Files.readAllLines(textFile, StandardCharsets.UTF_8);
+    assertThat(lines)
+        .contains(
+            "# TYPE ktb_state_read_bytes_total counter",
+            "ktb_state_read_bytes_total{backend=\"file\"} 15",
+            "ktb_resources_changed_total{operation=\"create\",resource=\"topic\"} 3",
+            "ktb_remote_call_errors_total{client=\"mds\",operation=\"post \\\"x\\\"\"} 1");
+    assertThat(lines).noneMatch(line -> line.contains("binding"));
+    assertThat(folder.getRoot().list()).containsExactly("ktb.prom");
+  }
+
+  @Test
+  public void testMetricsAreExposedOverJmx() throws Exception {
+    Metrics.enable(true);
+    Metrics.stateBytesWritten("redis", 42);
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+    assertThat(server.getAttribute(name, "ktb_state_written_bytes_total{backend=redis}"))
+        .isEqualTo(42L);
+
+    // a new run replaces the registered metrics
+    Metrics.enable(true);
+    assertThat(server.getMBeanInfo(name).getAttributes()).isEmpty();
+  }
+}
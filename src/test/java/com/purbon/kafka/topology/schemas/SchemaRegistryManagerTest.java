@@ -1,18 +1,29 @@
 package com.purbon.kafka.topology.schemas;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.purbon.kafka.topology.schemas.SchemaRegistryManager.SchemaRegistryManagerException;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
 import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -124,4 +135,88 @@ public class SchemaRegistryManagerTest {
     final String unknownSchemaType = "bunch-of-monkeys";
     manager.register(subjectName, unknownSchemaType, simpleSchema);
   }
+
+  private SchemaRegistryManager mockedManager() throws Exception {
+    ParsedSchema parsedSchema = Mockito.mock(ParsedSchema.class);
+    when(parsedSchema.schemaType()).thenReturn(schemaType);
+    when(parsedSchema.canonicalString()).thenReturn(simpleSchema);
+    when(mockClient.parseSchema(eq(schemaType), eq(simpleSchema), anyList()))
+        .thenReturn(Optional.of(parsedSchema));
+    when(mockClient.register(subjectName, parsedSchema)).thenReturn(7);
+    return new SchemaRegistryManager(mockClient, rootDir.toString());
+  }
+
+  @Test
+  public void shouldSkipSchemasAndCompatibilitiesAlreadyApplied() throws Exception {
+    SchemaRegistryManager manager = mockedManager();
+
+    assertThat(manager.save(subjectName, schemaType, simpleSchema)).isEqualTo(7);
+    assertThat(manager.save(subjectName, schemaType, simpleSchema)).isEqualTo(7);
+    manager.setCompatibility(subjectName, "FORWARD");
+    manager.setCompatibility(subjectName, "forward");
+
+    verify(mockClient, times(1)).register(eq(subjectName), any(ParsedSchema.class));
+    verify(mockClient, times(1)).updateCompatibility(subjectName, "FORWARD");
+  }
+
+  @Test
+  public void shouldSkipSchemasAppliedByAPreviousRun() throws Exception {
+    SchemaRegistryManager manager = mockedManager();
+    manager.save(subjectName, schemaType, simpleSchema);
+    manager.setCompatibility(subjectName, "FORWARD");
+    Map<String, String> metadata = manager.stateMetadata();
+
+    SchemaRegistryManager other = mockedManager();
+    other.loadState(metadata);
+    assertThat(other.save(subjectName, schemaType, simpleSchema)).isEqualTo(7);
+    other.setCompatibility(subjectName, "FORWARD");
+    other.setCompatibility(subjectName, "BACKWARD");
+
+    verify(mockClient, times(1)).register(eq(subjectName), any(ParsedSchema.class));
+    verify(mockClient, times(1)).updateCompatibility(subjectName, "FORWARD");
+    verify(mockClient, times(1)).updateCompatibility(subjectName, "BACKWARD");
+  }
+
+  @Test
+  public void shouldParseASchemaSharedBySubjectsOnce() throws Exception {
+    SchemaRegistryManager manager = mockedManager();
+    when(mockClient.register(eq("apples"), any(ParsedSchema.class))).thenReturn(8);
+
+    assertThat(manager.save(subjectName, schemaType, simpleSchema)).isEqualTo(7);
+    assertThat(manager.save("apples", schemaType, simpleSchema)).isEqualTo(8);
+
+    verify(mockClient, times(1)).parseSchema(eq(schemaType), eq(simpleSchema), anyList());
+  }
+
+  @Test
+  public void shouldSkipTheCompatibilityCheckOfNewSubjects() throws Exception {
+    SchemaRegistryManager manager = mockedManager();
+    when(mockClient.getLatestSchemaMetadata(subjectName))
+        .thenThrow(new RestClientException("Subject not found", 404, 40401));
+
+    manager.checkCompatibility(subjectName, "schemas/bar-value.avsc", schemaType);
+
+    verify(mockClient, never()).getCompatibility(anyString());
+  }
+
+  @Test
+  public void shouldRejectSchemasIncompatibleWithTheLatestVersion() throws Exception {
+    SchemaRegistryManager manager = mockedManager();
+    String latestSchema = "{\"type\": \"int\"}";
+    ParsedSchema latest = Mockito.mock(ParsedSchema.class);
+    when(latest.schemaType()).thenReturn(schemaType);
+    when(mockClient.getLatestSchemaMetadata(subjectName))
+        .thenReturn(new SchemaMetadata(1, 1, latestSchema));
+    when(mockClient.parseSchema(eq(schemaType), eq(latestSchema), any()))
+        .thenReturn(Optional.of(latest));
+    when(mockClient.getCompatibility(subjectName)).thenReturn("BACKWARD");
+
+    try {
+      manager.checkCompatibility(subjectName, "schemas/bar-value.avsc", schemaType);
+      fail("the incompatible schema should be rejected");
+    } catch (SchemaRegistryManagerException e) {
+      assertThat(e.getMessage()).contains("not BACKWARD compatible");
+    }
+    verify(mockClient, never()).register(anyString(), any(ParsedSchema.class));
+  }
 }
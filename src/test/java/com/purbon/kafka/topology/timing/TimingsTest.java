@@ -0,0 +1,71 @@
+package com.purbon.kafka.topology.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.purbon.kafka.topology.actions.topics.DeleteTopics;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Test;
+
+public class TimingsTest {
+
+  @After
+  public void after() {
+    Timings.disable();
+  }
+
+  @Test
+  public void testNothingIsRecordedWhenDisabled() {
+    Timings.disable();
+    Timings.Timer timer = Timings.phase("parse");
+    timer.close();
+
+    assertThat(Timings.isEnabled()).isFalse();
+    assertThat(Timings.phase("validate")).isSameAs(timer);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Timings.printTable(new PrintStream(out));
+    assertThat(out.toString()).isEmpty();
+  }
+
+  @Test
+  public void testTimingsArePrintedPerKindAndName() {
+    Timings.enable();
+    try (Timings.Timer timer = Timings.phase("parse")) {
+      // timed work
+    }
+    DeleteTopics action = new DeleteTopics(null, Collections.emptyList());
+    for (int i = 0; i < 3; i++) {
+      try (Timings.Timer timer = Timings.action(action)) {
+        // timed work
+      }
+    }
+    try (Timings.Timer timer = Timings.call("admin", "createTopic")) {
+      // timed work
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Timings.printTable(new PrintStream(out));
+    String table = out.toString();
+
+    assertThat(table).containsPattern("phase +parse +1 ");
+    assertThat(table).containsPattern("action +DeleteTopics +3 ");
+    assertThat(table).containsPattern("call +admin.createTopic +1 ");
+  }
+
+  @Test
+  public void testPercentilesUseTheNearestRank() {
+    TimingRecorder.Samples samples = new TimingRecorder.Samples();
+    for (long value = 100; value > 0; value--) {
+      samples.add(value);
+    }
+
+    assertThat(samples.count()).isEqualTo(100);
+    assertThat(samples.total()).isEqualTo(5050);
+    assertThat(samples.percentile(50)).isEqualTo(50);
+    assertThat(samples.percentile(99)).isEqualTo(99);
+    assertThat(samples.percentile(100)).isEqualTo(100);
+  }
+}
@@ -15,6 +15,7 @@ public final class TestUtils {
   public static void deleteStateFile() {
     try {
       Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME));
+      Files.deleteIfExists(Paths.get(FileBackend.STATE_FILE_NAME + ".metadata"));
     } catch (final IOException e) {
       throw new RuntimeException(e);
     }